@@ -0,0 +1,139 @@
+package com.matias.dittler.hotelbooking.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Aplica al iniciar los ajustes de esquema que JPA no sabe declarar.
+ *
+ * En PostgreSQL:
+ *  - Alinea las secuencias de IDs con las filas existentes (las tablas
+ *    pueden venir de la época en que los IDs eran IDENTITY).
+ *  - Agrega la columna generada "stay" (daterange) y la restricción EXCLUDE
+ *    que impide reservas solapadas de una misma habitación, de modo que la
+ *    base rechace los dobles bookings aunque dos instancias acepten la misma
+ *    reserva.
+ *  - Crea el índice único de códigos de confirmación.
+ *
+ * Los scripts corren al crear el bean, después de que Hibernate actualizó
+ * el esquema (depende del EntityManagerFactory) y antes de que el servidor
+ * web acepte peticiones: ninguna petición puede tomar IDs de una secuencia
+ * todavía desalineada. Si un script falla, la aplicación no arranca.
+ * En otras bases (como H2 en tests) no hace nada.
+ *
+ * Una base existente puede tener reservas solapadas o códigos repetidos de
+ * antes de estas restricciones, y PostgreSQL no permite crearlas NOT VALID.
+ * En ese caso el script no las crea y la aplicación arranca igual (el índice
+ * en memoria sigue impidiendo solapamientos nuevos en esta instancia), pero
+ * se registra un error con las filas en conflicto. Una vez resueltas
+ * (cancelando o moviendo una reserva de cada par, o cambiando el código
+ * repetido), el siguiente arranque crea la restricción que falta.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class DatabaseSchemaInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseSchemaInitializer.class);
+
+    // Scripts idempotentes específicos de PostgreSQL, en orden de ejecución
+    private static final List<String> POSTGRES_SCRIPTS = List.of(
+            "db/postgres/sequences.sql",
+            "db/postgres/booking-constraints.sql");
+
+    // Máximo de filas en conflicto que se listan en el log
+    private static final int MAX_REPORTED_CONFLICTS = 50;
+
+    // Pares de reservas de una misma habitación con estadías solapadas
+    private static final String OVERLAPPING_BOOKINGS =
+            "SELECT a.room_id, a.id, b.id FROM bookings a JOIN bookings b "
+            + "ON a.room_id = b.room_id AND a.id < b.id AND a.stay && b.stay "
+            + "ORDER BY a.room_id, a.id, b.id LIMIT " + MAX_REPORTED_CONFLICTS;
+
+    // Códigos de confirmación repetidos y las reservas que los usan
+    private static final String DUPLICATED_CODES =
+            "SELECT booking_confirmation_code, string_agg(id::text, ', ' ORDER BY id) FROM bookings "
+            + "WHERE booking_confirmation_code IS NOT NULL GROUP BY booking_confirmation_code "
+            + "HAVING count(*) > 1 ORDER BY booking_confirmation_code LIMIT " + MAX_REPORTED_CONFLICTS;
+
+    @Autowired
+    private DataSource dataSource;
+
+    // Permite desactivar los scripts si el esquema se administra por fuera de la aplicación
+    @Value("${app.db.postgres-init:true}")
+    private boolean enabled;
+
+    @PostConstruct
+    public void initialize() throws SQLException {
+        if (!enabled || !isPostgres()) {
+            return;
+        }
+        POSTGRES_SCRIPTS.forEach(this::execute);
+        reportMissingBookingConstraints();
+    }
+
+    /**
+     * Registra las filas que impidieron crear las restricciones de reservas, para
+     * que puedan corregirse antes del próximo arranque.
+     */
+    private void reportMissingBookingConstraints() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        Integer overlapConstraints = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_constraint WHERE conname = 'bookings_no_overlap'", Integer.class);
+        if (overlapConstraints == null || overlapConstraints == 0) {
+            List<String> overlaps = jdbcTemplate.query(OVERLAPPING_BOOKINGS, (row, i) ->
+                    "habitación " + row.getLong(1) + ": reservas " + row.getLong(2) + " y " + row.getLong(3));
+            log.error("No se creó la restricción bookings_no_overlap: hay reservas solapadas (se muestran hasta {}): {}. "
+                    + "Cancele o mueva una reserva de cada par y reinicie la aplicación para crearla.",
+                    MAX_REPORTED_CONFLICTS, overlaps);
+        }
+
+        String codeIndex = jdbcTemplate.queryForObject(
+                "SELECT to_regclass('bookings_confirmation_code_key')::text", String.class);
+        if (codeIndex == null) {
+            List<String> duplicates = jdbcTemplate.query(DUPLICATED_CODES, (row, i) ->
+                    "código " + row.getString(1) + ": reservas " + row.getString(2));
+            log.error("No se creó el índice bookings_confirmation_code_key: hay códigos repetidos (se muestran hasta {}): {}. "
+                    + "Asigne un código nuevo a las reservas repetidas y reinicie la aplicación para crearlo.",
+                    MAX_REPORTED_CONFLICTS, duplicates);
+        }
+    }
+
+    /**
+     * Ejecuta un script completo. Si falla se interrumpe el arranque.
+     */
+    private void execute(String script) {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource(script));
+        // Los scripts pueden contener bloques DO con ';' internos: se envían completos y el driver los separa
+        populator.setSeparator(ScriptUtils.EOF_STATEMENT_SEPARATOR);
+        try {
+            populator.execute(dataSource);
+            log.info("Ajustes de esquema aplicados ({})", script);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("No se pudo aplicar " + script + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Indica si la base de datos configurada es PostgreSQL.
+     */
+    private boolean isPostgres() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        }
+    }
+}
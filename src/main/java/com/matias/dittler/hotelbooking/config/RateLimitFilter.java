@@ -0,0 +1,200 @@
+package com.matias.dittler.hotelbooking.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.matias.dittler.hotelbooking.dto.Response;
+import com.matias.dittler.hotelbooking.utils.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro que limita la cantidad de peticiones a los endpoints públicos
+ * sensibles a ataques de fuerza bruta o enumeración:
+ *  - POST /auth/login (cada intento es una verificación BCrypt)
+ *  - POST /auth/register
+ *  - GET /bookings/get-by-confirmation-code/{code}
+ *
+ * Cada endpoint tiene un token bucket por cliente (IP) y uno global. Si
+ * alguno está vacío se responde 429 con Retry-After, antes de la cadena de
+ * Spring Security y de cualquier servicio.
+ *
+ * La IP del cliente es request.getRemoteAddr(). Detrás de un proxy (Render)
+ * requiere server.forward-headers-strategy=native en application.yml, para
+ * que Tomcat la resuelva desde X-Forwarded-For; si no, todos los clientes
+ * compartirían el balde de la IP del proxy.
+ *
+ * Los baldes son sin bloqueos (ver TokenBucket). Los de cliente se guardan
+ * en una caché acotada por tamaño que descarta las IPs inactivas; la
+ * política de desalojo usa conteo aproximado de frecuencia, así que una
+ * ráfaga de IPs nuevas no desplaza a los clientes frecuentes.
+ *
+ * Cada decisión se publica en Micrometer como "ratelimit.decisions" con las
+ * etiquetas endpoint y outcome (allowed, rejected_client, rejected_global).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String CONFIRMATION_CODE_PREFIX = "/bookings/get-by-confirmation-code/";
+
+    /**
+     * Endpoints limitados.
+     */
+    enum Endpoint {
+        LOGIN, REGISTER, CONFIRMATION_CODE
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper; // Para escribir el cuerpo del 429
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry; // Registro de métricas (opcional)
+
+    // Permisos por minuto para cada cliente
+    @Value("${app.rate-limit.client-permits-per-minute:30}")
+    private double clientPermitsPerMinute = 30;
+
+    // Ráfaga máxima de cada cliente
+    @Value("${app.rate-limit.client-burst:10}")
+    private long clientBurst = 10;
+
+    // Permisos por segundo para todos los clientes juntos
+    @Value("${app.rate-limit.global-permits-per-second:100}")
+    private double globalPermitsPerSecond = 100;
+
+    // Ráfaga máxima global
+    @Value("${app.rate-limit.global-burst:200}")
+    private long globalBurst = 200;
+
+    // Cantidad máxima de clientes con balde propio
+    @Value("${app.rate-limit.max-clients:100000}")
+    private long maxClients = 100_000;
+
+    // Tiempo sin peticiones tras el cual se descarta el balde de un cliente
+    @Value("${app.rate-limit.idle-minutes:10}")
+    private long idleMinutes = 10;
+
+    // (endpoint, IP) -> balde del cliente
+    private Cache<ClientKey, TokenBucket> clientBuckets;
+
+    // Endpoint -> balde global
+    private final Map<Endpoint, TokenBucket> globalBuckets = new EnumMap<>(Endpoint.class);
+
+    @PostConstruct
+    public void init() {
+        clientBuckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+        long now = System.nanoTime();
+        for (Endpoint endpoint : Endpoint.values()) {
+            globalBuckets.put(endpoint, new TokenBucket(globalBurst, globalPermitsPerSecond, now));
+        }
+    }
+
+    /**
+     * Solo se filtran los endpoints limitados.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return classify(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        Endpoint endpoint = classify(request);
+        long now = System.nanoTime();
+
+        // Primero el balde del cliente: un cliente abusivo no consume el cupo global
+        TokenBucket clientBucket = clientBuckets.get(new ClientKey(endpoint, request.getRemoteAddr()),
+                key -> new TokenBucket(clientBurst, clientPermitsPerMinute / 60, now));
+        long waitNanos = clientBucket.tryAcquire(now);
+        if (waitNanos > 0) {
+            count(endpoint, "rejected_client");
+            reject(response, waitNanos);
+            return;
+        }
+
+        waitNanos = globalBuckets.get(endpoint).tryAcquire(now);
+        if (waitNanos > 0) {
+            count(endpoint, "rejected_global");
+            reject(response, waitNanos);
+            return;
+        }
+
+        count(endpoint, "allowed");
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Determina el endpoint limitado de la petición.
+     * @return El endpoint, o null si la petición no está limitada
+     */
+    private Endpoint classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        if ("POST".equals(method) && path.equals("/auth/login")) {
+            return Endpoint.LOGIN;
+        }
+        if ("POST".equals(method) && path.equals("/auth/register")) {
+            return Endpoint.REGISTER;
+        }
+        if ("GET".equals(method) && path.startsWith(CONFIRMATION_CODE_PREFIX)) {
+            return Endpoint.CONFIRMATION_CODE;
+        }
+        return null;
+    }
+
+    /**
+     * Responde 429 indicando cuándo reintentar.
+     */
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+
+        Response body = new Response();
+        body.setStatusCode(HttpStatus.TOO_MANY_REQUESTS.value());
+        body.setMessage("Demasiadas solicitudes, intente nuevamente en " + retryAfterSeconds + " segundos");
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private void count(Endpoint endpoint, String outcome) {
+        if (meterRegistry != null) {
+            Counter.builder("ratelimit.decisions")
+                    .tag("endpoint", endpoint.name().toLowerCase())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    private record ClientKey(Endpoint endpoint, String clientAddress) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.matias.dittler.hotelbooking.config;
+
+import com.matias.dittler.hotelbooking.service.RoomCatalog;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Filtro que valida las cachés HTTP del catálogo de habitaciones.
+ *
+ * Para GET /rooms/all y GET /rooms/types agrega un ETag con la versión del
+ * catálogo. Si el cliente envía If-None-Match con la versión vigente, responde
+ * 304 sin llegar al controlador.
+ *
+ * El ETag se toma antes de armar la respuesta: si el catálogo cambia en el
+ * medio, el cliente recibe un ETag más viejo que los datos y la próxima
+ * validación simplemente vuelve a descargarlos.
+ */
+@Component
+public class RoomCatalogEtagFilter extends OncePerRequestFilter {
+
+    // Rutas servidas completamente desde la instantánea del catálogo
+    private static final Set<String> CATALOG_PATHS = Set.of("/rooms/all", "/rooms/types");
+
+    @Autowired
+    private RoomCatalog roomCatalog;
+
+    /**
+     * Solo se filtran las lecturas del catálogo.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !"GET".equals(request.getMethod()) || !CATALOG_PATHS.contains(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String etag = roomCatalog.current().etag();
+        response.setHeader(HttpHeaders.ETAG, etag);
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -1,21 +1,30 @@
 package com.matias.dittler.hotelbooking.controller;
 
+import com.matias.dittler.hotelbooking.dto.DateChangeRequest;
+import com.matias.dittler.hotelbooking.dto.GroupBookingRequest;
 import com.matias.dittler.hotelbooking.dto.Response;
 import com.matias.dittler.hotelbooking.entity.Booking;
+import com.matias.dittler.hotelbooking.service.BookingExportService;
 import com.matias.dittler.hotelbooking.service.interfac.InterfaceBookingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controlador encargado de gestionar las reservas (Bookings) del sistema.
  *
  * Permite:
  * - Crear una nueva reserva
+ * - Crear una reserva grupal (varias habitaciones a la vez)
+ * - Convertir una retención temporal en reserva
  * - Obtener todas las reservas (solo ADMIN)
+ * - Exportar todas las reservas en NDJSON (solo ADMIN)
  * - Buscar reserva por código de confirmación
  * - Cancelar una reserva
+ * - Cambiar las fechas de una reserva
  *
  * Todas las rutas están bajo el prefijo: /bookings
  */
@@ -31,6 +40,12 @@ public class BookingController {
     @Autowired
     private InterfaceBookingService bookingService;
 
+    /**
+     * Servicio que exporta las reservas en streaming.
+     */
+    @Autowired
+    private BookingExportService bookingExportService;
+
     /**
      * Crea una nueva reserva para una habitación específica y un usuario determinado.
      *
@@ -41,6 +56,7 @@ public class BookingController {
      * @param roomId ID de la habitación a reservar
      * @param userId ID del usuario que realiza la reserva
      * @param bookingRequest Datos de la reserva (fechas, huéspedes, etc.)
+     * @param idempotencyKey Clave opcional para que los reintentos no dupliquen la reserva
      * @return ResponseEntity con el resultado de la operación y código HTTP correspondiente
      */
     @PostMapping("/book-room/{roomId}/{userId}")
@@ -48,29 +64,100 @@ public class BookingController {
     public ResponseEntity<Response> saveBooking(
             @PathVariable Long roomId,
             @PathVariable Long userId,
+            @RequestBody Booking bookingRequest,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+
+        // Con Idempotency-Key, los reintentos del cliente devuelven la respuesta original
+        Response response = idempotencyKey == null
+                ? bookingService.saveBooking(roomId, userId, bookingRequest)
+                : bookingService.saveBooking(roomId, userId, bookingRequest, idempotencyKey);
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
+
+    /**
+     * Convierte una retención temporal de habitación en una reserva.
+     * Las fechas y la habitación se toman de la retención.
+     *
+     * Requiere rol ADMIN o USER.
+     *
+     * URL: POST /bookings/from-hold/{holdId}/{userId}
+     *
+     * @param holdId ID de la retención creada con POST /rooms/{roomId}/hold
+     * @param userId ID del usuario que realiza la reserva
+     * @param bookingRequest Datos de huéspedes de la reserva
+     * @return ResponseEntity con el código de confirmación de la reserva
+     */
+    @PostMapping("/from-hold/{holdId}/{userId}")
+    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('USER')")
+    public ResponseEntity<Response> saveBookingFromHold(
+            @PathVariable String holdId,
+            @PathVariable Long userId,
             @RequestBody Booking bookingRequest) {
 
-        Response response = bookingService.saveBooking(roomId, userId, bookingRequest);
+        Response response = bookingService.saveBookingFromHold(holdId, userId, bookingRequest);
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
+
+    /**
+     * Crea una reserva grupal: varias habitaciones para un mismo usuario en una sola petición.
+     * Se confirman todas las habitaciones o ninguna.
+     *
+     * Requiere rol ADMIN o USER.
+     *
+     * URL: POST /bookings/group
+     *
+     * @param groupRequest Usuario y líneas (habitación, fechas, huéspedes) de la reserva
+     * @return ResponseEntity con las reservas creadas y sus códigos de confirmación
+     */
+    @PostMapping("/group")
+    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('USER')")
+    public ResponseEntity<Response> saveGroupBooking(@RequestBody GroupBookingRequest groupRequest) {
+
+        Response response = bookingService.saveGroupBooking(groupRequest);
         return ResponseEntity.status(response.getStatusCode()).body(response);
     }
 
     /**
-     * Obtiene todas las reservas registradas en el sistema.
+     * Obtiene las reservas registradas en el sistema, paginadas por cursor.
      *
      * Solo accesible por usuarios con rol ADMIN.
      *
-     * URL: GET /bookings/all
+     * URL: GET /bookings/all?limit=50&cursor={nextCursor}
      *
-     * @return Lista completa de reservas envuelta en un objeto Response
+     * @param cursor Valor de nextCursor de la página anterior (opcional)
+     * @param limit Tamaño de página (opcional)
+     * @return Página de reservas envuelta en un objeto Response
      */
     @GetMapping("/all")
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<Response> getAllBookings() {
+    public ResponseEntity<Response> getAllBookings(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
 
-        Response response = bookingService.getAllBookings();
+        Response response = bookingService.getAllBookings(cursor, limit);
         return ResponseEntity.status(response.getStatusCode()).body(response);
     }
 
+    /**
+     * Exporta todas las reservas como JSON delimitado por saltos de línea (una reserva por línea).
+     *
+     * La respuesta se escribe en streaming a medida que se leen las filas,
+     * sin cargar todas las reservas en memoria.
+     *
+     * Solo accesible por usuarios con rol ADMIN.
+     *
+     * URL: GET /bookings/export
+     *
+     * @return Cuerpo de la respuesta que se escribe en streaming
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportBookings() {
+
+        StreamingResponseBody body = out -> bookingExportService.exportAll(out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     /**
      * Busca una reserva utilizando su código de confirmación único.
      *
@@ -108,4 +195,26 @@ public class BookingController {
         Response response = bookingService.cancelBooking(bookingId);
         return ResponseEntity.status(response.getStatusCode()).body(response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Cambia las fechas de una reserva sin cancelarla, manteniendo la habitación.
+     * Si las nuevas fechas están ocupadas por otra reserva, la reserva no cambia.
+     *
+     * Requiere rol ADMIN o USER.
+     *
+     * URL: PATCH /bookings/{bookingId}/dates
+     *
+     * @param bookingId ID de la reserva a modificar
+     * @param dateChangeRequest Nuevas fechas de entrada y salida
+     * @return Resultado de la operación con la reserva actualizada
+     */
+    @PatchMapping("/{bookingId}/dates")
+    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('USER')")
+    public ResponseEntity<Response> updateBookingDates(
+            @PathVariable Long bookingId,
+            @RequestBody DateChangeRequest dateChangeRequest) {
+
+        Response response = bookingService.updateBookingDates(bookingId, dateChangeRequest);
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
+}
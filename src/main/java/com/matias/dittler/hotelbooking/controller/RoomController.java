@@ -1,5 +1,6 @@
 package com.matias.dittler.hotelbooking.controller;
 
+import com.matias.dittler.hotelbooking.dto.HoldRequest;
 import com.matias.dittler.hotelbooking.dto.Response;
 import com.matias.dittler.hotelbooking.service.interfac.InterfaceBookingService;
 import com.matias.dittler.hotelbooking.service.interfac.InterfaceRoomService;
@@ -22,6 +23,7 @@ import java.util.List;
  * - Actualizar o eliminar habitaciones (ADMIN)
  * - Consultar habitaciones
  * - Buscar disponibilidad por fecha y tipo
+ * - Retener temporalmente una habitación
  *
  * Todas las rutas están bajo el prefijo: /rooms
  */
@@ -78,15 +80,18 @@ public class RoomController {
     }
 
     /**
-     * Obtiene todas las habitaciones registradas.
+     * Obtiene las habitaciones registradas, paginadas por cursor.
      *
-     * URL: GET /rooms/all
+     * URL: GET /rooms/all?limit=50&cursor={nextCursor}
      *
-     * @return Lista completa de habitaciones
+     * @param cursor Valor de nextCursor de la página anterior (opcional)
+     * @param limit Tamaño de página (opcional)
+     * @return Página de habitaciones
      */
     @GetMapping("/all")
-    public ResponseEntity<Response> getAllRooms() {
-        Response response = roomService.getAllRooms();
+    public ResponseEntity<Response> getAllRooms(@RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer limit) {
+        Response response = roomService.getAllRooms(cursor, limit);
         return ResponseEntity.status(response.getStatusCode()).body(response);
     }
 
@@ -213,4 +218,41 @@ public class RoomController {
         Response response = roomService.deleteRoom(roomId);
         return ResponseEntity.status(response.getStatusCode()).body(response);
     }
+
+    /**
+     * Retiene una habitación durante algunos minutos (por ejemplo mientras el huésped paga).
+     * La retención se convierte en reserva con POST /bookings/from-hold/{holdId}/{userId}
+     * o vence sola.
+     *
+     * Requiere rol ADMIN o USER.
+     *
+     * URL: POST /rooms/{roomId}/hold
+     *
+     * @param roomId ID de la habitación
+     * @param holdRequest Fechas y duración (minutos) de la retención
+     * @return ID de la retención y su vencimiento
+     */
+    @PostMapping("/{roomId}/hold")
+    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('USER')")
+    public ResponseEntity<Response> holdRoom(@PathVariable Long roomId, @RequestBody HoldRequest holdRequest) {
+        Response response = roomService.holdRoom(roomId, holdRequest);
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
+
+    /**
+     * Cancela una retención y libera sus fechas.
+     *
+     * Requiere rol ADMIN o USER.
+     *
+     * URL: DELETE /rooms/hold/{holdId}
+     *
+     * @param holdId ID de la retención
+     * @return Resultado de la operación
+     */
+    @DeleteMapping("/hold/{holdId}")
+    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('USER')")
+    public ResponseEntity<Response> releaseHold(@PathVariable String holdId) {
+        Response response = roomService.releaseHold(holdId);
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
 }
@@ -33,16 +33,19 @@ public class UserController {
     private InterfaceUserService userService;
 
     /**
-     * Obtiene la lista completa de usuarios.
+     * Obtiene la lista de usuarios, paginada por cursor.
      * 
      * Solo accesible por usuarios con rol ADMIN.
      * 
-     * @return ResponseEntity con la lista de usuarios y código HTTP dinámico.
+     * @param cursor Valor de nextCursor de la página anterior (opcional)
+     * @param limit Tamaño de página (opcional)
+     * @return ResponseEntity con la página de usuarios y código HTTP dinámico.
      */
     @GetMapping("/all")
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<Response> getAllUsers(){
-        Response response = userService.getAllUsers();
+    public ResponseEntity<Response> getAllUsers(@RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer limit){
+        Response response = userService.getAllUsers(cursor, limit);
         return ResponseEntity.status(response.getStatusCode()).body(response);
     }
 
@@ -2,6 +2,7 @@ package com.matias.dittler.hotelbooking.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 /**
@@ -14,6 +15,7 @@ import java.time.LocalDate;
  * Se utiliza tanto para respuestas como para intercambio de datos en la API.
  */
 @Data // Genera automáticamente getters, setters, toString, equals y hashCode
+@NoArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL) 
 // Indica que solo se incluirán en el JSON los campos que no sean null.
 // Mejora la limpieza de las respuestas y evita enviar datos innecesarios.
@@ -68,4 +70,19 @@ public class BookingDTO {
      */
     private RoomDTO room;
 
+    /**
+     * Constructor usado por las consultas que proyectan directamente a este DTO
+     * (SELECT new ...), sin cargar la entidad Booking.
+     */
+    public BookingDTO(Long id, LocalDate checkInDate, LocalDate checkOutDate, int numOfAdults,
+                      int numOfChildren, int totalNumOfGuest, String bookingConfirmationCode) {
+        this.id = id;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.numOfAdults = numOfAdults;
+        this.numOfChildren = numOfChildren;
+        this.totalNumOfGuest = totalNumOfGuest;
+        this.bookingConfirmationCode = bookingConfirmationCode;
+    }
+
 }
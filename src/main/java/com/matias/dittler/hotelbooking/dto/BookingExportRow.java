@@ -0,0 +1,59 @@
+package com.matias.dittler.hotelbooking.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Proyección de solo lectura con los datos de una reserva para la exportación.
+ *
+ * Spring Data la completa directamente desde la consulta, sin hidratar
+ * entidades Booking ni su usuario. Al no ser entidades administradas, el
+ * contexto de persistencia no crece mientras se recorre la exportación.
+ */
+public interface BookingExportRow {
+
+    /**
+     * ID de la reserva.
+     */
+    Long getId();
+
+    /**
+     * ID de la habitación reservada.
+     */
+    Long getRoomId();
+
+    /**
+     * ID del usuario que realizó la reserva.
+     */
+    Long getUserId();
+
+    /**
+     * Fecha de entrada (check-in).
+     */
+    LocalDate getCheckInDate();
+
+    /**
+     * Fecha de salida (check-out).
+     */
+    LocalDate getCheckOutDate();
+
+    /**
+     * Cantidad de adultos.
+     */
+    int getNumOfAdults();
+
+    /**
+     * Cantidad de niños.
+     */
+    int getNumOfChildren();
+
+    /**
+     * Total de huéspedes.
+     */
+    int getTotalNumOfGuest();
+
+    /**
+     * Código de confirmación.
+     */
+    String getBookingConfirmationCode();
+
+}
@@ -0,0 +1,29 @@
+package com.matias.dittler.hotelbooking.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Proyección de solo lectura con el periodo ocupado por una reserva.
+ *
+ * Spring Data la completa directamente desde la consulta, sin hidratar
+ * entidades Booking ni Room. Se utiliza para cargar el índice de
+ * disponibilidad en memoria al iniciar la aplicación.
+ */
+public interface BookingPeriod {
+
+    /**
+     * ID de la habitación reservada.
+     */
+    Long getRoomId();
+
+    /**
+     * Fecha de entrada (check-in).
+     */
+    LocalDate getCheckInDate();
+
+    /**
+     * Fecha de salida (check-out).
+     */
+    LocalDate getCheckOutDate();
+
+}
@@ -0,0 +1,24 @@
+package com.matias.dittler.hotelbooking.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * DTO utilizado para cambiar las fechas de una reserva existente.
+ *
+ * Se usa en el endpoint PATCH /bookings/{bookingId}/dates.
+ */
+@Data // Lombok genera automáticamente getters, setters, toString, equals y hashCode
+public class DateChangeRequest {
+
+    /**
+     * Nueva fecha de check-in.
+     */
+    private LocalDate checkInDate;
+
+    /**
+     * Nueva fecha de check-out.
+     */
+    private LocalDate checkOutDate;
+}
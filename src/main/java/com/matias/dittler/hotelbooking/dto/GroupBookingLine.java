@@ -0,0 +1,37 @@
+package com.matias.dittler.hotelbooking.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Línea de una reserva grupal: una habitación con sus fechas y huéspedes.
+ */
+@Data // Lombok genera automáticamente getters, setters, toString, equals y hashCode
+public class GroupBookingLine {
+
+    /**
+     * ID de la habitación a reservar.
+     */
+    private Long roomId;
+
+    /**
+     * Fecha de check-in.
+     */
+    private LocalDate checkInDate;
+
+    /**
+     * Fecha de check-out.
+     */
+    private LocalDate checkOutDate;
+
+    /**
+     * Cantidad de adultos.
+     */
+    private int numOfAdults;
+
+    /**
+     * Cantidad de niños.
+     */
+    private int numOfChildren;
+}
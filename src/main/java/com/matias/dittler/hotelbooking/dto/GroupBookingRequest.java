@@ -0,0 +1,26 @@
+package com.matias.dittler.hotelbooking.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO utilizado para recibir una reserva grupal desde el cliente.
+ *
+ * Se usa en el endpoint POST /bookings/group para reservar varias
+ * habitaciones para un mismo usuario en una sola petición. La reserva
+ * es todo o nada: o se confirman todas las líneas o ninguna.
+ */
+@Data // Lombok genera automáticamente getters, setters, toString, equals y hashCode
+public class GroupBookingRequest {
+
+    /**
+     * ID del usuario que realiza la reserva (ej. operador turístico).
+     */
+    private Long userId;
+
+    /**
+     * Líneas de la reserva: una por habitación y rango de fechas.
+     */
+    private List<GroupBookingLine> bookings;
+}
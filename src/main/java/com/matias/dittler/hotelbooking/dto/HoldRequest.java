@@ -0,0 +1,31 @@
+package com.matias.dittler.hotelbooking.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * DTO utilizado para pedir la retención temporal de una habitación.
+ *
+ * Se usa en el endpoint POST /rooms/{roomId}/hold: bloquea las fechas
+ * durante algunos minutos (por ejemplo mientras el huésped paga) sin
+ * crear una reserva.
+ */
+@Data // Lombok genera automáticamente getters, setters, toString, equals y hashCode
+public class HoldRequest {
+
+    /**
+     * Fecha de check-in.
+     */
+    private LocalDate checkInDate;
+
+    /**
+     * Fecha de check-out.
+     */
+    private LocalDate checkOutDate;
+
+    /**
+     * Duración de la retención en minutos (opcional).
+     */
+    private Integer minutes;
+}
@@ -42,7 +42,7 @@ public class Response {
     private String role;
 
     /**
-     * Tiempo de expiración del token JWT.
+     * Tiempo de expiración del token JWT o de la retención de una habitación.
      */
     private String expirationTime;
 
@@ -51,6 +51,11 @@ public class Response {
      */
     private String bookingConfirmationCode;
 
+    /**
+     * ID de la retención temporal creada para una habitación.
+     */
+    private String holdId;
+
     /**
      * Información de un usuario específico.
      * Se usa cuando se devuelve un solo usuario.
@@ -78,9 +83,19 @@ public class Response {
      */
     private List<RoomDTO> roomList;
 
+    /**
+     * Versión del catálogo de habitaciones con la que se armó la respuesta.
+     */
+    private Long catalogVersion;
+
     /**
      * Lista de reservas.
      */
     private List<BookingDTO> bookingList;
 
+    /**
+     * Cursor para pedir la página siguiente de un listado (null si no hay más).
+     */
+    private String nextCursor;
+
 }
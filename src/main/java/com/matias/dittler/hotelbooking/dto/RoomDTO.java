@@ -2,6 +2,7 @@ package com.matias.dittler.hotelbooking.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -13,6 +14,7 @@ import java.util.List;
  * y para controlar exactamente qué datos se devuelven en la API.
  */
 @Data // Genera automáticamente getters, setters, equals, hashCode y toString
+@NoArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL) // No incluye campos null en el JSON
 public class RoomDTO {
 
@@ -51,4 +53,16 @@ public class RoomDTO {
      */
     private List<BookingDTO> bookings;
 
+    /**
+     * Constructor usado por las consultas que proyectan directamente a este DTO
+     * (SELECT new ...), sin cargar la entidad Room.
+     */
+    public RoomDTO(Long id, String roomType, BigDecimal roomPrice, String roomPhotoUrl, String roomDescription) {
+        this.id = id;
+        this.roomType = roomType;
+        this.roomPrice = roomPrice;
+        this.roomPhotoUrl = roomPhotoUrl;
+        this.roomDescription = roomDescription;
+    }
+
 }
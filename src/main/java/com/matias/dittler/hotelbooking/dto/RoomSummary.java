@@ -0,0 +1,21 @@
+package com.matias.dittler.hotelbooking.dto;
+
+/**
+ * Proyección de solo lectura con el ID y el tipo de una habitación.
+ *
+ * Se utiliza para construir el índice de búsqueda por tipo sin
+ * hidratar entidades Room.
+ */
+public interface RoomSummary {
+
+    /**
+     * ID de la habitación.
+     */
+    Long getId();
+
+    /**
+     * Tipo de habitación (ej. Suite, Doble).
+     */
+    String getRoomType();
+
+}
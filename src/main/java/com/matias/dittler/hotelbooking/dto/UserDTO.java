@@ -2,6 +2,7 @@ package com.matias.dittler.hotelbooking.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -14,6 +15,7 @@ import java.util.List;
  * se incluyen en las respuestas de la API.
  */
 @Data // Genera automáticamente getters, setters, equals, hashCode y toString
+@NoArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL) // No incluye campos null en el JSON
 public class UserDTO {
 
@@ -52,4 +54,16 @@ public class UserDTO {
      */
     private List<BookingDTO> bookings = new ArrayList<>();
 
+    /**
+     * Constructor usado por las consultas que proyectan directamente a este DTO
+     * (SELECT new ...), sin cargar la entidad User ni su contraseña.
+     */
+    public UserDTO(Long id, String email, String name, String phoneNumber, String role) {
+        this.id = id;
+        this.email = email;
+        this.name = name;
+        this.phoneNumber = phoneNumber;
+        this.role = role;
+    }
+
 }
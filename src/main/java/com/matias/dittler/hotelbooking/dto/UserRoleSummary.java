@@ -0,0 +1,21 @@
+package com.matias.dittler.hotelbooking.dto;
+
+/**
+ * Proyección de solo lectura con el ID y el rol de un usuario.
+ *
+ * Se utiliza para el registro de revocación de tokens, sin hidratar
+ * entidades User ni leer contraseñas.
+ */
+public interface UserRoleSummary {
+
+    /**
+     * ID del usuario.
+     */
+    Long getId();
+
+    /**
+     * Rol del usuario (ej. USER, ADMIN).
+     */
+    String getRole();
+
+}
@@ -22,10 +22,12 @@ public class Booking {
 
     /**
      * Identificador único de la reserva.
-     * Se genera automáticamente con auto-incremento.
+     * Se genera con una secuencia que reserva bloques de 50 IDs,
+     * lo que permite agrupar los inserts en lotes JDBC.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -71,10 +73,11 @@ public class Booking {
     /**
      * Relación muchos-a-uno con el usuario.
      * 
-     * FetchType.EAGER: el usuario se carga inmediatamente
-     * junto con la reserva.
+     * FetchType.LAZY: el usuario se carga solo cuando se necesita.
+     * Las consultas que lo usan lo traen con un EntityGraph,
+     * para no hacer una consulta extra por reserva.
      */
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id") // Clave foránea en la tabla bookings
     private User user;
 
@@ -0,0 +1,53 @@
+package com.matias.dittler.hotelbooking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Entidad que guarda el resultado de una petición con Idempotency-Key.
+ *
+ * Está mapeada a la tabla "idempotency_keys". Permite que un reintento
+ * del cliente con la misma clave reciba la respuesta original, incluso
+ * después de reiniciar la aplicación.
+ */
+@Data // Genera getters, setters, equals, hashCode y toString automáticamente
+@Entity // Indica que esta clase es una entidad JPA
+@Table(name = "idempotency_keys") // Nombre de la tabla en la base de datos
+public class IdempotencyRecord {
+
+    /**
+     * Clave de idempotencia, prefijada con el usuario que la envió.
+     */
+    @Id
+    @Column(length = 150)
+    private String idempotencyKey;
+
+    /**
+     * Resumen de los datos de la petición original.
+     * Una clave reutilizada con otros datos se rechaza.
+     */
+    private String requestFingerprint;
+
+    /**
+     * Código de estado de la respuesta original.
+     */
+    private int statusCode;
+
+    /**
+     * Mensaje de la respuesta original.
+     */
+    @Column(length = 500)
+    private String message;
+
+    /**
+     * Código de confirmación de la reserva creada, si corresponde.
+     */
+    private String bookingConfirmationCode;
+
+    /**
+     * Momento en que se guardó la respuesta; se usa para expirarla.
+     */
+    private Instant createdAt;
+}
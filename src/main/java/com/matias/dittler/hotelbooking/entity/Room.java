@@ -21,10 +21,12 @@ public class Room {
 
     /**
      * Identificador único de la habitación.
-     * Se genera automáticamente (auto-incremental).
+     * Se genera con una secuencia que reserva bloques de 50 IDs,
+     * lo que permite agrupar los inserts en lotes JDBC.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "room_seq")
+    @SequenceGenerator(name = "room_seq", sequenceName = "rooms_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -24,10 +24,12 @@ public class User implements UserDetails {
 
     /**
      * Identificador único del usuario.
-     * Se genera automáticamente con auto-incremento.
+     * Se genera con una secuencia que reserva bloques de 50 IDs,
+     * lo que permite agrupar los inserts en lotes JDBC.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     /**
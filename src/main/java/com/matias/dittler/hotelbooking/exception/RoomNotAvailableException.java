@@ -0,0 +1,20 @@
+package com.matias.dittler.hotelbooking.exception;
+
+/**
+ * Excepción que indica que la habitación ya está reservada en el rango de fechas pedido.
+ *
+ * Se distingue de OurException para poder responder con 409 (conflicto)
+ * en lugar de 404, ya que la habitación existe pero no está disponible.
+ */
+public class RoomNotAvailableException extends OurException {
+
+    /**
+     * Constructor que recibe un mensaje descriptivo de la excepción.
+     *
+     * @param message Mensaje que describe el motivo de la excepción
+     */
+    public RoomNotAvailableException(String message) {
+        super(message);
+    }
+
+}
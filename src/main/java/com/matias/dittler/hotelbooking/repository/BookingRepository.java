@@ -1,8 +1,21 @@
 package com.matias.dittler.hotelbooking.repository;
 
+import com.matias.dittler.hotelbooking.dto.BookingDTO;
+import com.matias.dittler.hotelbooking.dto.BookingExportRow;
+import com.matias.dittler.hotelbooking.dto.BookingPeriod;
 import com.matias.dittler.hotelbooking.entity.Booking;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para la entidad Booking.
@@ -22,9 +35,94 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     /**
      * Método personalizado para buscar una reserva por su código de confirmación.
      *
+     * Trae el usuario y la habitación en la misma consulta (EntityGraph),
+     * ya que la respuesta incluye ambos.
+     *
      * @param confirmationCode Código de confirmación de la reserva
      * @return Optional<Booking> que contendrá la reserva si se encuentra
      */
+    @EntityGraph(attributePaths = {"user", "room"})
     Optional<Booking> findByBookingConfirmationCode(String confirmationCode);
 
+    /**
+     * Obtiene el periodo (habitación, check-in y check-out) de todas las reservas.
+     *
+     * Devuelve una proyección liviana en lugar de entidades completas,
+     * pensada para construir el índice de disponibilidad en memoria.
+     *
+     * @return Lista de periodos ocupados
+     */
+    @Query("SELECT b.room.id AS roomId, b.checkInDate AS checkInDate, b.checkOutDate AS checkOutDate FROM Booking b")
+    List<BookingPeriod> findAllBookingPeriods();
+
+    /**
+     * Obtiene los códigos de confirmación de todas las reservas.
+     *
+     * Se usa para construir el filtro de códigos en memoria.
+     *
+     * @return Lista de códigos de confirmación
+     */
+    @Query("SELECT b.bookingConfirmationCode FROM Booking b WHERE b.bookingConfirmationCode IS NOT NULL")
+    List<String> findAllConfirmationCodes();
+
+    /**
+     * Obtiene las reservas de una habitación, proyectadas directamente a DTO.
+     *
+     * @param roomId ID de la habitación
+     * @return Lista de reservas de la habitación
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.matias.dittler.hotelbooking.dto.BookingDTO(b.id, b.checkInDate, b.checkOutDate, "
+            + "b.numOfAdults, b.numOfChildren, b.totalNumOfGuest, b.bookingConfirmationCode) FROM Booking b WHERE b.room.id = :roomId")
+    List<BookingDTO> findBookingDTOsByRoomId(Long roomId);
+
+    /**
+     * Obtiene una página de reservas con ID menor al indicado, en orden descendente.
+     * Se resuelve con un recorrido por rango de la clave primaria (paginación keyset).
+     *
+     * Proyecta directamente a DTO: no se crean entidades administradas
+     * ni copias para la detección de cambios.
+     *
+     * @param id Las reservas devueltas tienen un ID menor a este
+     * @param limit Cantidad máxima de reservas
+     * @return Reservas de la página
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.matias.dittler.hotelbooking.dto.BookingDTO(b.id, b.checkInDate, b.checkOutDate, "
+            + "b.numOfAdults, b.numOfChildren, b.totalNumOfGuest, b.bookingConfirmationCode) FROM Booking b WHERE b.id < :id ORDER BY b.id DESC")
+    List<BookingDTO> findPageBefore(Long id, Limit limit);
+
+    /**
+     * Recorre todas las reservas en orden de ID, para la exportación.
+     *
+     * El resultado se lee con un cursor de solo avance: el driver trae las filas
+     * de a bloques (fetch size) en lugar de cargar toda la tabla. Debe consumirse
+     * dentro de una transacción y cerrarse al terminar.
+     *
+     * @return Stream de reservas
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b.id AS id, b.room.id AS roomId, b.user.id AS userId, b.checkInDate AS checkInDate, "
+            + "b.checkOutDate AS checkOutDate, b.numOfAdults AS numOfAdults, b.numOfChildren AS numOfChildren, "
+            + "b.totalNumOfGuest AS totalNumOfGuest, b.bookingConfirmationCode AS bookingConfirmationCode "
+            + "FROM Booking b ORDER BY b.id")
+    Stream<BookingExportRow> streamAllForExport();
+
+    /**
+     * Elimina una reserva por ID.
+     *
+     * A diferencia de deleteById(), informa si la fila existía: si dos
+     * cancelaciones simultáneas la eliminan, solo una recibe 1.
+     *
+     * @param id ID de la reserva
+     * @return Cantidad de reservas eliminadas (0 o 1)
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Booking b WHERE b.id = :id")
+    int deleteBookingById(Long id);
+
 }
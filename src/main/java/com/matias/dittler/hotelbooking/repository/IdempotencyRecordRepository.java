@@ -0,0 +1,29 @@
+package com.matias.dittler.hotelbooking.repository;
+
+import com.matias.dittler.hotelbooking.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Repositorio para la entidad IdempotencyRecord.
+ *
+ * Respalda en la base de datos las respuestas de las peticiones con
+ * Idempotency-Key, para que sobrevivan a un reinicio de la aplicación.
+ */
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Elimina las respuestas guardadas antes del instante indicado.
+     *
+     * @param cutoff Instante límite; se borran los registros anteriores
+     * @return Cantidad de registros eliminados
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(Instant cutoff);
+}
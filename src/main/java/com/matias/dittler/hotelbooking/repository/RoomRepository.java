@@ -1,9 +1,13 @@
 package com.matias.dittler.hotelbooking.repository;
 
+import com.matias.dittler.hotelbooking.dto.RoomDTO;
+import com.matias.dittler.hotelbooking.dto.RoomSummary;
 import com.matias.dittler.hotelbooking.entity.Room;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -35,11 +39,44 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
     @Query("SELECT r FROM Room r WHERE r.id NOT IN (SELECT b.room.id FROM Booking b)")
     List<Room> getAllAvailableRooms();
 
+    /**
+     * Obtiene el ID y el tipo de todas las habitaciones.
+     *
+     * @return Lista de proyecciones livianas de habitaciones
+     */
+    @Query("SELECT r.id AS id, r.roomType AS roomType FROM Room r")
+    List<RoomSummary> findAllRoomSummaries();
+
+    /**
+     * Obtiene todas las habitaciones, proyectadas directamente a DTO y ordenadas por ID descendente.
+     *
+     * No se crean entidades administradas ni copias para la detección de cambios.
+     *
+     * @return Lista de habitaciones
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.matias.dittler.hotelbooking.dto.RoomDTO(r.id, r.roomType, r.roomPrice, r.roomPhotoUrl, "
+            + "r.roomDescription) FROM Room r ORDER BY r.id DESC")
+    List<RoomDTO> findAllRoomDTOs();
+
+    /**
+     * Obtiene las habitaciones con los IDs indicados, proyectadas directamente a DTO.
+     *
+     * @param ids IDs de las habitaciones
+     * @return Lista de habitaciones ordenadas por ID
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.matias.dittler.hotelbooking.dto.RoomDTO(r.id, r.roomType, r.roomPrice, r.roomPhotoUrl, "
+            + "r.roomDescription) FROM Room r WHERE r.id IN :ids ORDER BY r.id")
+    List<RoomDTO> findRoomDTOsByIdIn(Collection<Long> ids);
+
     /**
      * Obtiene habitaciones disponibles por rango de fechas y tipo de habitación.
      *
      * La consulta verifica que la habitación no tenga reservas que
-     * se solapen con las fechas indicadas.
+     * se solapen con las fechas indicadas. Una reserva ocupa las noches
+     * [check-in, check-out), igual que en el índice de disponibilidad,
+     * por lo que se utiliza como respaldo y verificación del índice de búsqueda.
      *
      * @param checkInDate Fecha de entrada deseada
      * @param checkOutDate Fecha de salida deseada
@@ -48,7 +85,7 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
      */
     @Query("SELECT r FROM Room r WHERE r.roomType LIKE %:roomType% AND r.id NOT IN " +
            "(SELECT bk.room.id FROM Booking bk WHERE " +
-           "(bk.checkInDate <= :checkOutDate) AND (bk.checkOutDate >= :checkInDate))")
+           "(bk.checkInDate < :checkOutDate) AND (bk.checkOutDate > :checkInDate))")
     List<Room> findAvailableRoomsByDateAndTypes(LocalDate checkInDate, LocalDate checkOutDate, String roomType);
 
 }
@@ -1,7 +1,14 @@
 package com.matias.dittler.hotelbooking.repository;
 
+import com.matias.dittler.hotelbooking.dto.UserDTO;
+import com.matias.dittler.hotelbooking.dto.UserRoleSummary;
 import com.matias.dittler.hotelbooking.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -37,5 +44,60 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return Optional<User> que contiene el usuario si se encuentra
      */
     Optional<User> findByEmail(String email);
-    
+
+    /**
+     * Busca un usuario junto con sus reservas y la habitación de cada una.
+     *
+     * Todo se trae en una única consulta (EntityGraph) en lugar de una
+     * consulta por reserva. Se usa para el historial de reservas.
+     *
+     * @param id ID del usuario
+     * @return Optional<User> con sus reservas y habitaciones cargadas
+     */
+    @EntityGraph(attributePaths = {"bookings", "bookings.room"})
+    Optional<User> findWithBookingsAndRoomsById(Long id);
+
+    /**
+     * Obtiene una página de usuarios con ID menor al indicado, en orden descendente.
+     * Se resuelve con un recorrido por rango de la clave primaria (paginación keyset).
+     *
+     * Proyecta directamente a DTO: no se cargan entidades ni contraseñas.
+     *
+     * @param id Los usuarios devueltos tienen un ID menor a este
+     * @param limit Cantidad máxima de usuarios
+     * @return Usuarios de la página
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.matias.dittler.hotelbooking.dto.UserDTO(u.id, u.email, u.name, u.phoneNumber, u.role) FROM User u WHERE u.id < :id ORDER BY u.id DESC")
+    List<UserDTO> findPageBefore(Long id, Limit limit);
+
+    /**
+     * Busca un usuario por ID, proyectado directamente a DTO (sin contraseña).
+     *
+     * @param id ID del usuario
+     * @return Optional<UserDTO> con los datos del usuario
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.matias.dittler.hotelbooking.dto.UserDTO(u.id, u.email, u.name, u.phoneNumber, u.role) FROM User u WHERE u.id = :id")
+    Optional<UserDTO> findUserDTOById(Long id);
+
+    /**
+     * Busca un usuario por email, proyectado directamente a DTO (sin contraseña).
+     *
+     * @param email Email del usuario
+     * @return Optional<UserDTO> con los datos del usuario
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.matias.dittler.hotelbooking.dto.UserDTO(u.id, u.email, u.name, u.phoneNumber, u.role) FROM User u WHERE u.email = :email")
+    Optional<UserDTO> findUserDTOByEmail(String email);
+
+    /**
+     * Obtiene el ID y el rol de todos los usuarios.
+     *
+     * @return Lista de proyecciones livianas de usuarios
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT u.id AS id, u.role AS role FROM User u")
+    List<UserRoleSummary> findAllUserRoles();
+
 }
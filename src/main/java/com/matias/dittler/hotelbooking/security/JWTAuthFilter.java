@@ -1,7 +1,9 @@
 package com.matias.dittler.hotelbooking.security;
 
 import com.matias.dittler.hotelbooking.service.CustomUserDetailsService;
+import com.matias.dittler.hotelbooking.service.TokenRevocationRegistry;
 import com.matias.dittler.hotelbooking.utils.JWTUtils;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,6 +28,11 @@ import java.io.IOException;
  *  - Validar el token.
  *  - Si es válido, establecer la autenticación en el contexto de seguridad.
  *
+ * El usuario autenticado se arma con los claims verificados del token (email,
+ * ID y rol), sin consultar la base de datos. Solo se consulta la base cuando
+ * el token no trae esos claims o cuando el registro de revocación indica que
+ * el rol cambió; los tokens de usuarios eliminados se rechazan.
+ *
  * Este filtro se integra en la cadena de filtros de Spring Security
  * antes del UsernamePasswordAuthenticationFilter.
  */
@@ -38,11 +45,17 @@ public class JWTAuthFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService customUserDetailsService; // Servicio que obtiene los datos del usuario desde la base de datos
 
+    @Autowired
+    private TokenRevocationRegistry revocationRegistry; // Rol vigente y usuarios eliminados, en memoria
+
+    @Autowired
+    private RouteClassifier routeClassifier; // Rutas públicas y protegidas, compartidas con SecurityConfig
+
     /**
      * Determina qué rutas NO deben pasar por este filtro JWT.
      *
-     * Se excluyen:
-     *  - Endpoints públicos (/auth, /rooms, /bookings).
+     * Se excluyen las rutas públicas de RouteClassifier:
+     *  - Endpoints públicos (/auth y las consultas de /rooms y /bookings).
      *  - Documentación OpenAPI y Swagger.
      *  - Recursos estáticos necesarios para Swagger UI.
      *
@@ -54,16 +67,7 @@ public class JWTAuthFilter extends OncePerRequestFilter {
      */
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        String path = request.getRequestURI();
-
-        return path.startsWith("/v3/api-docs")
-                || path.startsWith("/rooms")
-                || path.startsWith("/bookings")
-                || path.startsWith("/auth")
-                || path.startsWith("/swagger-ui")
-                || path.startsWith("/swagger-ui.html")
-                || path.startsWith("/swagger-ui/index.html")
-                || path.startsWith("/webjars");
+        return routeClassifier.isPublic(request.getRequestURI());
     }
 
     /**
@@ -73,8 +77,9 @@ public class JWTAuthFilter extends OncePerRequestFilter {
      *  1. Obtiene el header Authorization.
      *  2. Verifica que tenga formato "Bearer <token>".
      *  3. Extrae el email del usuario desde el token.
-     *  4. Valida el token contra los datos del usuario.
-     *  5. Si es válido, establece la autenticación en el SecurityContext.
+     *  4. Arma el usuario con los claims del token (o lo carga desde la base).
+     *  5. Valida el token contra los datos del usuario.
+     *  6. Si es válido, establece la autenticación en el SecurityContext.
      *
      * @param request  solicitud HTTP
      * @param response respuesta HTTP
@@ -100,14 +105,40 @@ public class JWTAuthFilter extends OncePerRequestFilter {
         // Extrae el token JWT removiendo el prefijo "Bearer "
         jwtToken = authHeader.substring(7);
 
-        // Extrae el username (email) desde el token
+        // Extrae el username (email) desde el token.
+        // El token se verifica una sola vez; isValidToken reutiliza los claims en caché.
         userEmail = jwtUtils.extractUsername(jwtToken);
 
         // Si el token contiene un usuario válido y no existe autenticación previa
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            // Carga los detalles del usuario desde la base de datos
-            UserDetails userDetails = customUserDetailsService.loadUserByUsername(userEmail);
+            UserDetails userDetails = null;
+
+            // ID y rol firmados dentro del token
+            Claims claims = jwtUtils.parseClaims(jwtToken);
+            Long userId = claims == null ? null : claims.get(JWTUtils.USER_ID_CLAIM, Long.class);
+            String role = claims == null ? null : claims.get(JWTUtils.ROLE_CLAIM, String.class);
+
+            if (userId != null && role != null) {
+                TokenRevocationRegistry.Status status = revocationRegistry.check(userId, role);
+
+                // Usuario eliminado: se continúa sin autenticar
+                if (status == TokenRevocationRegistry.Status.REVOKED) {
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+
+                // Claims vigentes: el usuario se arma sin consultar la base
+                if (status == TokenRevocationRegistry.Status.CURRENT) {
+                    userDetails = new UserPrincipal(userId, userEmail, role, null);
+                }
+            }
+
+            // Token sin ID/rol (emitido antes de incluirlos) o con rol desactualizado:
+            // se cargan los detalles del usuario desde la base de datos
+            if (userDetails == null) {
+                userDetails = customUserDetailsService.loadUserByUsername(userEmail);
+            }
 
             // Verifica que el token sea válido y no esté expirado
             if (jwtUtils.isValidToken(jwtToken, userDetails)) {
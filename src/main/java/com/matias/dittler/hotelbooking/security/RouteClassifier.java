@@ -0,0 +1,155 @@
+package com.matias.dittler.hotelbooking.security;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Clasifica las rutas de la API en públicas o protegidas.
+ *
+ * Es la única fuente de verdad sobre qué rutas requieren autenticación: la
+ * usan tanto SecurityConfig (para permitir el acceso) como JWTAuthFilter
+ * (para no procesar el token en rutas públicas), así las dos listas no
+ * pueden quedar desincronizadas.
+ *
+ * La tabla ROUTES se compila una sola vez en un árbol de prefijos por
+ * segmento de ruta; cada URI se clasifica en un único recorrido. Gana la
+ * entrada más específica y las rutas sin entrada son protegidas.
+ *
+ * Las rutas protegidas deben clasificarse como AUTHENTICATED: en las
+ * públicas JWTAuthFilter no procesa el token, así que un @PreAuthorize
+ * debajo de una ruta pública respondería siempre 403.
+ *
+ * Formato de la tabla:
+ *  - "/ruta": solo esa ruta exacta.
+ *  - "/ruta/**": esa ruta y todo lo que esté debajo.
+ */
+@Component
+public class RouteClassifier {
+
+    /**
+     * Acceso requerido por una ruta.
+     */
+    public enum Access {
+        // Accesible sin autenticación
+        PUBLIC,
+        // Requiere un usuario autenticado
+        AUTHENTICATED
+    }
+
+    // Tabla declarativa de rutas
+    private static final Map<String, Access> ROUTES = new LinkedHashMap<>();
+
+    static {
+        ROUTES.put("/", Access.PUBLIC);
+
+        // Endpoints públicos de la API
+        ROUTES.put("/auth/**", Access.PUBLIC);
+
+        // Habitaciones: solo las consultas son públicas; alta, edición, baja y retenciones requieren token
+        ROUTES.put("/rooms/**", Access.AUTHENTICATED);
+        ROUTES.put("/rooms/all", Access.PUBLIC);
+        ROUTES.put("/rooms/types", Access.PUBLIC);
+        ROUTES.put("/rooms/room-by-id/**", Access.PUBLIC);
+        ROUTES.put("/rooms/all-available-rooms", Access.PUBLIC);
+        ROUTES.put("/rooms/available-rooms-by-date-and-type", Access.PUBLIC);
+
+        // Reservas: solo la consulta por código de confirmación es pública
+        ROUTES.put("/bookings/**", Access.AUTHENTICATED);
+        ROUTES.put("/bookings/get-by-confirmation-code/**", Access.PUBLIC);
+
+        // Documentación OpenAPI, Swagger UI y sus recursos estáticos
+        ROUTES.put("/v3/api-docs/**", Access.PUBLIC);
+        ROUTES.put("/swagger-ui/**", Access.PUBLIC);
+        ROUTES.put("/swagger-ui.html", Access.PUBLIC);
+        ROUTES.put("/webjars/**", Access.PUBLIC);
+
+        // Endpoints protegidos
+        ROUTES.put("/users/**", Access.AUTHENTICATED);
+    }
+
+    // Acceso de las rutas que no figuran en la tabla
+    private static final Access DEFAULT_ACCESS = Access.AUTHENTICATED;
+
+    private final Node root = new Node();
+
+    /**
+     * Compila la tabla de rutas en el árbol de prefijos.
+     */
+    public RouteClassifier() {
+        ROUTES.forEach(this::add);
+    }
+
+    /**
+     * Clasifica una ruta.
+     * @param path Ruta de la petición (ej. request.getRequestURI())
+     * @return Acceso requerido por la ruta
+     */
+    public Access classify(String path) {
+        Node node = root;
+        Access match = root.subtree;
+        int start = 0;
+        while (start < path.length()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            if (end > start) {
+                node = node.children.get(path.substring(start, end));
+                if (node == null) {
+                    return match != null ? match : DEFAULT_ACCESS;
+                }
+                if (node.subtree != null) {
+                    match = node.subtree;
+                }
+            }
+            start = end + 1;
+        }
+        if (node.exact != null) {
+            return node.exact;
+        }
+        return match != null ? match : DEFAULT_ACCESS;
+    }
+
+    /**
+     * Indica si una ruta es accesible sin autenticación.
+     * @param path Ruta de la petición
+     * @return true si la ruta es pública
+     */
+    public boolean isPublic(String path) {
+        return classify(path) == Access.PUBLIC;
+    }
+
+    private void add(String pattern, Access access) {
+        boolean subtree = pattern.endsWith("/**");
+        String path = subtree ? pattern.substring(0, pattern.length() - 3) : pattern;
+        Node node = root;
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                node = node.children.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+        if (subtree) {
+            node.subtree = access;
+        } else {
+            node.exact = access;
+        }
+    }
+
+    /**
+     * Nodo del árbol: un segmento de ruta.
+     */
+    private static class Node {
+
+        // Segmento siguiente -> nodo
+        private final Map<String, Node> children = new HashMap<>();
+
+        // Acceso de la ruta exacta que termina en este nodo
+        private Access exact;
+
+        // Acceso de este nodo y todo lo que está debajo
+        private Access subtree;
+    }
+}
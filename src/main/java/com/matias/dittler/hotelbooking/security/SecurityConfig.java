@@ -40,6 +40,9 @@ public class SecurityConfig {
     @Autowired
     private JWTAuthFilter jwtAuthFilter; // Filtro que valida tokens JWT
 
+    @Autowired
+    private RouteClassifier routeClassifier; // Tabla de rutas públicas y protegidas
+
     /**
      * Configuración de la cadena de filtros de seguridad.
      * @param httpSecurity Objeto HttpSecurity de Spring Security
@@ -55,9 +58,8 @@ public class SecurityConfig {
                 .cors(Customizer.withDefaults())
                 // Configuración de autorización de endpoints
                 .authorizeHttpRequests(request -> request
-                        .requestMatchers("/").permitAll()
-                        .requestMatchers("/v3/api-docs/**","/swagger-ui/**","/swagger-ui.html", "/swagger-ui/index.html", "/webjars/**").permitAll() // Endpoints públicos
-                        .requestMatchers("/auth/**", "/rooms/**", "/bookings/**").permitAll() // Endpoint publicos
+                        // Endpoints públicos según RouteClassifier (la misma tabla que usa el filtro JWT)
+                        .requestMatchers(httpRequest -> routeClassifier.isPublic(httpRequest.getRequestURI())).permitAll()
                         .anyRequest().authenticated() // Todos los demás requieren autenticación
                 )
                 // Configuración de sesiones: sin estado, ya que usamos JWT
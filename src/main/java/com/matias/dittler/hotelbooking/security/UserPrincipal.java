@@ -0,0 +1,57 @@
+package com.matias.dittler.hotelbooking.security;
+
+import com.matias.dittler.hotelbooking.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Usuario autenticado, inmutable.
+ *
+ * Guarda solo el ID, el email, el rol y el hash de la contraseña (necesario
+ * para verificar el login). A diferencia de la entidad User, no arrastra la
+ * lista de reservas ni la sesión de Hibernate, por lo que puede guardarse en
+ * caché y compartirse entre hilos.
+ *
+ * @param id ID del usuario
+ * @param email Email del usuario (username para Spring Security)
+ * @param role Rol del usuario (ej. USER, ADMIN)
+ * @param password Hash de la contraseña, o null si el usuario viene de los claims del JWT
+ */
+public record UserPrincipal(Long id, String email, String role, String password) implements UserDetails {
+
+    /**
+     * Crea el usuario autenticado a partir de la entidad.
+     * @param user Entidad User
+     * @return Usuario autenticado
+     */
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getRole(), user.getPassword());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(role));
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    /**
+     * No incluye el hash de la contraseña.
+     */
+    @Override
+    public String toString() {
+        return "UserPrincipal[id=" + id + ", email=" + email + ", role=" + role + "]";
+    }
+}
@@ -0,0 +1,91 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.matias.dittler.hotelbooking.dto.BookingExportRow;
+import com.matias.dittler.hotelbooking.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exporta todas las reservas como JSON delimitado por saltos de línea (NDJSON).
+ *
+ * Las filas se leen con un cursor de la base de datos y se escriben una por una
+ * con el generador streaming de Jackson, sin armar listas en memoria. El uso de
+ * memoria es constante sin importar la cantidad de reservas.
+ *
+ * La primera fila se envía apenas se lee, y después se vacía el buffer cada
+ * FLUSH_EVERY filas para que el cliente reciba datos de forma continua.
+ */
+@Service
+public class BookingExportService {
+
+    // Cantidad de filas entre cada envío al cliente
+    private static final int FLUSH_EVERY = 500;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Autowired
+    private BookingRepository bookingRepository; // Fuente de las reservas
+
+    /**
+     * Escribe todas las reservas en la salida, una por línea.
+     * La transacción mantiene abierto el cursor mientras se escribe.
+     * @param out Salida de la respuesta HTTP (no se cierra)
+     * @throws IOException si el cliente corta la conexión
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(OutputStream out) throws IOException {
+        try (Stream<BookingExportRow> rows = bookingRepository.streamAllForExport();
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Cada fila termina en salto de línea; sin el espacio que Jackson agrega entre valores raíz
+            generator.setRootValueSeparator(null);
+
+            long written = 0;
+            Iterator<BookingExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writeRow(generator, iterator.next());
+                written++;
+                if (written == 1 || written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+    }
+
+    private static void writeRow(JsonGenerator generator, BookingExportRow row) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", row.getId());
+        writeNullableNumber(generator, "roomId", row.getRoomId());
+        writeNullableNumber(generator, "userId", row.getUserId());
+        writeNullableDate(generator, "checkInDate", row.getCheckInDate());
+        writeNullableDate(generator, "checkOutDate", row.getCheckOutDate());
+        generator.writeNumberField("numOfAdults", row.getNumOfAdults());
+        generator.writeNumberField("numOfChildren", row.getNumOfChildren());
+        generator.writeNumberField("totalNumOfGuest", row.getTotalNumOfGuest());
+        generator.writeStringField("bookingConfirmationCode", row.getBookingConfirmationCode());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static void writeNullableNumber(JsonGenerator generator, String field, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, value);
+        }
+    }
+
+    private static void writeNullableDate(JsonGenerator generator, String field, LocalDate value) throws IOException {
+        generator.writeStringField(field, value == null ? null : value.toString());
+    }
+}
@@ -0,0 +1,553 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.entity.Booking;
+import com.matias.dittler.hotelbooking.exception.RoomNotAvailableException;
+import com.matias.dittler.hotelbooking.repository.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ejecutor de admisión de reservas particionado por habitación.
+ *
+ * Cada habitación se asigna siempre a la misma partición, y cada partición
+ * tiene un único hilo escritor que consume una cola sin bloqueos. Así, todas
+ * las reservas de una habitación se admiten en serie sin competir entre sí,
+ * y habitaciones distintas avanzan en paralelo en distintas particiones.
+ *
+ * El hilo de cada partición acumula las solicitudes pendientes en lotes
+ * (hasta 100 reservas o 5 ms desde la primera, por defecto): verifica la disponibilidad en el RoomAvailabilityIndex, rechaza las que
+ * se solapan y guarda todas las aceptadas en una única transacción
+ * (group commit). Si el lote falla, se reintenta reserva por reserva para
+ * que un solo conflicto no haga fallar al resto. Si una reserva choca con el
+ * índice único de códigos de confirmación, se reintenta una vez con otro código
+ * (también en admitReserved y admitGroup).
+ *
+ * Cada cola admite como máximo "app.booking.queue-capacity" solicitudes
+ * pendientes; las que no entran se rechazan de inmediato. Y cada solicitud
+ * que sigue en la cola tras "app.booking.admission-timeout-ms" se cancela
+ * sin reservar. Así una partición saturada o detenida nunca deja hilos HTTP
+ * esperando indefinidamente.
+ *
+ * El vencimiento y la partición compiten por tomar cada solicitud: si la
+ * partición ya empezó a procesarla, ya no se cancela y su futuro se completa
+ * con el resultado real. Un TimeoutException garantiza entonces que la
+ * reserva no se guardó, y el cliente (o IdempotencyService) puede reintentar.
+ */
+@Service
+public class BookingPartitionExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingPartitionExecutor.class);
+
+    // SQLState de PostgreSQL para violaciones de restricciones EXCLUDE (exclusion_violation)
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    // SQLState de PostgreSQL para violaciones de índices únicos (unique_violation)
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    // Índice único de códigos de confirmación (db/postgres/booking-constraints.sql)
+    private static final String CONFIRMATION_CODE_INDEX = "bookings_confirmation_code_key";
+
+    private static final String ROOM_NOT_AVAILABLE = "Habitación no disponible para el rango de fechas seleccionado";
+
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex; // Ocupación autoritativa por habitación
+
+    @Autowired
+    private BookingRepository bookingRepository; // Repositorio de reservas
+
+    @Autowired
+    private PlatformTransactionManager transactionManager; // Transacción de cada lote
+
+    @Autowired
+    private ConfirmationCodeGenerator codeGenerator; // Código nuevo si el asignado ya existe
+
+    // Cantidad de particiones (0 = una por procesador disponible)
+    @Value("${app.booking.partitions:0}")
+    private int partitionCount;
+
+    // Máximo de reservas guardadas en una misma transacción
+    @Value("${app.booking.max-batch:100}")
+    private int maxBatch = 100;
+
+    // Tiempo máximo que espera un lote a llenarse antes de guardarse
+    @Value("${app.booking.flush-interval-ms:5}")
+    private long flushIntervalMs = 5;
+
+    // Solicitudes pendientes por partición antes de rechazar nuevas
+    @Value("${app.booking.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    // Espera máxima de una solicitud en la cola antes de cancelarse
+    @Value("${app.booking.admission-timeout-ms:10000}")
+    private long admissionTimeoutMs = 10_000;
+
+    private Partition[] partitions;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Programa la cancelación de las solicitudes que vencen en la cola
+    private ScheduledThreadPoolExecutor timeouts;
+
+    /**
+     * Crea las particiones e inicia sus hilos escritores.
+     */
+    @PostConstruct
+    public void start() {
+        int count = partitionCount > 0 ? partitionCount : Runtime.getRuntime().availableProcessors();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        timeouts = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "booking-admission-timeouts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timeouts.setRemoveOnCancelPolicy(true);
+        partitions = new Partition[count];
+        for (int i = 0; i < count; i++) {
+            partitions[i] = new Partition(i);
+            partitions[i].thread.start();
+        }
+    }
+
+    /**
+     * Detiene los hilos escritores después de procesar las solicitudes pendientes.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (Partition partition : partitions) {
+            partition.running = false;
+            LockSupport.unpark(partition.thread);
+        }
+        for (Partition partition : partitions) {
+            partition.thread.join();
+        }
+        timeouts.shutdownNow();
+    }
+
+    /**
+     * Envía una reserva a la partición de su habitación.
+     *
+     * La reserva debe tener asignados la habitación, el usuario y el código
+     * de confirmación (que puede reemplazarse si ya existía en la base).
+     * El futuro se completa con la reserva guardada, o de
+     * forma excepcional con:
+     *  - RoomNotAvailableException si el rango está ocupado.
+     *  - RejectedExecutionException si la cola de la partición está llena.
+     *  - TimeoutException si venció esperando en la cola: la reserva no se
+     *    guardó. Si la partición ya la estaba procesando no vence, y el
+     *    futuro espera el resultado del guardado.
+     *  - El error de la base de datos si no se pudo guardar.
+     *
+     * @param roomId ID de la habitación
+     * @param booking Reserva a admitir
+     * @return Futuro con la reserva guardada
+     */
+    public CompletableFuture<Booking> submit(Long roomId, Booking booking) {
+        BookingTask task = new BookingTask(roomId, booking);
+        Partition partition = partitions[Math.floorMod(roomId.hashCode(), partitions.length)];
+        if (!partition.running) {
+            task.result.completeExceptionally(new IllegalStateException("El ejecutor de reservas está detenido"));
+            return task.result;
+        }
+        if (partition.pending.incrementAndGet() > queueCapacity) {
+            partition.pending.decrementAndGet();
+            task.result.completeExceptionally(new RejectedExecutionException("Cola de reservas llena"));
+            return task.result;
+        }
+        ScheduledFuture<?> timeout = timeouts.schedule(() -> cancel(task), admissionTimeoutMs, TimeUnit.MILLISECONDS);
+        task.result.whenComplete((saved, error) -> timeout.cancel(false));
+        partition.queue.offer(task);
+        LockSupport.unpark(partition.thread);
+        return task.result;
+    }
+
+    /**
+     * Guarda una reserva cuyo rango ya está bloqueado en el índice (por ejemplo,
+     * una retención que se convierte en reserva). No vuelve a verificar la
+     * disponibilidad; si no se puede guardar, libera el rango. Si el código
+     * ya existía, se reemplaza por otro.
+     *
+     * @param roomId ID de la habitación
+     * @param booking Reserva con habitación, usuario y código asignados
+     * @return La reserva guardada
+     * @throws RoomNotAvailableException si la base de datos rechaza el rango
+     */
+    public Booking admitReserved(Long roomId, Booking booking) {
+        try {
+            saveRenewingDuplicateCodes(List.of(booking));
+            return booking;
+        } catch (RuntimeException e) {
+            availabilityIndex.release(roomId, booking.getCheckInDate(), booking.getCheckOutDate());
+            if (isOverlapViolation(e)) {
+                throw new RoomNotAvailableException(ROOM_NOT_AVAILABLE);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Cambia las fechas de una reserva existente.
+     *
+     * Bloquea el nuevo rango en el índice (verificándolo contra las demás
+     * reservas de la habitación, sin contar la propia) sin liberar el anterior,
+     * y actualiza la reserva en una transacción. Solo cuando se sabe si se
+     * guardó se libera el rango que sobra; así, si falla, la reserva vuelve a
+     * sus fechas anteriores sin que otra haya podido ocuparlas.
+     *
+     * @param booking Reserva a modificar (con su habitación)
+     * @param newCheckIn Nueva fecha de entrada
+     * @param newCheckOut Nueva fecha de salida
+     * @return La reserva actualizada
+     * @throws RoomNotAvailableException si el nuevo rango está ocupado
+     */
+    public Booking admitDateChange(Booking booking, LocalDate newCheckIn, LocalDate newCheckOut) {
+        Long roomId = booking.getRoom().getId();
+        LocalDate checkIn = booking.getCheckInDate();
+        LocalDate checkOut = booking.getCheckOutDate();
+        if (!availabilityIndex.tryHoldMove(roomId, checkIn, checkOut, newCheckIn, newCheckOut)) {
+            throw new RoomNotAvailableException(ROOM_NOT_AVAILABLE);
+        }
+
+        boolean committed = false;
+        try {
+            booking.setCheckInDate(newCheckIn);
+            booking.setCheckOutDate(newCheckOut);
+            transactionTemplate.executeWithoutResult(status -> bookingRepository.save(booking));
+            committed = true;
+            return booking;
+        } catch (RuntimeException e) {
+            booking.setCheckInDate(checkIn);
+            booking.setCheckOutDate(checkOut);
+            if (isOverlapViolation(e)) {
+                throw new RoomNotAvailableException(ROOM_NOT_AVAILABLE);
+            }
+            throw e;
+        } finally {
+            availabilityIndex.finishMove(roomId, checkIn, checkOut, newCheckIn, newCheckOut, committed);
+        }
+    }
+
+    /**
+     * Admite y guarda una reserva grupal de forma atómica (todo o nada).
+     *
+     * Una reserva grupal abarca habitaciones de distintas particiones, por lo
+     * que se resuelve en el hilo que llama: reserva todos los rangos en el
+     * índice a la vez y guarda todas las reservas en una única transacción.
+     * Cada reserva debe tener asignados la habitación, el usuario y el código;
+     * si algún código ya existía, se reemplazan todos y se reintenta una vez.
+     *
+     * @param bookings Reservas del grupo
+     * @return Las reservas guardadas
+     * @throws RoomNotAvailableException si alguna habitación está ocupada en sus fechas
+     */
+    public List<Booking> admitGroup(List<Booking> bookings) {
+        List<RoomAvailabilityIndex.Stay> stays = bookings.stream()
+                .map(booking -> new RoomAvailabilityIndex.Stay(
+                        booking.getRoom().getId(), booking.getCheckInDate(), booking.getCheckOutDate()))
+                .toList();
+        if (!availabilityIndex.tryReserveAll(stays)) {
+            throw new RoomNotAvailableException(ROOM_NOT_AVAILABLE);
+        }
+
+        try {
+            saveRenewingDuplicateCodes(bookings);
+            return bookings;
+        } catch (RuntimeException e) {
+            // La transacción se revirtió completa: se liberan todos los rangos
+            stays.forEach(stay -> availabilityIndex.release(stay.roomId(), stay.checkIn(), stay.checkOut()));
+            if (isOverlapViolation(e)) {
+                throw new RoomNotAvailableException(ROOM_NOT_AVAILABLE);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Admite y guarda un lote de solicitudes. Solo lo ejecuta el hilo de la partición.
+     */
+    private void process(List<BookingTask> batch) {
+        List<BookingTask> accepted = new ArrayList<>(batch.size());
+        for (BookingTask task : batch) {
+            if (!task.claim()) {
+                // Venció mientras esperaba en la cola: quien la envió ya recibió el error
+                continue;
+            }
+            if (availabilityIndex.tryReserve(task.roomId, task.booking.getCheckInDate(), task.booking.getCheckOutDate())) {
+                accepted.add(task);
+            } else {
+                task.result.completeExceptionally(new RoomNotAvailableException(ROOM_NOT_AVAILABLE));
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    bookingRepository.saveAll(accepted.stream().map(BookingTask::booking).toList()));
+            accepted.forEach(this::complete);
+        } catch (RuntimeException e) {
+            if (accepted.size() == 1) {
+                if (isDuplicateCode(e)) {
+                    retryWithNewCode(accepted.get(0));
+                } else {
+                    reject(accepted.get(0), e);
+                }
+                return;
+            }
+            // El lote se revirtió completo: se guarda cada reserva por separado
+            log.warn("Falló el guardado de un lote de {} reservas, se reintenta una por una: {}", accepted.size(), e.getMessage());
+            accepted.forEach(this::saveOne);
+        } catch (Error e) {
+            // Se liberan los rangos antes de que run() haga fallar el lote
+            accepted.forEach(task -> availabilityIndex.release(
+                    task.roomId, task.booking.getCheckInDate(), task.booking.getCheckOutDate()));
+            throw e;
+        }
+    }
+
+    /**
+     * Guarda una única reserva en su propia transacción.
+     */
+    private void saveOne(BookingTask task) {
+        try {
+            save(task);
+        } catch (RuntimeException e) {
+            if (isDuplicateCode(e)) {
+                retryWithNewCode(task);
+            } else {
+                reject(task, e);
+            }
+        }
+    }
+
+    /**
+     * Reintenta una única vez, con un código de confirmación nuevo, una reserva
+     * cuyo código ya existía en la base.
+     */
+    private void retryWithNewCode(BookingTask task) {
+        log.warn("Código de confirmación repetido, se reintenta con otro");
+        task.booking.setBookingConfirmationCode(codeGenerator.next());
+        try {
+            save(task);
+        } catch (RuntimeException e) {
+            reject(task, e);
+        }
+    }
+
+    /**
+     * Guarda reservas en una única transacción. Si algún código de confirmación
+     * ya existía, se asignan códigos nuevos a todas (la base no indica cuál
+     * chocó) y se reintenta una única vez.
+     */
+    private void saveRenewingDuplicateCodes(List<Booking> bookings) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> bookingRepository.saveAll(bookings));
+        } catch (RuntimeException e) {
+            if (!isDuplicateCode(e)) {
+                throw e;
+            }
+            log.warn("Código de confirmación repetido, se reintenta con otro");
+            for (Booking booking : bookings) {
+                // El ID asignado durante la transacción revertida ya no existe en la base
+                booking.setId(null);
+                booking.setBookingConfirmationCode(codeGenerator.next());
+            }
+            transactionTemplate.executeWithoutResult(status -> bookingRepository.saveAll(bookings));
+        }
+    }
+
+    private void save(BookingTask task) {
+        // El ID asignado durante la transacción revertida ya no existe en la base
+        task.booking.setId(null);
+        transactionTemplate.executeWithoutResult(status -> bookingRepository.save(task.booking));
+        complete(task);
+    }
+
+    /**
+     * Completa el futuro de una reserva guardada.
+     */
+    private void complete(BookingTask task) {
+        task.result.complete(task.booking);
+    }
+
+    /**
+     * Cancela una solicitud vencida si la partición todavía no la tomó.
+     */
+    private void cancel(BookingTask task) {
+        if (task.claim()) {
+            task.result.completeExceptionally(new TimeoutException("La reserva no se admitió a tiempo"));
+        }
+    }
+
+    /**
+     * Libera el rango de una reserva que no se pudo guardar y completa su futuro con el error.
+     */
+    private void reject(BookingTask task, RuntimeException e) {
+        availabilityIndex.release(task.roomId, task.booking.getCheckInDate(), task.booking.getCheckOutDate());
+        if (isOverlapViolation(e)) {
+            // Otra instancia ya reservó el rango: el índice local no lo sabía
+            task.result.completeExceptionally(new RoomNotAvailableException(ROOM_NOT_AVAILABLE));
+        } else {
+            task.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Indica si la excepción proviene de la restricción EXCLUDE que impide reservas solapadas.
+     * @param e Excepción lanzada al guardar la reserva
+     * @return true si alguna causa es una violación de exclusión de PostgreSQL
+     */
+    private static boolean isOverlapViolation(RuntimeException e) {
+        return hasSqlState(e, EXCLUSION_VIOLATION);
+    }
+
+    /**
+     * Indica si la excepción proviene del índice único de códigos de confirmación.
+     * Otras violaciones de unicidad no se resuelven cambiando el código, así que no cuentan.
+     * @param e Excepción lanzada al guardar la reserva
+     * @return true si alguna causa es una violación de unicidad de bookings_confirmation_code_key
+     */
+    private static boolean isDuplicateCode(RuntimeException e) {
+        if (!hasSqlState(e, UNIQUE_VIOLATION)) {
+            return false;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && CONFIRMATION_CODE_INDEX.equalsIgnoreCase(violation.getConstraintName())) {
+                return true;
+            }
+            // PostgreSQL nombra el índice en el mensaje: ... violates unique constraint "bookings_confirmation_code_key"
+            if (cause instanceof SQLException sqlException && sqlException.getMessage() != null
+                    && sqlException.getMessage().contains(CONFIRMATION_CODE_INDEX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasSqlState(RuntimeException e, String sqlState) {
+        if (!(e instanceof DataIntegrityViolationException)) {
+            return false;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlState.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Solicitud de reserva pendiente de admisión.
+     * La toma una única vez la partición (para procesarla) o el vencimiento (para cancelarla).
+     */
+    private record BookingTask(Long roomId, Booking booking, CompletableFuture<Booking> result, AtomicBoolean claimed) {
+
+        BookingTask(Long roomId, Booking booking) {
+            this(roomId, booking, new CompletableFuture<>(), new AtomicBoolean());
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    /**
+     * Partición con su cola de solicitudes y su único hilo escritor.
+     */
+    private final class Partition implements Runnable {
+
+        // Cola sin bloqueos: varios productores (peticiones HTTP), un solo consumidor
+        private final ConcurrentLinkedQueue<BookingTask> queue = new ConcurrentLinkedQueue<>();
+
+        // Solicitudes en la cola, para acotarla sin bloquear a los productores
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private final Thread thread;
+
+        private volatile boolean running = true;
+
+        private Partition(int index) {
+            thread = new Thread(this, "booking-partition-" + index);
+            thread.setDaemon(true);
+        }
+
+        /**
+         * Completa el lote con las solicitudes que lleguen dentro del intervalo de guardado,
+         * para que los inserts se agrupen en un mismo lote JDBC.
+         */
+        private void fill(List<BookingTask> batch) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+            while (batch.size() < maxBatch && running) {
+                BookingTask task = poll();
+                if (task != null) {
+                    batch.add(task);
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+        }
+
+        @Override
+        public void run() {
+            List<BookingTask> batch = new ArrayList<>(maxBatch);
+            while (running || !queue.isEmpty()) {
+                BookingTask task;
+                while (batch.size() < maxBatch && (task = poll()) != null) {
+                    batch.add(task);
+                }
+                if (batch.isEmpty()) {
+                    // Sin trabajo: espera hasta que un productor lo despierte
+                    LockSupport.park(this);
+                    continue;
+                }
+                fill(batch);
+                try {
+                    process(batch);
+                } catch (Throwable e) {
+                    // Incluye Error: el hilo debe sobrevivir para atender al resto de la partición
+                    log.error("Error inesperado procesando reservas", e);
+                    batch.forEach(failed -> failed.result.completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private BookingTask poll() {
+            BookingTask task = queue.poll();
+            if (task != null) {
+                pending.decrementAndGet();
+            }
+            return task;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.repository.BookingRepository;
+import com.matias.dittler.hotelbooking.utils.CuckooFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Filtro en memoria de los códigos de confirmación existentes.
+ *
+ * La mayoría de las búsquedas por código que no encuentran nada vienen de
+ * errores de tipeo o de barridos. Con este filtro (un filtro cuckoo, que
+ * admite bajas) esas búsquedas se descartan sin consultar la base: si el
+ * filtro dice que el código no existe, seguro no existe.
+ *
+ * Se construye al iniciar con todos los códigos de la base y lo mantienen
+ * BookingService al crear y cancelar reservas. Las reservas borradas en
+ * cascada (al eliminar un usuario o una habitación) quedan en el filtro:
+ * solo generan falsos positivos, que igual se resuelven en la base.
+ *
+ * Mientras no está construido, o si se llena, deja pasar todas las
+ * búsquedas a la base.
+ *
+ * Métricas en Micrometer:
+ *  - confirmation.filter.lookups (outcome: rejected, passed, false_positive)
+ *  - confirmation.filter.size, confirmation.filter.memory.bytes y
+ *    confirmation.filter.expected.fpp (tasa de falsos positivos esperada)
+ */
+@Service
+public class ConfirmationCodeFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfirmationCodeFilter.class);
+
+    @Autowired
+    private BookingRepository bookingRepository; // Códigos existentes al iniciar
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry; // Registro de métricas (opcional)
+
+    // Cantidad de códigos previstos (se duplica si ya hay más en la base)
+    @Value("${app.confirmation-filter.expected-codes:100000}")
+    private long expectedCodes = 100_000;
+
+    // Tasa de falsos positivos deseada
+    @Value("${app.confirmation-filter.false-positive-rate:0.001}")
+    private double falsePositiveRate = 0.001;
+
+    // null mientras no está construido o si se llenó
+    private volatile CuckooFilter filter;
+
+    /**
+     * Construye el filtro con los códigos de todas las reservas.
+     */
+    @PostConstruct
+    public void load() {
+        List<String> codes = bookingRepository.findAllConfirmationCodes();
+        CuckooFilter loaded = new CuckooFilter(Math.max(expectedCodes, codes.size() * 2L), falsePositiveRate);
+        for (String code : codes) {
+            if (!loaded.add(code)) {
+                log.warn("El filtro de códigos de confirmación se llenó al cargar; se desactiva");
+                return;
+            }
+        }
+        filter = loaded;
+        log.info("Filtro de códigos de confirmación: {} códigos, {} bytes, fpp esperada {}",
+                loaded.size(), loaded.memoryBytes(), loaded.expectedFalsePositiveRate());
+
+        if (meterRegistry != null) {
+            Gauge.builder("confirmation.filter.size", this, self -> self.filter == null ? 0 : self.filter.size())
+                    .register(meterRegistry);
+            Gauge.builder("confirmation.filter.memory.bytes", loaded, CuckooFilter::memoryBytes)
+                    .register(meterRegistry);
+            Gauge.builder("confirmation.filter.expected.fpp", loaded, CuckooFilter::expectedFalsePositiveRate)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Indica si un código puede existir.
+     * @param confirmationCode Código de confirmación
+     * @return false si seguro no existe (no hace falta consultar la base)
+     */
+    public boolean mightExist(String confirmationCode) {
+        CuckooFilter current = filter;
+        if (current == null || current.mightContain(confirmationCode)) {
+            count("passed");
+            return true;
+        }
+        count("rejected");
+        return false;
+    }
+
+    /**
+     * Registra que un código que pasó el filtro no existía en la base.
+     */
+    public void recordFalsePositive() {
+        count("false_positive");
+    }
+
+    /**
+     * Agrega el código de una reserva creada.
+     * @param confirmationCode Código de confirmación
+     */
+    public void add(String confirmationCode) {
+        CuckooFilter current = filter;
+        if (current != null && !current.add(confirmationCode)) {
+            filter = null;
+            log.warn("El filtro de códigos de confirmación se llenó; se desactiva hasta el próximo reinicio");
+        }
+    }
+
+    /**
+     * Quita el código de una reserva cancelada.
+     * Solo debe llamarse una vez por reserva efectivamente eliminada: quitar un
+     * código que no está puede borrar la huella de otro y causar un falso negativo.
+     * @param confirmationCode Código de confirmación
+     */
+    public void remove(String confirmationCode) {
+        CuckooFilter current = filter;
+        if (current != null) {
+            current.remove(confirmationCode);
+        }
+    }
+
+    private void count(String outcome) {
+        if (meterRegistry != null) {
+            Counter.builder("confirmation.filter.lookups")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
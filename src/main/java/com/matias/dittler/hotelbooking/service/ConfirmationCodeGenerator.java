@@ -0,0 +1,48 @@
+package com.matias.dittler.hotelbooking.service;
+
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+
+/**
+ * Generador de códigos de confirmación de reservas.
+ *
+ * El código es la única credencial para consultar una reserva (y los datos
+ * del huésped) por GET /bookings/get-by-confirmation-code/{code}, así que
+ * debe ser impredecible: cada código son 50 bits de SecureRandom escritos
+ * con 10 caracteres del alfabeto Crockford base32 (sin I, L, O ni U, que se
+ * confunden al dictarlos). Conocer un código no da información sobre otros.
+ *
+ * La unicidad la garantiza el índice único de booking_confirmation_code: en
+ * el caso improbable de una colisión, BookingPartitionExecutor genera otro
+ * código y reintenta una vez.
+ *
+ * Cada hilo usa su propio SecureRandom, de modo que los hilos no compiten
+ * por un único generador compartido.
+ */
+@Service
+public class ConfirmationCodeGenerator {
+
+    // Longitud de los códigos generados
+    public static final int CODE_LENGTH = 10;
+
+    // Alfabeto Crockford base32
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    // Un SecureRandom por hilo, sembrado por el sistema operativo
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(SecureRandom::new);
+
+    /**
+     * Genera un código de confirmación nuevo.
+     * @return Código aleatorio de 10 caracteres
+     */
+    public String next() {
+        long value = RANDOM.get().nextLong();
+        char[] code = new char[CODE_LENGTH];
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            code[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(code);
+    }
+}
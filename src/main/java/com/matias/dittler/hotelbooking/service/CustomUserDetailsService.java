@@ -1,15 +1,33 @@
 package com.matias.dittler.hotelbooking.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.matias.dittler.hotelbooking.repository.UserRepository;
+import com.matias.dittler.hotelbooking.security.UserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 /**
  * Servicio personalizado para cargar detalles de usuario para Spring Security.
  * Implementa UserDetailsService para que Spring Security pueda autenticar usuarios.
+ *
+ * Los usuarios cargados se guardan como UserPrincipal (ID, email, rol y hash
+ * de la contraseña, sin la entidad ni sus reservas) en una caché acotada por
+ * tamaño y tiempo, para no consultar la base en cada petición de los mismos
+ * usuarios activos. TokenRevocationRegistry invalida las entradas cuando un
+ * usuario se elimina o cambia de rol.
+ *
+ * Las métricas de aciertos, fallos y tiempo de carga se publican en
+ * Micrometer como "cache.*" con la etiqueta cache=userDetails.
  */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
@@ -17,6 +35,32 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry; // Registro de métricas (opcional)
+
+    // Cantidad máxima de usuarios en memoria
+    @Value("${app.user-cache.max-entries:10000}")
+    private long maxEntries = 10_000;
+
+    // Tiempo durante el cual se reutiliza un usuario cargado
+    @Value("${app.user-cache.ttl-minutes:5}")
+    private long ttlMinutes = 5;
+
+    // Email -> usuario autenticado
+    private Cache<String, UserPrincipal> principals;
+
+    @PostConstruct
+    public void init() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, principals, "userDetails");
+        }
+    }
+
     /**
      * Método que busca un usuario por su email (username) para autenticación.
      * @param username Email del usuario que intenta iniciar sesión
@@ -25,9 +69,20 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // Busca el usuario en la base de datos usando UserRepository
-        return userRepository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Nombre de usuario no encontrado"));
+        // Busca el usuario en la caché o, si no está, en la base de datos usando UserRepository.
+        // Los usuarios inexistentes no se guardan.
+        return principals.get(username, email -> userRepository.findByEmail(email)
+                .map(UserPrincipal::from)
+                .orElseThrow(() -> new UsernameNotFoundException("Nombre de usuario no encontrado")));
+    }
+
+    /**
+     * Descarta de la caché al usuario con el ID indicado.
+     * Se usa al eliminar un usuario o al cambiar su rol.
+     * @param userId ID del usuario
+     */
+    public void evictUser(Long userId) {
+        principals.asMap().values().removeIf(principal -> userId.equals(principal.id()));
     }
 
 }
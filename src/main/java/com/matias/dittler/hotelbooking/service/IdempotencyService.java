@@ -0,0 +1,182 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.matias.dittler.hotelbooking.dto.Response;
+import com.matias.dittler.hotelbooking.entity.IdempotencyRecord;
+import com.matias.dittler.hotelbooking.repository.IdempotencyRecordRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta operaciones una sola vez por Idempotency-Key.
+ *
+ * La primera petición con una clave ejecuta la operación y guarda su
+ * respuesta; los reintentos con la misma clave reciben esa respuesta sin
+ * volver a ejecutarla. Si llegan reintentos mientras la primera petición
+ * sigue en curso, esperan su resultado en lugar de ejecutarla otra vez.
+ *
+ * Las respuestas se guardan en una caché en memoria acotada por tamaño y
+ * tiempo, y también en la tabla "idempotency_keys" para sobrevivir a un
+ * reinicio. Las respuestas 5xx no se guardan: el cliente puede reintentar.
+ * Por eso la operación solo debe responder 5xx si no tuvo efecto; si no lo
+ * sabe todavía, debe esperar su resultado final para que la clave siga en
+ * curso hasta entonces (ver BookingPartitionExecutor.submit).
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    // Largo máximo aceptado para la clave enviada por el cliente
+    private static final int MAX_KEY_LENGTH = 100;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository; // Respaldo persistente de las respuestas
+
+    // Cantidad máxima de claves en memoria
+    @Value("${app.idempotency.cache-size:10000}")
+    private long cacheSize = 10_000;
+
+    // Tiempo durante el cual se recuerda una clave
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours = 24;
+
+    // Clave -> respuesta (o respuesta en curso)
+    private Cache<String, CompletableFuture<StoredResponse>> responses;
+
+    // Próximo momento en que se purgan los registros vencidos de la tabla
+    private volatile Instant nextPurge = Instant.EPOCH;
+
+    @PostConstruct
+    public void init() {
+        responses = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofHours(ttlHours))
+                .build();
+    }
+
+    /**
+     * Ejecuta la operación si la clave no se usó antes; si ya se usó, devuelve la respuesta original.
+     * @param scope Ámbito de la clave (por ejemplo el usuario), para que clientes distintos no colisionen
+     * @param idempotencyKey Clave enviada por el cliente
+     * @param fingerprint Resumen de los datos de la petición
+     * @param operation Operación a ejecutar una única vez
+     * @return Response original o el resultado de la operación
+     */
+    public Response execute(String scope, String idempotencyKey, String fingerprint, Supplier<Response> operation) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return error(400, "Idempotency-Key inválida: debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres");
+        }
+        String key = scope + ":" + idempotencyKey;
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = responses.asMap().putIfAbsent(key, mine);
+        if (existing != null) {
+            try {
+                return replay(existing.join(), fingerprint);
+            } catch (CompletionException e) {
+                // La petición original falló sin respuesta: el cliente puede reintentar
+                return error(500, "Error en la solicitud original: " + e.getCause().getMessage());
+            }
+        }
+
+        try {
+            // Puede haberse guardado antes de un reinicio
+            Optional<IdempotencyRecord> persisted = recordRepository.findById(key)
+                    .filter(record -> record.getCreatedAt().isAfter(cutoff()));
+            if (persisted.isPresent()) {
+                StoredResponse stored = StoredResponse.from(persisted.get());
+                mine.complete(stored);
+                return replay(stored, fingerprint);
+            }
+
+            Response response = operation.get();
+            StoredResponse stored = new StoredResponse(fingerprint, response.getStatusCode(),
+                    response.getMessage(), response.getBookingConfirmationCode());
+            mine.complete(stored);
+            if (response.getStatusCode() >= 500) {
+                // Error transitorio: no se recuerda, así el reintento vuelve a ejecutar la operación
+                responses.asMap().remove(key, mine);
+            } else {
+                persist(key, stored);
+            }
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            responses.asMap().remove(key, mine);
+            throw e;
+        }
+    }
+
+    /**
+     * Construye la respuesta de un reintento a partir de la respuesta guardada.
+     */
+    private static Response replay(StoredResponse stored, String fingerprint) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            return error(422, "Idempotency-Key ya utilizada con otra solicitud");
+        }
+        Response response = new Response();
+        response.setStatusCode(stored.statusCode());
+        response.setMessage(stored.message());
+        response.setBookingConfirmationCode(stored.bookingConfirmationCode());
+        return response;
+    }
+
+    /**
+     * Guarda la respuesta en la tabla y, cada tanto, purga los registros vencidos.
+     * Un fallo al guardar no afecta la respuesta: la caché en memoria sigue vigente.
+     */
+    private void persist(String key, StoredResponse stored) {
+        try {
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setIdempotencyKey(key);
+            record.setRequestFingerprint(stored.fingerprint());
+            record.setStatusCode(stored.statusCode());
+            record.setMessage(stored.message());
+            record.setBookingConfirmationCode(stored.bookingConfirmationCode());
+            record.setCreatedAt(Instant.now());
+            recordRepository.save(record);
+
+            if (Instant.now().isAfter(nextPurge)) {
+                nextPurge = Instant.now().plus(Duration.ofHours(1));
+                recordRepository.deleteCreatedBefore(cutoff());
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudo guardar la Idempotency-Key {}: {}", key, e.getMessage());
+        }
+    }
+
+    private Instant cutoff() {
+        return Instant.now().minus(Duration.ofHours(ttlHours));
+    }
+
+    private static Response error(int statusCode, String message) {
+        Response response = new Response();
+        response.setStatusCode(statusCode);
+        response.setMessage(message);
+        return response;
+    }
+
+    /**
+     * Datos de una respuesta guardada para una clave.
+     */
+    private record StoredResponse(String fingerprint, int statusCode, String message, String bookingConfirmationCode) {
+
+        static StoredResponse from(IdempotencyRecord record) {
+            return new StoredResponse(record.getRequestFingerprint(), record.getStatusCode(),
+                    record.getMessage(), record.getBookingConfirmationCode());
+        }
+    }
+}
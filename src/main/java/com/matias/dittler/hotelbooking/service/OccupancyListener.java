@@ -0,0 +1,38 @@
+package com.matias.dittler.hotelbooking.service;
+
+/**
+ * Observador de los cambios de ocupación del RoomAvailabilityIndex.
+ *
+ * Permite que otros índices o cachés se mantengan sincronizados con la
+ * ocupación real sin que cada servicio tenga que notificarlos por separado.
+ *
+ * Los días se expresan como LocalDate.toEpochDay() y los rangos son
+ * semiabiertos [startDay, endDay). Las notificaciones de una misma
+ * habitación llegan en orden, por lo que las implementaciones deben ser
+ * rápidas y no volver a llamar al índice de disponibilidad.
+ */
+public interface OccupancyListener {
+
+    /**
+     * Se invoca cuando las noches del rango pasan a estar ocupadas.
+     * @param roomId ID de la habitación
+     * @param startDay Primer día ocupado (epoch day)
+     * @param endDay Día de salida, exclusivo (epoch day)
+     */
+    void occupied(Long roomId, long startDay, long endDay);
+
+    /**
+     * Se invoca cuando las noches del rango vuelven a estar libres.
+     * @param roomId ID de la habitación
+     * @param startDay Primer día liberado (epoch day)
+     * @param endDay Día de salida, exclusivo (epoch day)
+     */
+    void released(Long roomId, long startDay, long endDay);
+
+    /**
+     * Se invoca cuando una habitación se elimina del índice.
+     * @param roomId ID de la habitación
+     */
+    void roomRemoved(Long roomId);
+
+}
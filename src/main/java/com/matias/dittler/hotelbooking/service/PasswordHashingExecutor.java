@@ -0,0 +1,142 @@
+package com.matias.dittler.hotelbooking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ejecutor acotado para el hash y la verificación de contraseñas (BCrypt).
+ *
+ * BCrypt es deliberadamente costoso en CPU. Todas las operaciones se
+ * ejecutan en un pool fijo de hilos con una cola de capacidad limitada:
+ * si la cola está llena, la operación se rechaza de inmediato con
+ * RejectedExecutionException en lugar de esperar. Así, una ráfaga de
+ * inicios de sesión ocupa como máximo (hilos + cola) hilos de Tomcat y no
+ * deja sin hilos a las reservas y búsquedas.
+ *
+ * Las métricas del pool (tareas en cola, activas, completadas) se publican
+ * en Micrometer como "executor.*" con la etiqueta name=passwordHashing, y
+ * los rechazos como "password.hashing.rejected".
+ */
+@Service
+public class PasswordHashingExecutor {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder; // BCrypt
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry; // Registro de métricas (opcional)
+
+    // Cantidad de hilos (0 = uno por procesador disponible)
+    @Value("${app.password-hashing.threads:0}")
+    private int threads;
+
+    // Operaciones que pueden esperar en cola antes de rechazarse
+    @Value("${app.password-hashing.queue-capacity:32}")
+    private int queueCapacity = 32;
+
+    private ExecutorService executor;
+
+    private Counter rejected;
+
+    // Hash de una contraseña aleatoria, para verificar contra él cuando el usuario no existe
+    private String dummyHash;
+
+    /**
+     * Crea el pool de hilos y registra sus métricas.
+     */
+    @PostConstruct
+    public void start() {
+        dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+        int count = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(count, count, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor = pool;
+        if (meterRegistry != null) {
+            executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "passwordHashing");
+            rejected = meterRegistry.counter("password.hashing.rejected");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Genera el hash de una contraseña.
+     * @param rawPassword Contraseña en texto plano
+     * @return Hash de la contraseña
+     * @throws RejectedExecutionException si hay demasiadas operaciones pendientes
+     */
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Verifica una contraseña contra su hash.
+     * @param rawPassword Contraseña en texto plano
+     * @param encodedPassword Hash guardado
+     * @return true si la contraseña es correcta
+     * @throws RejectedExecutionException si hay demasiadas operaciones pendientes
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Verifica una contraseña contra un hash fijo que no corresponde a ningún usuario.
+     * Se usa cuando el email no existe, para que la respuesta tarde lo mismo que
+     * con una contraseña incorrecta y no revele qué emails están registrados.
+     * @param rawPassword Contraseña en texto plano
+     * @throws RejectedExecutionException si hay demasiadas operaciones pendientes
+     */
+    public void matchesDummy(String rawPassword) {
+        run(() -> passwordEncoder.matches(rawPassword, dummyHash));
+    }
+
+    /**
+     * Ejecuta la operación en el pool y espera su resultado.
+     */
+    private <T> T run(Supplier<T> operation) {
+        CompletableFuture<T> result;
+        try {
+            result = CompletableFuture.supplyAsync(operation, executor);
+        } catch (RejectedExecutionException e) {
+            if (rejected != null) {
+                rejected.increment();
+            }
+            throw e;
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.matias.dittler.hotelbooking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa consultas de lectura idénticas que llegan al mismo tiempo (single-flight).
+ *
+ * El primer llamador con una operación y argumentos dados ejecuta la consulta;
+ * los que llegan mientras sigue en curso esperan su CompletableFuture y reciben
+ * el mismo resultado, en lugar de repetir la consulta contra la base de datos.
+ * Al terminar, la entrada se elimina: no es una caché.
+ *
+ * Un llamador que se suma a una consulta ya en curso puede recibir un
+ * resultado que empezó a calcularse antes de su llamada. Por eso solo se usa
+ * para lecturas.
+ *
+ * Publica el contador "coalescer.requests" por operación, con
+ * outcome=executed (consultas ejecutadas) u outcome=shared (resultados compartidos).
+ */
+@Service
+public class RequestCoalescer {
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry; // Registro de métricas (opcional)
+
+    // (operación, argumentos) -> consulta en curso
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Ejecuta la consulta o se suma a una idéntica en curso.
+     * @param operation Nombre de la operación (por ejemplo el método del servicio)
+     * @param arguments Argumentos de la consulta; deben implementar equals y hashCode
+     * @param query Consulta a ejecutar
+     * @return Resultado de la consulta, compartido entre los llamadores simultáneos
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Object arguments, Supplier<T> query) {
+        Key key = new Key(operation, arguments);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+
+        if (running != null) {
+            count(operation, "shared");
+            return (T) await(running);
+        }
+
+        count(operation, "executed");
+        try {
+            T result = query.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Espera el resultado de otra consulta y relanza su error si falló.
+     */
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void count(String operation, String outcome) {
+        if (meterRegistry != null) {
+            Counter.builder("coalescer.requests")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    private record Key(String operation, Object arguments) {
+    }
+}
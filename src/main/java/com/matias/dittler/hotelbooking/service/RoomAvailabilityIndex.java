@@ -0,0 +1,438 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.dto.BookingPeriod;
+import com.matias.dittler.hotelbooking.repository.BookingRepository;
+import com.matias.dittler.hotelbooking.utils.OccupancyCalendar;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Índice en memoria de la ocupación de cada habitación.
+ *
+ * Mantiene, por habitación, un mapa ordenado de estadías indexado por el
+ * día de check-in (LocalDate.toEpochDay()). Cada estadía ocupa las noches
+ * del rango semiabierto [check-in, check-out), por lo que una reserva puede
+ * comenzar el mismo día en que termina otra.
+ *
+ * Como el índice solo admite estadías que no se solapan, para saber si un
+ * rango está libre alcanza con mirar la estadía anterior y la siguiente:
+ * la consulta es O(log n) y no toca colecciones de Hibernate.
+ *
+ * Además, cada habitación tiene un OccupancyCalendar (un bit por noche) que
+ * cubre un horizonte móvil desde el día actual. Los rangos dentro de ese
+ * horizonte, que son la gran mayoría, se resuelven con operaciones sobre
+ * palabras long sin reservar memoria; el mapa ordenado queda como fuente
+ * de verdad y para las fechas fuera del horizonte.
+ *
+ * Se carga desde BookingRepository al iniciar la aplicación y se actualiza
+ * al guardar y cancelar reservas. Asume una única instancia de la API
+ * escribiendo sobre la base de datos. Los cambios se notifican a los
+ * OccupancyListener registrados (índice de búsqueda, cachés, etc.).
+ */
+@Service
+public class RoomAvailabilityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomAvailabilityIndex.class);
+
+    // Milisegundos en un día, para calcular el epoch day actual sin crear objetos
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    // Reloj del día actual (UTC), compartido con RoomSearchIndex para que ambos índices
+    // cambien de día en el mismo instante
+    private Clock clock = Clock.systemUTC();
+
+    // Días de atraso tolerados antes de reconstruir el calendario de bits de una habitación
+    private static final int REBASE_SLACK_DAYS = 7;
+
+    // Horizonte del calendario de bits (por defecto 3 años)
+    @Value("${app.availability.horizon-days:1095}")
+    private int horizonDays = 1095;
+
+    @Autowired
+    private BookingRepository bookingRepository; // Fuente de las reservas existentes al iniciar
+
+    // Calendario de ocupación por ID de habitación
+    private final Map<Long, RoomCalendar> calendars = new ConcurrentHashMap<>();
+
+    // Observadores de los cambios de ocupación
+    private final List<OccupancyListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Carga en el índice todas las reservas existentes.
+     * Se ejecuta antes de que la aplicación empiece a recibir peticiones.
+     */
+    @PostConstruct
+    public void loadFromRepository() {
+        int loaded = 0;
+        for (BookingPeriod period : bookingRepository.findAllBookingPeriods()) {
+            if (period.getRoomId() == null || period.getCheckInDate() == null || period.getCheckOutDate() == null) {
+                continue;
+            }
+            long start = period.getCheckInDate().toEpochDay();
+            long end = endOf(start, period.getCheckOutDate());
+            RoomCalendar calendar = calendarOf(period.getRoomId());
+            synchronized (calendar) {
+                calendar.load(start, end, currentOrigin());
+                notifyOccupied(period.getRoomId(), start, end);
+            }
+            loaded++;
+        }
+        log.info("Índice de disponibilidad cargado con {} reservas", loaded);
+    }
+
+    /**
+     * Indica si la habitación está libre en el rango de fechas indicado.
+     * @param roomId ID de la habitación
+     * @param checkIn Fecha de entrada
+     * @param checkOut Fecha de salida
+     * @return true si ninguna estadía existente se solapa con el rango
+     */
+    public boolean isAvailable(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        RoomCalendar calendar = calendars.get(roomId);
+        if (calendar == null) {
+            return true;
+        }
+        long start = checkIn.toEpochDay();
+        return calendar.isFree(start, endOf(start, checkOut), currentOrigin());
+    }
+
+    /**
+     * Comprueba la disponibilidad y, si el rango está libre, lo marca como ocupado.
+     * La comprobación y el alta son atómicas para cada habitación.
+     * @param roomId ID de la habitación
+     * @param checkIn Fecha de entrada
+     * @param checkOut Fecha de salida
+     * @return true si el rango quedó reservado, false si estaba ocupado
+     */
+    public boolean tryReserve(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        long start = checkIn.toEpochDay();
+        long end = endOf(start, checkOut);
+        RoomCalendar calendar = calendarOf(roomId);
+        synchronized (calendar) {
+            if (!calendar.tryAdd(start, end, currentOrigin())) {
+                return false;
+            }
+            notifyOccupied(roomId, start, end);
+            return true;
+        }
+    }
+
+    /**
+     * Primera fase de un cambio de fechas: bloquea el nuevo rango de una estadía
+     * sin liberar el anterior.
+     *
+     * El nuevo rango se verifica contra las demás estadías, sin contar la propia.
+     * Mientras el cambio no se confirme con finishMove(), la habitación queda
+     * ocupada en ambos rangos, así ninguna otra reserva puede tomar el rango
+     * anterior antes de saber si el cambio se guardó.
+     * @param roomId ID de la habitación
+     * @param checkIn Fecha de entrada actual
+     * @param checkOut Fecha de salida actual
+     * @param newCheckIn Nueva fecha de entrada
+     * @param newCheckOut Nueva fecha de salida
+     * @return true si el nuevo rango quedó bloqueado, false si estaba ocupado
+     */
+    public boolean tryHoldMove(Long roomId, LocalDate checkIn, LocalDate checkOut, LocalDate newCheckIn, LocalDate newCheckOut) {
+        long start = checkIn.toEpochDay();
+        long end = endOf(start, checkOut);
+        long newStart = newCheckIn.toEpochDay();
+        long newEnd = endOf(newStart, newCheckOut);
+        long origin = currentOrigin();
+        RoomCalendar calendar = calendarOf(roomId);
+        synchronized (calendar) {
+            boolean held = calendar.remove(start, end, origin);
+            boolean free = calendar.isFree(newStart, newEnd, origin);
+            // Se repone el rango anterior, o se repara si faltaba en el índice
+            if (!calendar.tryAdd(start, end, origin)) {
+                // Otra estadía ocupa el rango anterior: el índice no coincide con la base
+                return false;
+            }
+            if (!held) {
+                notifyOccupied(roomId, start, end);
+            }
+            if (!free) {
+                return false;
+            }
+            // Se agregan solo las noches nuevas: las compartidas con el rango anterior ya están ocupadas
+            for (long[] piece : movedPieces(start, end, newStart, newEnd)) {
+                calendar.tryAdd(piece[0], piece[1], origin);
+                notifyOccupied(roomId, piece[0], piece[1]);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Segunda fase de un cambio de fechas iniciado con tryHoldMove().
+     * Si el cambio se guardó, la estadía queda solo en el nuevo rango;
+     * si no, vuelve a quedar solo en el anterior. Nunca falla: solo libera noches.
+     * @param roomId ID de la habitación
+     * @param checkIn Fecha de entrada anterior
+     * @param checkOut Fecha de salida anterior
+     * @param newCheckIn Nueva fecha de entrada
+     * @param newCheckOut Nueva fecha de salida
+     * @param committed true si el cambio se guardó en la base
+     */
+    public void finishMove(Long roomId, LocalDate checkIn, LocalDate checkOut,
+                           LocalDate newCheckIn, LocalDate newCheckOut, boolean committed) {
+        long start = checkIn.toEpochDay();
+        long end = endOf(start, checkOut);
+        long newStart = newCheckIn.toEpochDay();
+        long newEnd = endOf(newStart, newCheckOut);
+        long origin = currentOrigin();
+        RoomCalendar calendar = calendarOf(roomId);
+        synchronized (calendar) {
+            List<long[]> pieces = movedPieces(start, end, newStart, newEnd);
+            pieces.forEach(piece -> calendar.remove(piece[0], piece[1], origin));
+            if (!committed) {
+                pieces.forEach(piece -> listeners.forEach(listener -> listener.released(roomId, piece[0], piece[1])));
+                return;
+            }
+            calendar.remove(start, end, origin);
+            listeners.forEach(listener -> listener.released(roomId, start, end));
+            calendar.tryAdd(newStart, newEnd, origin);
+            notifyOccupied(roomId, newStart, newEnd);
+        }
+    }
+
+    /**
+     * Noches del nuevo rango que no pertenecen al anterior (hasta dos tramos).
+     */
+    private static List<long[]> movedPieces(long start, long end, long newStart, long newEnd) {
+        List<long[]> pieces = new ArrayList<>(2);
+        if (newEnd <= start || end <= newStart) {
+            pieces.add(new long[]{newStart, newEnd});
+            return pieces;
+        }
+        if (newStart < start) {
+            pieces.add(new long[]{newStart, start});
+        }
+        if (newEnd > end) {
+            pieces.add(new long[]{end, newEnd});
+        }
+        return pieces;
+    }
+
+    /**
+     * Reserva varios rangos a la vez, posiblemente de distintas habitaciones.
+     * Es todo o nada: si alguno está ocupado (o dos rangos del pedido se solapan
+     * entre sí) no se reserva ninguno.
+     *
+     * Toma los bloqueos de las habitaciones siempre en orden ascendente de ID,
+     * así dos reservas grupales concurrentes no pueden bloquearse mutuamente.
+     * @param stays Rangos a reservar
+     * @return true si todos los rangos quedaron reservados
+     */
+    public boolean tryReserveAll(List<Stay> stays) {
+        // Habitación -> rangos pedidos [inicio, fin), ordenadas por ID
+        TreeMap<Long, List<long[]>> byRoom = new TreeMap<>();
+        for (Stay stay : stays) {
+            long start = stay.checkIn().toEpochDay();
+            byRoom.computeIfAbsent(stay.roomId(), id -> new ArrayList<>())
+                    .add(new long[]{start, endOf(start, stay.checkOut())});
+        }
+        return reserveLocked(new ArrayList<>(byRoom.entrySet()), 0, currentOrigin());
+    }
+
+    /**
+     * Bloquea recursivamente la habitación i y las siguientes; con todas bloqueadas,
+     * verifica los rangos y los reserva.
+     */
+    private boolean reserveLocked(List<Map.Entry<Long, List<long[]>>> rooms, int i, long origin) {
+        if (i < rooms.size()) {
+            RoomCalendar calendar = calendarOf(rooms.get(i).getKey());
+            synchronized (calendar) {
+                return reserveLocked(rooms, i + 1, origin);
+            }
+        }
+
+        for (Map.Entry<Long, List<long[]>> room : rooms) {
+            RoomCalendar calendar = calendarOf(room.getKey());
+            List<long[]> ranges = room.getValue();
+            ranges.sort(Comparator.comparingLong(range -> range[0]));
+            for (int r = 0; r < ranges.size(); r++) {
+                long[] range = ranges.get(r);
+                boolean overlapsPrevious = r > 0 && ranges.get(r - 1)[1] > range[0];
+                if (overlapsPrevious || !calendar.isFree(range[0], range[1], origin)) {
+                    return false;
+                }
+            }
+        }
+        for (Map.Entry<Long, List<long[]>> room : rooms) {
+            RoomCalendar calendar = calendarOf(room.getKey());
+            for (long[] range : room.getValue()) {
+                calendar.tryAdd(range[0], range[1], origin);
+                notifyOccupied(room.getKey(), range[0], range[1]);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Libera un rango previamente reservado (por ejemplo al cancelar una reserva).
+     * @param roomId ID de la habitación
+     * @param checkIn Fecha de entrada de la estadía
+     * @param checkOut Fecha de salida de la estadía
+     */
+    public void release(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        RoomCalendar calendar = calendars.get(roomId);
+        if (calendar != null) {
+            long start = checkIn.toEpochDay();
+            long end = endOf(start, checkOut);
+            synchronized (calendar) {
+                if (calendar.remove(start, end, currentOrigin())) {
+                    listeners.forEach(listener -> listener.released(roomId, start, end));
+                }
+            }
+        }
+    }
+
+    /**
+     * Elimina del índice todas las estadías de una habitación borrada.
+     * @param roomId ID de la habitación
+     */
+    public void removeRoom(Long roomId) {
+        calendars.remove(roomId);
+        listeners.forEach(listener -> listener.roomRemoved(roomId));
+    }
+
+    /**
+     * Registra un observador de cambios de ocupación y le envía las estadías
+     * que ya existen en el índice, para que parta del mismo estado.
+     * @param listener Observador a registrar
+     */
+    public void addListener(OccupancyListener listener) {
+        listeners.add(listener);
+        calendars.forEach((roomId, calendar) -> {
+            synchronized (calendar) {
+                calendar.stays.forEach((start, end) -> listener.occupied(roomId, start, end));
+            }
+        });
+    }
+
+    private void notifyOccupied(Long roomId, long start, long end) {
+        listeners.forEach(listener -> listener.occupied(roomId, start, end));
+    }
+
+    private RoomCalendar calendarOf(Long roomId) {
+        return calendars.computeIfAbsent(roomId, id -> new RoomCalendar(horizonDays));
+    }
+
+    /**
+     * Origen del horizonte del calendario de bits: el día actual (UTC) menos un día,
+     * para cubrir las reservas que comienzan hoy en cualquier zona horaria.
+     * Los índices derivados descartan las noches anteriores a este día.
+     * @return Epoch day de ayer en UTC
+     */
+    public long currentOrigin() {
+        return Math.floorDiv(clock.millis(), MILLIS_PER_DAY) - 1;
+    }
+
+    /**
+     * Día de fin exclusivo de una estadía.
+     * Una estadía sin noches (check-in igual a check-out) ocupa el día de entrada.
+     */
+    private static long endOf(long start, LocalDate checkOut) {
+        return Math.max(checkOut.toEpochDay(), start + 1);
+    }
+
+    /**
+     * Rango de fechas pedido para una habitación.
+     * @param roomId ID de la habitación
+     * @param checkIn Fecha de entrada
+     * @param checkOut Fecha de salida
+     */
+    public record Stay(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+    }
+
+    /**
+     * Estadías de una habitación ordenadas por día de entrada, más su calendario de bits.
+     * Cada habitación se sincroniza por separado, así que distintas
+     * habitaciones no compiten entre sí.
+     */
+    private static final class RoomCalendar {
+
+        private final int horizonDays;
+
+        // Día de entrada -> día de salida (exclusivo)
+        private final TreeMap<Long, Long> stays = new TreeMap<>();
+
+        // Un bit por noche dentro del horizonte actual
+        private OccupancyCalendar nights;
+
+        RoomCalendar(int horizonDays) {
+            this.horizonDays = horizonDays;
+        }
+
+        synchronized boolean isFree(long start, long end, long origin) {
+            OccupancyCalendar calendar = nightsFrom(origin);
+            if (calendar.covers(start, end)) {
+                return calendar.isFree(start, end);
+            }
+            Map.Entry<Long, Long> previous = stays.floorEntry(start);
+            if (previous != null && previous.getValue() > start) {
+                return false;
+            }
+            Long next = stays.higherKey(start);
+            return next == null || next >= end;
+        }
+
+        synchronized boolean tryAdd(long start, long end, long origin) {
+            if (!isFree(start, end, origin)) {
+                return false;
+            }
+            stays.put(start, end);
+            nights.set(start, end);
+            return true;
+        }
+
+        /**
+         * Alta sin validación usada durante la carga inicial.
+         * Si hay datos históricos con el mismo día de entrada se conserva la estadía más larga.
+         */
+        synchronized void load(long start, long end, long origin) {
+            stays.merge(start, end, Math::max);
+            nightsFrom(origin).set(start, end);
+        }
+
+        synchronized boolean remove(long start, long end, long origin) {
+            if (!stays.remove(start, end)) {
+                return false;
+            }
+            nightsFrom(origin).clear(start, end);
+            return true;
+        }
+
+        /**
+         * Devuelve el calendario de bits, reconstruyéndolo desde el mapa ordenado
+         * cuando su origen quedó demasiado atrás respecto del día actual.
+         */
+        private OccupancyCalendar nightsFrom(long origin) {
+            if (nights == null || nights.origin() < origin - REBASE_SLACK_DAYS) {
+                nights = new OccupancyCalendar(origin, horizonDays);
+                for (Map.Entry<Long, Long> stay : stays.tailMap(origin - 1, false).entrySet()) {
+                    nights.set(stay.getKey(), stay.getValue());
+                }
+                Map.Entry<Long, Long> ongoing = stays.floorEntry(origin - 1);
+                if (ongoing != null) {
+                    nights.set(ongoing.getKey(), ongoing.getValue());
+                }
+            }
+            return nights;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.dto.RoomDTO;
+import com.matias.dittler.hotelbooking.repository.RoomRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Catálogo de habitaciones en memoria, servido desde una instantánea inmutable.
+ *
+ * El catálogo cambia pocas veces al día pero se lee constantemente. Cada
+ * instantánea contiene las habitaciones ya mapeadas a DTO (ordenadas por ID
+ * descendente), los tipos distintos y un índice por ID. Las lecturas solo
+ * leen una referencia volatile, sin bloqueos ni consultas.
+ *
+ * RoomService reconstruye la instantánea después de guardar un alta, una
+ * modificación o una baja de habitación. Cada reconstrucción tiene un número
+ * de versión creciente que se expone como ETag para validar cachés.
+ *
+ * Las reservas de cada habitación no forman parte del catálogo.
+ */
+@Service
+public class RoomCatalog {
+
+    @Autowired
+    private RoomRepository roomRepository; // Fuente del catálogo
+
+    // Se inicia con el instante de arranque para que las versiones no se repitan entre reinicios
+    private final AtomicLong versions = new AtomicLong(System.currentTimeMillis());
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Devuelve la instantánea vigente, construyéndola en la primera lectura.
+     * @return Instantánea actual del catálogo
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        return current != null ? current : refresh();
+    }
+
+    /**
+     * Busca una habitación en la instantánea vigente.
+     * @param roomId ID de la habitación
+     * @return La habitación, o vacío si no está en el catálogo
+     */
+    public Optional<RoomDTO> findRoom(Long roomId) {
+        return Optional.ofNullable(current().roomsById().get(roomId));
+    }
+
+    /**
+     * Reconstruye la instantánea desde la base de datos.
+     * Se debe llamar después de que se guarde un cambio en las habitaciones.
+     * @return La nueva instantánea
+     */
+    public synchronized Snapshot refresh() {
+        List<RoomDTO> rooms = List.copyOf(roomRepository.findAllRoomDTOs());
+
+        Set<String> roomTypes = new LinkedHashSet<>();
+        rooms.forEach(room -> {
+            if (room.getRoomType() != null) {
+                roomTypes.add(room.getRoomType());
+            }
+        });
+        Map<Long, RoomDTO> roomsById = rooms.stream()
+                .collect(Collectors.toUnmodifiableMap(RoomDTO::getId, Function.identity()));
+
+        Snapshot next = new Snapshot(versions.incrementAndGet(), rooms, List.copyOf(roomTypes), roomsById);
+        snapshot = next;
+        return next;
+    }
+
+    /**
+     * Instantánea inmutable del catálogo.
+     * Los DTO son compartidos entre lecturas: no deben modificarse.
+     * @param version Número de versión, creciente en cada reconstrucción
+     * @param rooms Habitaciones ordenadas por ID descendente
+     * @param roomTypes Tipos de habitación distintos
+     * @param roomsById Habitaciones por ID
+     */
+    public record Snapshot(long version, List<RoomDTO> rooms, List<String> roomTypes, Map<Long, RoomDTO> roomsById) {
+
+        /**
+         * ETag HTTP de esta versión del catálogo.
+         */
+        public String etag() {
+            return "\"rooms-" + version + "\"";
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.exception.RoomNotAvailableException;
+import com.matias.dittler.hotelbooking.utils.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retenciones temporales de habitaciones (holds).
+ *
+ * Una retención bloquea un rango de fechas en el RoomAvailabilityIndex
+ * durante algunos minutos, por ejemplo mientras el huésped paga, sin crear
+ * una reserva real. Luego se convierte en reserva (claim) o vence sola y
+ * el rango se libera.
+ *
+ * Los vencimientos se manejan con una TimingWheel que avanza un único hilo:
+ * cada retención cuesta una entrada en un mapa y un nodo en la rueda, sin
+ * tareas programadas por retención ni consultas a la base de datos.
+ * Las retenciones viven solo en memoria: un reinicio las descarta.
+ */
+@Service
+public class RoomHoldService {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomHoldService.class);
+
+    // Duración de cada tick de la rueda y cantidad de casilleros (una vuelta = 512 segundos)
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 512;
+
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex; // Donde se bloquean los rangos retenidos
+
+    // Duración de una retención si no se indica otra
+    @Value("${app.hold.default-minutes:10}")
+    private int defaultMinutes = 10;
+
+    // Duración máxima permitida para una retención
+    @Value("${app.hold.max-minutes:30}")
+    private int maxMinutes = 30;
+
+    // ID de retención -> retención activa
+    private final Map<String, ActiveHold> holds = new ConcurrentHashMap<>();
+
+    private TimingWheel<String> wheel;
+
+    private ScheduledExecutorService ticker;
+
+    /**
+     * Crea la rueda de vencimientos e inicia el hilo que la avanza.
+     */
+    @PostConstruct
+    public void start() {
+        wheel = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, System.currentTimeMillis());
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "room-hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::expireDue, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Retiene una habitación en un rango de fechas.
+     * @param roomId ID de la habitación
+     * @param checkIn Fecha de entrada
+     * @param checkOut Fecha de salida
+     * @param minutes Duración de la retención (null para usar la duración por defecto)
+     * @return La retención creada
+     * @throws RoomNotAvailableException si el rango ya está ocupado
+     */
+    public Hold hold(Long roomId, LocalDate checkIn, LocalDate checkOut, Integer minutes) {
+        int holdMinutes = minutes == null ? defaultMinutes : minutes;
+        if (holdMinutes < 1 || holdMinutes > maxMinutes) {
+            throw new IllegalArgumentException("La retención debe durar entre 1 y " + maxMinutes + " minutos.");
+        }
+        if (!availabilityIndex.tryReserve(roomId, checkIn, checkOut)) {
+            throw new RoomNotAvailableException("Habitación no disponible para el rango de fechas seleccionado");
+        }
+
+        Instant expiresAt = Instant.now().plus(Duration.ofMinutes(holdMinutes));
+        Hold hold = new Hold(UUID.randomUUID().toString(), roomId, checkIn, checkOut, expiresAt);
+        holds.put(hold.holdId(), new ActiveHold(hold, wheel.schedule(hold.holdId(), expiresAt.toEpochMilli())));
+        return hold;
+    }
+
+    /**
+     * Toma una retención para convertirla en reserva.
+     * El rango sigue bloqueado en el índice: a partir de aquí es responsabilidad
+     * de quien la tomó guardar la reserva o liberar el rango.
+     * @param holdId ID de la retención
+     * @return La retención, o vacío si no existe o ya venció
+     */
+    public Optional<Hold> claim(String holdId) {
+        ActiveHold active = holds.remove(holdId);
+        if (active == null) {
+            return Optional.empty();
+        }
+        if (!active.timeout().cancel()) {
+            // Venció justo ahora: como ya no está en el mapa, el vencimiento no la libera
+            releaseRange(active.hold());
+            return Optional.empty();
+        }
+        return Optional.of(active.hold());
+    }
+
+    /**
+     * Cancela una retención y libera su rango.
+     * @param holdId ID de la retención
+     * @return true si la retención estaba activa
+     */
+    public boolean release(String holdId) {
+        Optional<Hold> hold = claim(holdId);
+        hold.ifPresent(this::releaseRange);
+        return hold.isPresent();
+    }
+
+    /**
+     * Libera el rango de una retención ya tomada con claim() que finalmente no se usó.
+     * @param hold Retención tomada
+     */
+    public void releaseClaimed(Hold hold) {
+        releaseRange(hold);
+    }
+
+    /**
+     * Cantidad de retenciones activas.
+     */
+    public int activeHolds() {
+        return holds.size();
+    }
+
+    /**
+     * Avanza la rueda hasta el instante actual. Solo lo ejecuta el hilo de vencimientos.
+     */
+    private void expireDue() {
+        expireDue(System.currentTimeMillis());
+    }
+
+    /**
+     * Vence las retenciones cumplidas hasta el instante indicado.
+     * @param nowMillis Instante actual (epoch millis)
+     */
+    synchronized void expireDue(long nowMillis) {
+        try {
+            wheel.advance(nowMillis, holdId -> {
+                ActiveHold active = holds.remove(holdId);
+                if (active != null) {
+                    releaseRange(active.hold());
+                }
+            });
+        } catch (RuntimeException e) {
+            // Una excepción cancelaría la tarea periódica: se registra y se sigue
+            log.error("Error al vencer retenciones", e);
+        }
+    }
+
+    private void releaseRange(Hold hold) {
+        availabilityIndex.release(hold.roomId(), hold.checkInDate(), hold.checkOutDate());
+    }
+
+    /**
+     * Retención de una habitación en un rango de fechas.
+     * @param holdId ID de la retención
+     * @param roomId ID de la habitación
+     * @param checkInDate Fecha de entrada
+     * @param checkOutDate Fecha de salida
+     * @param expiresAt Instante de vencimiento
+     */
+    public record Hold(String holdId, Long roomId, LocalDate checkInDate, LocalDate checkOutDate, Instant expiresAt) {
+    }
+
+    private record ActiveHold(Hold hold, TimingWheel.Timeout<String> timeout) {
+    }
+}
@@ -0,0 +1,262 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.matias.dittler.hotelbooking.dto.RoomDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché de resultados de la búsqueda de habitaciones por fecha y tipo.
+ *
+ * El front-end repite la misma búsqueda en ráfagas. Cada resultado se guarda
+ * por (entrada, salida, tipo) en una caché acotada por tamaño.
+ *
+ * La invalidación es precisa: al recibir del RoomAvailabilityIndex una
+ * ocupación o liberación, solo se descartan las búsquedas cuyo rango se
+ * superpone y cuyo tipo coincide con el de la habitación. Los cambios en el
+ * catálogo de habitaciones descartan toda la caché.
+ *
+ * Las notificaciones llegan con el calendario de la habitación bloqueado,
+ * así que solo se encolan (O(1), sin locks compartidos). La cola se aplica
+ * antes de la siguiente lectura: cada búsqueda guardada está registrada en
+ * los tramos de 7 noches que abarca, y un cambio solo revisa las búsquedas
+ * de sus tramos, no toda la caché.
+ *
+ * Para no guardar un resultado calculado antes de un cambio, cada escritura
+ * incrementa un contador; si cambió mientras se calculaba una búsqueda, su
+ * resultado se devuelve pero no se guarda.
+ *
+ * Las métricas de aciertos, fallos y desalojos se publican en Micrometer
+ * como "cache.*" con la etiqueta cache=roomSearch.
+ */
+@Service
+public class RoomSearchCache implements OccupancyListener {
+
+    // Noches agrupadas en cada tramo del índice inverso
+    private static final int NIGHTS_PER_BUCKET = 7;
+
+    // Cambios encolados a partir de los cuales conviene descartar toda la caché
+    private static final int MAX_PENDING_CHANGES = 1024;
+
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex; // Fuente de los cambios de ocupación
+
+    @Autowired
+    private RoomSearchIndex searchIndex; // Tipo actual de cada habitación
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry; // Registro de métricas (opcional)
+
+    // Cantidad máxima de búsquedas guardadas
+    @Value("${app.search-cache.max-entries:10000}")
+    private long maxEntries = 10_000;
+
+    // Vencimiento de cada resultado, como red de seguridad
+    @Value("${app.search-cache.ttl-minutes:10}")
+    private long ttlMinutes = 10;
+
+    // (entrada, salida, tipo) -> habitaciones disponibles
+    private Cache<SearchKey, List<RoomDTO>> results;
+
+    // Cantidad de escrituras recibidas; detecta cambios durante el cálculo de una búsqueda
+    private final AtomicLong writes = new AtomicLong();
+
+    // Cambios de ocupación pendientes de aplicar a la caché
+    private final ConcurrentLinkedQueue<Change> pending = new ConcurrentLinkedQueue<>();
+
+    // Tamaño de la cola, acotado por MAX_PENDING_CHANGES
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    // Indica que se descartaron cambios por exceso y hay que vaciar la caché
+    private volatile boolean overflowed;
+
+    // Tramo de noches -> búsquedas guardadas que lo abarcan (protegido por this)
+    private final Map<Long, Set<SearchKey>> keysByBucket = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        results = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .removalListener((SearchKey key, List<RoomDTO> value, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        forget(key);
+                    }
+                })
+                .build();
+        // RoomSearchIndex ya se registró (es una dependencia), así que se nos notifica después de actualizarlo
+        availabilityIndex.addListener(this);
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, results, "roomSearch");
+        }
+    }
+
+    /**
+     * Devuelve el resultado guardado de una búsqueda o lo calcula y lo guarda.
+     * @param checkInDate Fecha de entrada
+     * @param checkOutDate Fecha de salida
+     * @param roomType Tipo de habitación buscada
+     * @param search Búsqueda a ejecutar si no hay resultado guardado
+     * @return Habitaciones disponibles (lista inmutable)
+     */
+    public List<RoomDTO> get(LocalDate checkInDate, LocalDate checkOutDate, String roomType,
+                             Supplier<List<RoomDTO>> search) {
+        long start = checkInDate.toEpochDay();
+        SearchKey key = new SearchKey(start, Math.max(checkOutDate.toEpochDay(), start + 1), roomType);
+
+        if (overflowed || !pending.isEmpty()) {
+            applyPendingChanges();
+        }
+        List<RoomDTO> cached = results.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long seen = writes.get();
+        List<RoomDTO> loaded = List.copyOf(search.get());
+        synchronized (this) {
+            if (writes.get() == seen) {
+                results.put(key, loaded);
+                for (long bucket = bucketOf(key.startDay); bucket <= bucketOf(key.endDay - 1); bucket++) {
+                    keysByBucket.computeIfAbsent(bucket, b -> new HashSet<>()).add(key);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Descarta todos los resultados (por ejemplo, al cambiar el catálogo).
+     */
+    public synchronized void invalidateAll() {
+        writes.incrementAndGet();
+        overflowed = false;
+        while (pending.poll() != null) {
+            pendingCount.decrementAndGet();
+        }
+        keysByBucket.clear();
+        results.invalidateAll();
+    }
+
+    @Override
+    public void occupied(Long roomId, long startDay, long endDay) {
+        invalidate(roomId, startDay, endDay);
+    }
+
+    @Override
+    public void released(Long roomId, long startDay, long endDay) {
+        invalidate(roomId, startDay, endDay);
+    }
+
+    @Override
+    public void roomRemoved(Long roomId) {
+        invalidateAll();
+    }
+
+    /**
+     * Registra un cambio de ocupación. Se invoca con el calendario de la habitación
+     * bloqueado, por eso solo se encola; se aplica en applyPendingChanges().
+     * Si se acumulan demasiados cambios sin lecturas, la cola deja de crecer
+     * y la próxima lectura vacía toda la caché.
+     */
+    private void invalidate(Long roomId, long startDay, long endDay) {
+        writes.incrementAndGet();
+        if (pendingCount.incrementAndGet() > MAX_PENDING_CHANGES) {
+            pendingCount.decrementAndGet();
+            overflowed = true;
+        } else {
+            pending.add(new Change(roomId, startDay, endDay));
+        }
+    }
+
+    /**
+     * Descarta las búsquedas que podrían incluir o excluir cada habitación
+     * en el rango de los cambios pendientes, revisando solo sus tramos.
+     */
+    private synchronized void applyPendingChanges() {
+        if (overflowed) {
+            invalidateAll();
+            return;
+        }
+        Change change;
+        while ((change = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            String roomType = searchIndex.roomTypeOf(change.roomId);
+            for (long bucket = bucketOf(change.startDay); bucket <= bucketOf(change.endDay - 1); bucket++) {
+                Set<SearchKey> keys = keysByBucket.get(bucket);
+                if (keys == null) {
+                    continue;
+                }
+                for (SearchKey key : List.copyOf(keys)) {
+                    if (key.overlaps(change.startDay, change.endDay) && key.matches(roomType)) {
+                        results.invalidate(key);
+                        unregister(key);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Quita del índice inverso una búsqueda desalojada por tamaño o vencimiento,
+     * salvo que ya se haya vuelto a guardar.
+     */
+    private synchronized void forget(SearchKey key) {
+        if (!results.asMap().containsKey(key)) {
+            unregister(key);
+        }
+    }
+
+    private void unregister(SearchKey key) {
+        for (long bucket = bucketOf(key.startDay); bucket <= bucketOf(key.endDay - 1); bucket++) {
+            Set<SearchKey> keys = keysByBucket.get(bucket);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByBucket.remove(bucket);
+            }
+        }
+    }
+
+    private static long bucketOf(long day) {
+        return Math.floorDiv(day, NIGHTS_PER_BUCKET);
+    }
+
+    /**
+     * Cambio de ocupación pendiente: rango semiabierto [startDay, endDay) de una habitación.
+     */
+    private record Change(Long roomId, long startDay, long endDay) {
+    }
+
+    /**
+     * Clave de una búsqueda: rango semiabierto [startDay, endDay) y tipo buscado.
+     */
+    private record SearchKey(long startDay, long endDay, String roomType) {
+
+        boolean overlaps(long otherStart, long otherEnd) {
+            return startDay < otherEnd && otherStart < endDay;
+        }
+
+        // El tipo se busca como LIKE %tipo%; sin tipo conocido se descarta por las dudas
+        boolean matches(String type) {
+            return type == null || roomType == null || type.contains(roomType);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.dto.RoomSummary;
+import com.matias.dittler.hotelbooking.repository.RoomRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido para la búsqueda de habitaciones disponibles por fecha y tipo.
+ *
+ * Mantiene:
+ *  - Por cada noche (epoch day), un bitmap con las habitaciones ocupadas.
+ *  - Por cada tipo de habitación, un bitmap con sus habitaciones.
+ *
+ * Cada bit corresponde al ID de una habitación. Los IDs son secuenciales y
+ * densos, así que un BitSet simple ya es compacto. Una búsqueda toma la unión
+ * de los tipos que coinciden y le resta las habitaciones ocupadas en cada
+ * noche del rango, sin consultar la base de datos.
+ *
+ * La ocupación se recibe del RoomAvailabilityIndex como OccupancyListener;
+ * los tipos se cargan al iniciar y se actualizan desde RoomService.
+ *
+ * Las notificaciones de ocupación llegan con el calendario de la habitación
+ * bloqueado, así que no toman ningún lock del índice: el bitmap de cada noche
+ * es inmutable una vez publicado y cada cambio publica una copia
+ * (copy-on-write) en un mapa concurrente. Reservas de habitaciones distintas
+ * no se serializan entre sí ni con las búsquedas, que leen las noches sin
+ * bloquear. El lock de lectura/escritura solo protege los tipos, que cambian
+ * con el catálogo.
+ *
+ * El día actual se toma de RoomAvailabilityIndex.currentOrigin() (UTC), el
+ * mismo que usa ese índice, para que el descarte de noches y canAnswer()
+ * coincidan cerca de la medianoche.
+ */
+@Service
+public class RoomSearchIndex implements OccupancyListener {
+
+    @Autowired
+    private RoomRepository roomRepository; // Fuente de los tipos de habitación al iniciar
+
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex; // Fuente de la ocupación
+
+    // Noche (epoch day) -> habitaciones ocupadas esa noche (bitmaps inmutables, copy-on-write)
+    private final ConcurrentSkipListMap<Long, BitSet> occupiedByNight = new ConcurrentSkipListMap<>();
+
+    // Tipo de habitación -> habitaciones de ese tipo
+    private final Map<String, BitSet> roomsByType = new HashMap<>();
+
+    // Habitación -> tipo, para poder moverla de bitmap al cambiar de tipo
+    private final Map<Long, String> typeByRoom = new HashMap<>();
+
+    // Protege roomsByType y typeByRoom
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Indica si el índice terminó de cargarse y puede responder búsquedas
+    private volatile boolean ready;
+
+    /**
+     * Carga los tipos de habitación y se suscribe a los cambios de ocupación.
+     */
+    @PostConstruct
+    public void load() {
+        for (RoomSummary room : roomRepository.findAllRoomSummaries()) {
+            putRoom(room.getId(), room.getRoomType());
+        }
+        availabilityIndex.addListener(this);
+        ready = true;
+    }
+
+    /**
+     * Indica si el índice puede responder una búsqueda que comienza en la fecha indicada.
+     * Las noches pasadas se descartan, por lo que solo responde desde ayer (UTC) en adelante.
+     * @param checkInDate Fecha de entrada buscada
+     * @return true si el índice está cargado y cubre la fecha
+     */
+    public boolean canAnswer(LocalDate checkInDate) {
+        return ready && checkInDate.toEpochDay() >= availabilityIndex.currentOrigin();
+    }
+
+    /**
+     * Registra o actualiza el tipo de una habitación.
+     * @param roomId ID de la habitación
+     * @param roomType Tipo de habitación
+     */
+    public void putRoom(Long roomId, String roomType) {
+        lock.writeLock().lock();
+        try {
+            int bit = bitOf(roomId);
+            String previousType = typeByRoom.put(roomId, roomType);
+            if (previousType != null) {
+                roomsByType.get(previousType).clear(bit);
+            }
+            if (roomType != null) {
+                roomsByType.computeIfAbsent(roomType, type -> new BitSet()).set(bit);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene el tipo registrado de una habitación.
+     * @param roomId ID de la habitación
+     * @return Tipo de habitación, o null si no está en el índice
+     */
+    public String roomTypeOf(Long roomId) {
+        lock.readLock().lock();
+        try {
+            return typeByRoom.get(roomId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene los IDs de las habitaciones del tipo indicado libres en todo el rango.
+     * @param checkInDate Fecha de entrada
+     * @param checkOutDate Fecha de salida
+     * @param roomType Tipo de habitación buscada (puede ser parcial, como en LIKE %tipo%)
+     * @return IDs de las habitaciones disponibles, en orden ascendente
+     */
+    public List<Long> findAvailableRoomIds(LocalDate checkInDate, LocalDate checkOutDate, String roomType) {
+        // Igual que LIKE %null% en la consulta: sin tipo no coincide ninguna habitación
+        if (roomType == null) {
+            return List.of();
+        }
+
+        long start = checkInDate.toEpochDay();
+        long end = Math.max(checkOutDate.toEpochDay(), start + 1);
+
+        BitSet candidates = new BitSet();
+        lock.readLock().lock();
+        try {
+            roomsByType.forEach((type, rooms) -> {
+                if (type.contains(roomType)) {
+                    candidates.or(rooms);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        for (BitSet occupied : occupiedByNight.subMap(start, end).values()) {
+            if (candidates.isEmpty()) {
+                break;
+            }
+            candidates.andNot(occupied);
+        }
+
+        List<Long> roomIds = new ArrayList<>(candidates.cardinality());
+        candidates.stream().forEach(bit -> roomIds.add((long) bit));
+        return roomIds;
+    }
+
+    @Override
+    public void occupied(Long roomId, long startDay, long endDay) {
+        int bit = bitOf(roomId);
+        long origin = availabilityIndex.currentOrigin();
+        for (long day = Math.max(startDay, origin); day < endDay; day++) {
+            occupiedByNight.compute(day, (night, occupied) -> withBit(occupied, bit, true));
+        }
+        pruneNightsBefore(origin);
+    }
+
+    @Override
+    public void released(Long roomId, long startDay, long endDay) {
+        int bit = bitOf(roomId);
+        for (Long day : occupiedByNight.subMap(startDay, endDay).keySet()) {
+            occupiedByNight.computeIfPresent(day, (night, occupied) -> withBit(occupied, bit, false));
+        }
+    }
+
+    @Override
+    public void roomRemoved(Long roomId) {
+        int bit = bitOf(roomId);
+        for (Long day : occupiedByNight.keySet()) {
+            occupiedByNight.computeIfPresent(day, (night, occupied) -> withBit(occupied, bit, false));
+        }
+        lock.writeLock().lock();
+        try {
+            String type = typeByRoom.remove(roomId);
+            if (type != null) {
+                roomsByType.get(type).clear(bit);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve una copia del bitmap de una noche con el bit de la habitación cambiado.
+     * El bitmap publicado nunca se modifica, así las búsquedas lo leen sin bloquear.
+     * Puede invocarse más de una vez por cambio si otra habitación modifica la misma noche.
+     */
+    private static BitSet withBit(BitSet occupied, int bit, boolean value) {
+        BitSet copy = occupied == null ? new BitSet() : (BitSet) occupied.clone();
+        copy.set(bit, value);
+        return copy;
+    }
+
+    /**
+     * Descarta los bitmaps de noches pasadas, que ya no se consultan.
+     */
+    private void pruneNightsBefore(long day) {
+        Map.Entry<Long, BitSet> first = occupiedByNight.firstEntry();
+        if (first != null && first.getKey() < day) {
+            occupiedByNight.headMap(day).clear();
+        }
+    }
+
+    private static int bitOf(Long roomId) {
+        return Math.toIntExact(roomId);
+    }
+}
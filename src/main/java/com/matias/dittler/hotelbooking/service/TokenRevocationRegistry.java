@@ -0,0 +1,160 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.dto.UserRoleSummary;
+import com.matias.dittler.hotelbooking.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro en memoria del rol vigente de cada usuario, usado para decidir
+ * si los claims de un JWT siguen siendo confiables.
+ *
+ * El filtro JWT autentica con los claims del token (ID y rol) sin consultar
+ * la base de datos. Este registro cubre los dos casos en que esos claims
+ * quedan desactualizados:
+ *  - Usuario eliminado: se marca como revocado y sus tokens se rechazan.
+ *  - Rol cambiado: el rol del token ya no coincide con el registrado y el
+ *    filtro vuelve a cargar el usuario desde la base.
+ *
+ * Los roles se cargan al iniciar y se refrescan en segundo plano cada
+ * "app.auth.registry-refresh-seconds", de modo que los cambios hechos
+ * directamente en la base también se detectan. Si un refresco falla se
+ * conservan los datos anteriores: las peticiones autenticadas no dependen
+ * del estado de la base.
+ *
+ * Cuando un usuario se elimina o cambia de rol, también se descarta de la
+ * caché de CustomUserDetailsService.
+ */
+@Service
+public class TokenRevocationRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    /**
+     * Resultado de comparar los claims de un token con el registro.
+     */
+    public enum Status {
+        // El rol del token coincide con el registrado
+        CURRENT,
+        // Usuario desconocido o con otro rol: hay que consultar la base
+        STALE,
+        // Usuario eliminado: el token no debe aceptarse
+        REVOKED
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService; // Caché de usuarios a invalidar
+
+    // Intervalo entre refrescos desde la base
+    @Value("${app.auth.registry-refresh-seconds:60}")
+    private long refreshSeconds = 60;
+
+    // ID de usuario -> rol vigente
+    private final Map<Long, String> roles = new ConcurrentHashMap<>();
+
+    // IDs de usuarios eliminados por esta instancia
+    private final Set<Long> revoked = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService refresher;
+
+    /**
+     * Carga los roles e inicia el hilo que los refresca.
+     */
+    @PostConstruct
+    public void start() {
+        refresh();
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * Vuelve a leer el rol de todos los usuarios desde la base.
+     * Los usuarios que ya no existen dejan de estar registrados.
+     */
+    public void refresh() {
+        Map<Long, String> loaded = new HashMap<>();
+        for (UserRoleSummary user : userRepository.findAllUserRoles()) {
+            if (user.getRole() != null) {
+                loaded.put(user.getId(), user.getRole());
+            }
+        }
+        loaded.forEach(this::userSaved);
+        roles.keySet().removeIf(userId -> {
+            if (loaded.containsKey(userId)) {
+                return false;
+            }
+            userDetailsService.evictUser(userId);
+            return true;
+        });
+    }
+
+    /**
+     * Compara el usuario y el rol de un token con el registro.
+     * @param userId ID del usuario (claim "uid")
+     * @param role Rol del usuario (claim "role")
+     * @return Estado de los claims
+     */
+    public Status check(Long userId, String role) {
+        if (revoked.contains(userId)) {
+            return Status.REVOKED;
+        }
+        return role.equals(roles.get(userId)) ? Status.CURRENT : Status.STALE;
+    }
+
+    /**
+     * Registra el rol de un usuario creado o modificado.
+     * @param userId ID del usuario
+     * @param role Rol vigente
+     */
+    public void userSaved(Long userId, String role) {
+        String previous = roles.put(userId, role);
+        if (previous != null && !previous.equals(role)) {
+            userDetailsService.evictUser(userId);
+        }
+    }
+
+    /**
+     * Revoca los tokens de un usuario eliminado.
+     * @param userId ID del usuario
+     */
+    public void userDeleted(Long userId) {
+        revoked.add(userId);
+        roles.remove(userId);
+        userDetailsService.evictUser(userId);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron refrescar los roles de usuario; se conservan los anteriores", e);
+        }
+    }
+}
@@ -1,23 +1,44 @@
 package com.matias.dittler.hotelbooking.service.implementation;
 
 import com.matias.dittler.hotelbooking.dto.BookingDTO;
+import com.matias.dittler.hotelbooking.dto.DateChangeRequest;
+import com.matias.dittler.hotelbooking.dto.GroupBookingLine;
+import com.matias.dittler.hotelbooking.dto.GroupBookingRequest;
 import com.matias.dittler.hotelbooking.dto.Response;
 import com.matias.dittler.hotelbooking.dto.RoomDTO;
 import com.matias.dittler.hotelbooking.entity.Booking;
 import com.matias.dittler.hotelbooking.entity.Room;
 import com.matias.dittler.hotelbooking.entity.User;
 import com.matias.dittler.hotelbooking.exception.OurException;
+import com.matias.dittler.hotelbooking.exception.RoomNotAvailableException;
 import com.matias.dittler.hotelbooking.repository.BookingRepository;
 import com.matias.dittler.hotelbooking.repository.RoomRepository;
 import com.matias.dittler.hotelbooking.repository.UserRepository;
+import com.matias.dittler.hotelbooking.service.BookingPartitionExecutor;
+import com.matias.dittler.hotelbooking.service.ConfirmationCodeFilter;
+import com.matias.dittler.hotelbooking.service.ConfirmationCodeGenerator;
+import com.matias.dittler.hotelbooking.service.IdempotencyService;
+import com.matias.dittler.hotelbooking.service.RequestCoalescer;
+import com.matias.dittler.hotelbooking.service.RoomAvailabilityIndex;
+import com.matias.dittler.hotelbooking.service.RoomHoldService;
 import com.matias.dittler.hotelbooking.service.interfac.InterfaceBookingService;
 import com.matias.dittler.hotelbooking.service.interfac.InterfaceRoomService;
+import com.matias.dittler.hotelbooking.utils.PageCursor;
 import com.matias.dittler.hotelbooking.utils.Utils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 /**
  * Servicio que implementa la lógica de negocio relacionada con las reservas (Booking).
@@ -26,6 +47,13 @@ import java.util.List;
 @Service
 public class BookingService implements InterfaceBookingService {
 
+    // Máximo de habitaciones en una misma reserva grupal
+    private static final int MAX_GROUP_SIZE = 100;
+
+    private static final String BOOKING_NOT_FOUND = "Reserva no encontrada";
+
+    private static final String BOOKINGS_BUSY = "Hay demasiadas reservas en curso, intente nuevamente en unos segundos";
+
     @Autowired
     private BookingRepository bookingRepository; // Repositorio de reservas
     @Autowired
@@ -34,6 +62,20 @@ public class BookingService implements InterfaceBookingService {
     private RoomRepository roomRepository; // Repositorio de habitaciones
     @Autowired
     private UserRepository userRepository; // Repositorio de usuarios
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex; // Índice de ocupación en memoria por habitación
+    @Autowired
+    private BookingPartitionExecutor bookingExecutor; // Admisión y guardado de reservas por habitación
+    @Autowired
+    private IdempotencyService idempotencyService; // Respuestas de reservas ya procesadas por Idempotency-Key
+    @Autowired
+    private RoomHoldService holdService; // Retenciones temporales que se convierten en reservas
+    @Autowired
+    private RequestCoalescer coalescer; // Agrupa lecturas idénticas simultáneas
+    @Autowired
+    private ConfirmationCodeFilter codeFilter; // Códigos de confirmación existentes, en memoria
+    @Autowired
+    private ConfirmationCodeGenerator codeGenerator; // Códigos de confirmación únicos
 
     /**
      * Guarda una reserva para un usuario y una habitación determinada.
@@ -58,32 +100,40 @@ public class BookingService implements InterfaceBookingService {
             User user = userRepository.findById(userId)
                     .orElseThrow(() -> new OurException("Usuario no encontrado"));
 
-            // Verificar disponibilidad de la habitación
-            List<Booking> existingBookings = room.getBookings();
-            if (!roomIsAvailable(bookingRequest, existingBookings)) {
-                throw new OurException("Habitación no disponible para el rango de fechas seleccionado");
-            }
-
             // Asignar habitación y usuario a la reserva
             bookingRequest.setRoom(room);
             bookingRequest.setUser(user);
 
             // Generar código de confirmación aleatorio
-            String bookingConfirmationCode = Utils.generateRandomConfirmationCode(10);
-            bookingRequest.setBookingConfirmationCode(bookingConfirmationCode);
+            bookingRequest.setBookingConfirmationCode(codeGenerator.next());
 
-            // Guardar reserva
-            bookingRepository.save(bookingRequest);
+            // La partición de la habitación verifica la disponibilidad y guarda la reserva
+            // (si el código ya existía, lo reemplaza por otro)
+            awaitAdmission(bookingExecutor.submit(rooId, bookingRequest));
+            String bookingConfirmationCode = bookingRequest.getBookingConfirmationCode();
+            codeFilter.add(bookingConfirmationCode);
 
             // Configurar respuesta exitosa
             response.setStatusCode(200);
             response.setMessage("exitoso");
             response.setBookingConfirmationCode(bookingConfirmationCode);
 
+        } catch (RoomNotAvailableException e) {
+            // La habitación existe pero ya está reservada en esas fechas
+            response.setStatusCode(409);
+            response.setMessage(e.getMessage());
         } catch (OurException e) {
-            // Error conocido (habitacion o usuario no encontrados, no disponible)
+            // Error conocido (habitacion o usuario no encontrados)
             response.setStatusCode(404);
             response.setMessage(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            // Cola de la partición llena
+            response.setStatusCode(503);
+            response.setMessage(BOOKINGS_BUSY);
+        } catch (TimeoutException e) {
+            // Se canceló en la cola sin guardarse: el cliente puede reintentar
+            response.setStatusCode(503);
+            response.setMessage(BOOKINGS_BUSY);
         } catch (Exception e) {
             // Otros errores inesperados
             response.setStatusCode(500);
@@ -93,18 +143,187 @@ public class BookingService implements InterfaceBookingService {
         return response;
     }
 
+    /**
+     * Guarda una reserva una única vez por Idempotency-Key.
+     * Los reintentos con la misma clave reciben la respuesta original sin consultar
+     * habitaciones ni reservas.
+     * @param rooId ID de la habitación
+     * @param userId ID del usuario
+     * @param bookingRequest Objeto Booking con la información de la reserva
+     * @param idempotencyKey Clave de idempotencia enviada por el cliente
+     * @return Response con estado y mensaje de la operación
+     */
+    @Override
+    public Response saveBooking(Long rooId, Long userId, Booking bookingRequest, String idempotencyKey) {
+        String fingerprint = rooId + "|" + bookingRequest.getCheckInDate() + "|" + bookingRequest.getCheckOutDate()
+                + "|" + bookingRequest.getNumOfAdults() + "|" + bookingRequest.getNumOfChildren();
+        return idempotencyService.execute("user-" + userId, idempotencyKey, fingerprint,
+                () -> saveBooking(rooId, userId, bookingRequest));
+    }
+
+    /**
+     * Convierte una retención temporal en una reserva. Las fechas ya están bloqueadas
+     * por la retención, así que no se vuelve a verificar la disponibilidad.
+     * @param holdId ID de la retención
+     * @param userId ID del usuario
+     * @param bookingRequest Datos de huéspedes de la reserva
+     * @return Response con estado y mensaje de la operación
+     */
+    @Override
+    public Response saveBookingFromHold(String holdId, Long userId, Booking bookingRequest) {
+        Response response = new Response();
+
+        try {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new OurException("Usuario no encontrado"));
+
+            // Tomar la retención: desde aquí el rango es de esta reserva
+            RoomHoldService.Hold hold = holdService.claim(holdId)
+                    .orElseThrow(() -> new OurException("Retención no encontrada o vencida"));
+
+            Room room = roomRepository.findById(hold.roomId()).orElse(null);
+            if (room == null) {
+                holdService.releaseClaimed(hold);
+                throw new OurException("Habitación no encontrada");
+            }
+
+            bookingRequest.setCheckInDate(hold.checkInDate());
+            bookingRequest.setCheckOutDate(hold.checkOutDate());
+            bookingRequest.setRoom(room);
+            bookingRequest.setUser(user);
+            bookingRequest.setBookingConfirmationCode(codeGenerator.next());
+
+            // Si el código ya existía, el ejecutor lo reemplaza por otro
+            bookingExecutor.admitReserved(hold.roomId(), bookingRequest);
+            String bookingConfirmationCode = bookingRequest.getBookingConfirmationCode();
+            codeFilter.add(bookingConfirmationCode);
+
+            response.setStatusCode(200);
+            response.setMessage("exitoso");
+            response.setBookingConfirmationCode(bookingConfirmationCode);
+
+        } catch (RoomNotAvailableException e) {
+            response.setStatusCode(409);
+            response.setMessage(e.getMessage());
+        } catch (OurException e) {
+            response.setStatusCode(404);
+            response.setMessage(e.getMessage());
+        } catch (Exception e) {
+            response.setStatusCode(500);
+            response.setMessage("Error al convertir la retención en reserva: " + e.getMessage());
+        }
+
+        return response;
+    }
+
+    /**
+     * Guarda una reserva grupal para un usuario: varias habitaciones en una sola operación.
+     * Las habitaciones se cargan con una única consulta y la disponibilidad de todas
+     * se verifica y reserva de forma atómica.
+     * @param groupRequest Usuario y líneas de la reserva grupal
+     * @return Response con estado, mensaje y las reservas creadas
+     */
+    @Override
+    public Response saveGroupBooking(GroupBookingRequest groupRequest) {
+        Response response = new Response();
+
+        try {
+            List<GroupBookingLine> lines = groupRequest.getBookings();
+            if (groupRequest.getUserId() == null) {
+                throw new IllegalArgumentException("La reserva grupal debe indicar el usuario.");
+            }
+            if (lines == null || lines.isEmpty()) {
+                throw new IllegalArgumentException("La reserva grupal debe incluir al menos una habitación.");
+            }
+            if (lines.size() > MAX_GROUP_SIZE) {
+                throw new IllegalArgumentException("La reserva grupal admite como máximo " + MAX_GROUP_SIZE + " habitaciones.");
+            }
+            for (GroupBookingLine line : lines) {
+                if (line.getRoomId() == null || line.getCheckInDate() == null || line.getCheckOutDate() == null) {
+                    throw new IllegalArgumentException("Cada línea debe indicar la habitación y las fechas.");
+                }
+                if (line.getCheckOutDate().isBefore(line.getCheckInDate())) {
+                    throw new IllegalArgumentException("La fecha de entrada debe ser anterior a la fecha de salida.");
+                }
+            }
+
+            // Buscar usuario y todas las habitaciones (una sola consulta)
+            User user = userRepository.findById(groupRequest.getUserId())
+                    .orElseThrow(() -> new OurException("Usuario no encontrado"));
+            Set<Long> roomIds = lines.stream().map(GroupBookingLine::getRoomId).collect(Collectors.toSet());
+            Map<Long, Room> rooms = roomRepository.findAllById(roomIds).stream()
+                    .collect(Collectors.toMap(Room::getId, room -> room));
+            if (rooms.size() != roomIds.size()) {
+                throw new OurException("Habitación no encontrada");
+            }
+
+            List<Booking> bookings = new ArrayList<>(lines.size());
+            for (GroupBookingLine line : lines) {
+                Booking booking = new Booking();
+                booking.setCheckInDate(line.getCheckInDate());
+                booking.setCheckOutDate(line.getCheckOutDate());
+                booking.setNumOfAdults(line.getNumOfAdults());
+                booking.setNumOfChildren(line.getNumOfChildren());
+                booking.setRoom(rooms.get(line.getRoomId()));
+                booking.setUser(user);
+                booking.setBookingConfirmationCode(codeGenerator.next());
+                bookings.add(booking);
+            }
+
+            // Reserva todas las habitaciones o ninguna (con los códigos finales, si alguno se reemplazó)
+            List<Booking> saved = bookingExecutor.admitGroup(bookings);
+            saved.forEach(booking -> codeFilter.add(booking.getBookingConfirmationCode()));
+
+            response.setStatusCode(200);
+            response.setMessage("exitoso");
+            response.setBookingList(Utils.mapBookingListEntityToBookingListDTO(saved));
+
+        } catch (RoomNotAvailableException e) {
+            // Alguna habitación ya está reservada en esas fechas: no se reservó ninguna
+            response.setStatusCode(409);
+            response.setMessage(e.getMessage());
+        } catch (OurException e) {
+            response.setStatusCode(404);
+            response.setMessage(e.getMessage());
+        } catch (Exception e) {
+            response.setStatusCode(500);
+            response.setMessage("Error al guardar la reserva grupal: " + e.getMessage());
+        }
+
+        return response;
+    }
+
     /**
      * Busca una reserva por su código de confirmación.
+     * Los códigos que seguro no existen se descartan sin consultar la base
+     * (ConfirmationCodeFilter), y las búsquedas simultáneas del mismo código
+     * comparten una única consulta.
      * @param confirmationCode Código de confirmación de la reserva
      * @return Response con los datos de la reserva si se encuentra
      */
     @Override
     public Response findBookingByConfirmationCode(String confirmationCode) {
+        if (!codeFilter.mightExist(confirmationCode)) {
+            Response response = new Response();
+            response.setStatusCode(404);
+            response.setMessage(BOOKING_NOT_FOUND);
+            return response;
+        }
+        return coalescer.execute("findBookingByConfirmationCode", confirmationCode,
+                () -> findBookingByCode(confirmationCode));
+    }
+
+    private Response findBookingByCode(String confirmationCode) {
         Response response = new Response();
 
         try {
             Booking booking = bookingRepository.findByBookingConfirmationCode(confirmationCode)
-                    .orElseThrow(() -> new OurException("Reserva no encontrada"));
+                    .orElse(null);
+            if (booking == null) {
+                // El código pasó el filtro pero no existe
+                codeFilter.recordFalsePositive();
+                throw new OurException(BOOKING_NOT_FOUND);
+            }
 
             // Mapear entidad Booking a DTO incluyendo información de la habitación reservada
             BookingDTO bookingDTO = Utils.mapBookingEntityToBookingDTOPlusBookedRooms(booking, true);
@@ -124,22 +343,33 @@ public class BookingService implements InterfaceBookingService {
     }
 
     /**
-     * Obtiene todas las reservas registradas en la base de datos.
-     * @return Response con la lista de reservas
+     * Obtiene una página de reservas, ordenadas por ID descendente.
+     * @param cursor Cursor devuelto por la página anterior (null para la primera)
+     * @param limit Tamaño de página (opcional)
+     * @return Response con la lista de reservas y el cursor de la página siguiente
      */
     @Override
-    public Response getAllBookings() {
+    public Response getAllBookings(String cursor, Integer limit) {
         Response response = new Response();
 
         try {
-            // Traer todas las reservas ordenadas por ID descendente
-            List<Booking> bookingList = bookingRepository.findAll(Sort.by(Sort.Direction.DESC, "id"));
-            List<BookingDTO> bookingDTOList = Utils.mapBookingListEntityToBookingListDTO(bookingList);
+            // Se pide un elemento de más para saber si hay otra página
+            int pageSize = PageCursor.limit(limit);
+            List<BookingDTO> bookingDTOList = bookingRepository.findPageBefore(
+                    PageCursor.decode(cursor), Limit.of(pageSize + 1));
+
+            if (bookingDTOList.size() > pageSize) {
+                bookingDTOList = bookingDTOList.subList(0, pageSize);
+                response.setNextCursor(PageCursor.encode(bookingDTOList.get(pageSize - 1).getId()));
+            }
 
             response.setBookingList(bookingDTOList);
             response.setMessage("exitoso");
             response.setStatusCode(200);
 
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setMessage("Cursor inválido");
         } catch (Exception e) {
             response.setStatusCode(500);
             response.setMessage("Error al obtener todas las reservas: " + e.getMessage());
@@ -159,11 +389,21 @@ public class BookingService implements InterfaceBookingService {
 
         try {
             // Verificar que la reserva exista
-            bookingRepository.findById(bookingId)
-                    .orElseThrow(() -> new OurException("Reserva no encontrada"));
+            Booking booking = bookingRepository.findById(bookingId)
+                    .orElseThrow(() -> new OurException(BOOKING_NOT_FOUND));
+
+            // Eliminar reserva. Si otra cancelación simultánea ya la eliminó, no se toca
+            // el filtro ni el índice: quitar un código ausente del filtro puede borrar
+            // la huella de otro código, y liberar dos veces el rango, la de otra reserva
+            if (bookingRepository.deleteBookingById(bookingId) == 0) {
+                throw new OurException(BOOKING_NOT_FOUND);
+            }
+            codeFilter.remove(booking.getBookingConfirmationCode());
 
-            // Eliminar reserva
-            bookingRepository.deleteById(bookingId);
+            // Liberar las noches ocupadas en el índice de disponibilidad
+            if (booking.getRoom() != null) {
+                availabilityIndex.release(booking.getRoom().getId(), booking.getCheckInDate(), booking.getCheckOutDate());
+            }
 
             response.setMessage("exitoso");
             response.setStatusCode(200);
@@ -180,32 +420,69 @@ public class BookingService implements InterfaceBookingService {
     }
 
     /**
-     * Valida si una habitación está disponible en el rango de fechas solicitado.
-     * @param bookingRequest Reserva que se desea hacer
-     * @param existingBookings Lista de reservas existentes de la habitación
-     * @return true si está disponible, false si hay conflicto de fechas
+     * Cambia las fechas de una reserva en el lugar, sin cancelarla.
+     * El nuevo rango se verifica con el índice de disponibilidad, excluyendo la propia reserva.
+     * @param bookingId ID de la reserva a modificar
+     * @param dateChangeRequest Nuevas fechas
+     * @return Response con estado, mensaje y la reserva actualizada
      */
-    private boolean roomIsAvailable(Booking bookingRequest, List<Booking> existingBookings) {
-        return existingBookings.stream()
-                .noneMatch(existingBooking ->
-                        // Coinciden fechas de entrada
-                        bookingRequest.getCheckInDate().equals(existingBooking.getCheckInDate())
-                        // Fecha de salida anterior a una reserva existente
-                        || bookingRequest.getCheckOutDate().isBefore(existingBooking.getCheckOutDate())
-                        // Fecha de entrada dentro de una reserva existente
-                        || (bookingRequest.getCheckInDate().isAfter(existingBooking.getCheckInDate())
-                        && bookingRequest.getCheckInDate().isBefore(existingBooking.getCheckOutDate()))
-                        // Fecha de entrada antes y salida coincide
-                        || (bookingRequest.getCheckInDate().isBefore(existingBooking.getCheckInDate())
-                        && bookingRequest.getCheckOutDate().equals(existingBooking.getCheckOutDate()))
-                        // Fecha de reserva engloba una existente
-                        || (bookingRequest.getCheckInDate().isBefore(existingBooking.getCheckInDate())
-                        && bookingRequest.getCheckOutDate().isAfter(existingBooking.getCheckOutDate()))
-                        // Fechas iguales inversas
-                        || (bookingRequest.getCheckInDate().equals(existingBooking.getCheckOutDate())
-                        && bookingRequest.getCheckOutDate().equals(existingBooking.getCheckInDate()))
-                        || (bookingRequest.getCheckInDate().equals(existingBooking.getCheckOutDate())
-                        && bookingRequest.getCheckOutDate().equals(bookingRequest.getCheckInDate()))
-                );
+    @Override
+    public Response updateBookingDates(Long bookingId, DateChangeRequest dateChangeRequest) {
+        Response response = new Response();
+
+        try {
+            LocalDate checkIn = dateChangeRequest.getCheckInDate();
+            LocalDate checkOut = dateChangeRequest.getCheckOutDate();
+            if (checkIn == null || checkOut == null) {
+                throw new IllegalArgumentException("Las fechas de entrada y salida son requeridas.");
+            }
+            if (checkOut.isBefore(checkIn)) {
+                throw new IllegalArgumentException("La fecha de entrada debe ser anterior a la fecha de salida.");
+            }
+
+            Booking booking = bookingRepository.findById(bookingId)
+                    .orElseThrow(() -> new OurException(BOOKING_NOT_FOUND));
+            if (booking.getRoom() == null) {
+                throw new OurException("Habitación no encontrada");
+            }
+
+            bookingExecutor.admitDateChange(booking, checkIn, checkOut);
+
+            response.setStatusCode(200);
+            response.setMessage("exitoso");
+            response.setBooking(Utils.mapBookingEntityToBookingDTO(booking));
+
+        } catch (RoomNotAvailableException e) {
+            response.setStatusCode(409);
+            response.setMessage(e.getMessage());
+        } catch (OurException e) {
+            response.setStatusCode(404);
+            response.setMessage(e.getMessage());
+        } catch (Exception e) {
+            response.setStatusCode(500);
+            response.setMessage("Error al cambiar las fechas de la reserva: " + e.getMessage());
+        }
+
+        return response;
+    }
+
+    /**
+     * Espera el resultado de la admisión de una reserva.
+     * @param admission Futuro devuelto por el ejecutor de reservas
+     * @throws TimeoutException si la reserva venció en la cola (no se guardó)
+     * @throws RuntimeException el error con el que se rechazó la reserva
+     */
+    private static void awaitAdmission(CompletableFuture<Booking> admission) throws TimeoutException {
+        try {
+            admission.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof TimeoutException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 }
@@ -1,20 +1,33 @@
 package com.matias.dittler.hotelbooking.service.implementation;
 
+import com.matias.dittler.hotelbooking.dto.HoldRequest;
 import com.matias.dittler.hotelbooking.dto.Response;
 import com.matias.dittler.hotelbooking.dto.RoomDTO;
 import com.matias.dittler.hotelbooking.entity.Room;
 import com.matias.dittler.hotelbooking.exception.OurException;
+import com.matias.dittler.hotelbooking.exception.RoomNotAvailableException;
 import com.matias.dittler.hotelbooking.repository.BookingRepository;
 import com.matias.dittler.hotelbooking.repository.RoomRepository;
 import com.matias.dittler.hotelbooking.service.R2StorageService;
+import com.matias.dittler.hotelbooking.service.RoomAvailabilityIndex;
+import com.matias.dittler.hotelbooking.service.RoomCatalog;
+import com.matias.dittler.hotelbooking.service.RoomHoldService;
+import com.matias.dittler.hotelbooking.service.RoomSearchCache;
+import com.matias.dittler.hotelbooking.service.RequestCoalescer;
+import com.matias.dittler.hotelbooking.service.RoomSearchIndex;
 import com.matias.dittler.hotelbooking.service.interfac.InterfaceRoomService;
+import com.matias.dittler.hotelbooking.utils.PageCursor;
 import com.matias.dittler.hotelbooking.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -24,6 +37,8 @@ import java.util.List;
 @Service
 public class RoomService implements InterfaceRoomService {
 
+    private static final Logger log = LoggerFactory.getLogger(RoomService.class);
+
     @Autowired
     private RoomRepository roomRepository; // Repositorio de habitaciones
 
@@ -33,6 +48,28 @@ public class RoomService implements InterfaceRoomService {
     @Autowired
     private R2StorageService rStorageService; // Servicio para manejar subida de imágenes
 
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex; // Índice de ocupación en memoria por habitación
+
+    @Autowired
+    private RoomSearchIndex searchIndex; // Índice invertido noche/tipo -> habitaciones
+
+    @Autowired
+    private RoomHoldService holdService; // Retenciones temporales de habitaciones
+
+    @Autowired
+    private RoomCatalog roomCatalog; // Instantánea inmutable del catálogo de habitaciones
+
+    @Autowired
+    private RoomSearchCache searchCache; // Resultados recientes de la búsqueda por fecha y tipo
+
+    @Autowired
+    private RequestCoalescer coalescer; // Agrupa lecturas idénticas simultáneas
+
+    // Si está activo, cada búsqueda se contrasta con la consulta a la base de datos
+    @Value("${app.availability.cross-check:false}")
+    private boolean crossCheckSearch;
+
     /**
      * Agrega una nueva habitación.
      * @param photo Imagen de la habitación
@@ -58,6 +95,9 @@ public class RoomService implements InterfaceRoomService {
 
             // Guardar en base de datos
             Room savedRoom = roomRepository.save(room);
+            searchIndex.putRoom(savedRoom.getId(), savedRoom.getRoomType());
+            roomCatalog.refresh();
+            searchCache.invalidateAll();
 
             // Mapear a DTO para devolver
             RoomDTO roomDTO = Utils.mapRoomEntityToRoomDTO(savedRoom);
@@ -77,29 +117,43 @@ public class RoomService implements InterfaceRoomService {
 
     /**
      * Obtiene todos los tipos de habitación distintos.
+     * Se sirven desde la instantánea del catálogo, sin consultar la base de datos.
      * @return Lista de tipos de habitaciones
      */
     @Override
     public List<String> getAllRoomTypes() {
-        return roomRepository.findDistinctRoomTypes();
+        return roomCatalog.current().roomTypes();
     }
 
     /**
-     * Obtiene todas las habitaciones registradas en la base de datos.
-     * @return Response con lista de habitaciones
+     * Obtiene una página de habitaciones, ordenadas por ID descendente.
+     * Se sirven desde la instantánea del catálogo, junto con su versión.
+     * @param cursor Cursor devuelto por la página anterior (null para la primera)
+     * @param limit Tamaño de página (opcional)
+     * @return Response con lista de habitaciones y el cursor de la página siguiente
      */
     @Override
-    public Response getAllRooms() {
+    public Response getAllRooms(String cursor, Integer limit) {
         Response response = new Response();
 
         try {
-            List<Room> roomList = roomRepository.findAll(Sort.by(Sort.Direction.DESC, "id"));
-            List<RoomDTO> roomDTOList = Utils.mapRoomListEntityToRoomListDTO(roomList);
+            RoomCatalog.Snapshot snapshot = roomCatalog.current();
+            List<RoomDTO> rooms = snapshot.rooms();
 
-            response.setRoomList(roomDTOList);
+            int from = firstRoomBelow(rooms, PageCursor.decode(cursor));
+            int to = Math.min(from + PageCursor.limit(limit), rooms.size());
+            if (to < rooms.size()) {
+                response.setNextCursor(PageCursor.encode(rooms.get(to - 1).getId()));
+            }
+
+            response.setRoomList(rooms.subList(from, to));
+            response.setCatalogVersion(snapshot.version());
             response.setMessage("exitoso");
             response.setStatusCode(200);
 
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setMessage("Cursor inválido");
         } catch (Exception e) {
             response.setStatusCode(500);
             response.setMessage("Error al obtener todas las habitaciones: " + e.getMessage());
@@ -121,8 +175,11 @@ public class RoomService implements InterfaceRoomService {
             // Verificar que la habitación exista
             roomRepository.findById(roomId).orElseThrow(() -> new OurException("Habitación no encontrada"));
 
-            // Eliminar habitación
+            // Eliminar habitación (sus reservas se eliminan en cascada)
             roomRepository.deleteById(roomId);
+            availabilityIndex.removeRoom(roomId);
+            roomCatalog.refresh();
+            searchCache.invalidateAll();
 
             response.setMessage("exitoso");
             response.setStatusCode(200);
@@ -171,6 +228,9 @@ public class RoomService implements InterfaceRoomService {
 
             // Guardar cambios
             Room updatedRoom = roomRepository.save(room);
+            searchIndex.putRoom(updatedRoom.getId(), updatedRoom.getRoomType());
+            roomCatalog.refresh();
+            searchCache.invalidateAll();
 
             // Mapear a DTO para devolver
             RoomDTO roomDTO = Utils.mapRoomEntityToRoomDTO(updatedRoom);
@@ -193,16 +253,25 @@ public class RoomService implements InterfaceRoomService {
 
     /**
      * Obtiene una habitación por su ID incluyendo sus reservas.
+     * Los datos de la habitación salen del catálogo y solo se consultan sus reservas.
+     * Si no está en el catálogo se busca en la base de datos.
+     * Las llamadas simultáneas con el mismo ID comparten una única consulta.
      * @param roomId ID de la habitación
      * @return Response con la habitación encontrada
      */
     @Override
     public Response getRoomById(Long roomId) {
+        return coalescer.execute("getRoomById", roomId, () -> findRoomById(roomId));
+    }
+
+    private Response findRoomById(Long roomId) {
         Response response = new Response();
 
         try {
-            Room room = roomRepository.findById(roomId).orElseThrow(() -> new OurException("Habitación no encontrada"));
-            RoomDTO roomDTO = Utils.mapRoomEntityToRoomDTOPlusBookings(room);
+            RoomDTO roomDTO = roomCatalog.findRoom(roomId)
+                    .map(cached -> withBookings(cached, roomId))
+                    .orElseGet(() -> Utils.mapRoomEntityToRoomDTOPlusBookings(
+                            roomRepository.findById(roomId).orElseThrow(() -> new OurException("Habitación no encontrada"))));
 
             response.setRoom(roomDTO);
             response.setMessage("exitoso");
@@ -229,11 +298,25 @@ public class RoomService implements InterfaceRoomService {
      */
     @Override
     public Response getAvailableRoomsByDateAndType(LocalDate checkInDate, LocalDate checkOutDate, String roomType) {
+        // Las búsquedas simultáneas con los mismos parámetros comparten una única consulta
+        return coalescer.execute("getAvailableRoomsByDateAndType", Arrays.asList(checkInDate, checkOutDate, roomType),
+                () -> findAvailableRoomsByDateAndType(checkInDate, checkOutDate, roomType));
+    }
+
+    private Response findAvailableRoomsByDateAndType(LocalDate checkInDate, LocalDate checkOutDate, String roomType) {
         Response response = new Response();
 
         try {
-            List<Room> availableRooms = roomRepository.findAvailableRoomsByDateAndTypes(checkInDate, checkOutDate, roomType);
-            List<RoomDTO> roomDTOList = Utils.mapRoomListEntityToRoomListDTO(availableRooms);
+            List<RoomDTO> roomDTOList;
+            if (searchIndex.canAnswer(checkInDate)) {
+                // Resultado guardado o, si no hay, resuelto con el índice en memoria
+                roomDTOList = searchCache.get(checkInDate, checkOutDate, roomType,
+                        () -> findIndexedAvailableRooms(checkInDate, checkOutDate, roomType));
+            } else {
+                // Respaldo: consulta directa a la base de datos
+                roomDTOList = Utils.mapRoomListEntityToRoomListDTO(
+                        roomRepository.findAvailableRoomsByDateAndTypes(checkInDate, checkOutDate, roomType));
+            }
 
             response.setRoomList(roomDTOList);
             response.setMessage("exitoso");
@@ -270,4 +353,129 @@ public class RoomService implements InterfaceRoomService {
 
         return response;
     }
+
+    /**
+     * Resuelve la disponibilidad con el índice en memoria y carga solo las habitaciones libres.
+     */
+    private List<RoomDTO> findIndexedAvailableRooms(LocalDate checkInDate, LocalDate checkOutDate, String roomType) {
+        List<Long> roomIds = searchIndex.findAvailableRoomIds(checkInDate, checkOutDate, roomType);
+        List<RoomDTO> availableRooms = roomRepository.findRoomDTOsByIdIn(roomIds);
+        if (crossCheckSearch) {
+            crossCheckAvailableRooms(roomIds, checkInDate, checkOutDate, roomType);
+        }
+        return availableRooms;
+    }
+
+    /**
+     * Compara el resultado del índice de búsqueda con la consulta a la base de datos
+     * y registra una advertencia si difieren.
+     */
+    private void crossCheckAvailableRooms(List<Long> indexedRoomIds, LocalDate checkInDate,
+                                          LocalDate checkOutDate, String roomType) {
+        List<Long> databaseRoomIds = roomRepository.findAvailableRoomsByDateAndTypes(checkInDate, checkOutDate, roomType)
+                .stream().map(Room::getId).toList();
+        if (!new HashSet<>(databaseRoomIds).equals(new HashSet<>(indexedRoomIds))) {
+            log.warn("El índice de búsqueda difiere de la base de datos para {} - {} ({}): índice={}, base={}",
+                    checkInDate, checkOutDate, roomType, indexedRoomIds, databaseRoomIds);
+        }
+    }
+
+    /**
+     * Retiene temporalmente una habitación en un rango de fechas.
+     * @param roomId ID de la habitación
+     * @param holdRequest Fechas y duración de la retención
+     * @return Response con el ID de la retención y su vencimiento
+     */
+    @Override
+    public Response holdRoom(Long roomId, HoldRequest holdRequest) {
+        Response response = new Response();
+
+        try {
+            if (holdRequest.getCheckInDate() == null || holdRequest.getCheckOutDate() == null) {
+                throw new IllegalArgumentException("Las fechas de entrada y salida son requeridas.");
+            }
+            if (holdRequest.getCheckOutDate().isBefore(holdRequest.getCheckInDate())) {
+                throw new IllegalArgumentException("La fecha de entrada debe ser anterior a la fecha de salida.");
+            }
+            if (!roomRepository.existsById(roomId)) {
+                throw new OurException("Habitación no encontrada");
+            }
+
+            RoomHoldService.Hold hold = holdService.hold(roomId, holdRequest.getCheckInDate(),
+                    holdRequest.getCheckOutDate(), holdRequest.getMinutes());
+
+            response.setStatusCode(200);
+            response.setMessage("exitoso");
+            response.setHoldId(hold.holdId());
+            response.setExpirationTime(hold.expiresAt().toString());
+
+        } catch (RoomNotAvailableException e) {
+            response.setStatusCode(409);
+            response.setMessage(e.getMessage());
+        } catch (OurException e) {
+            response.setStatusCode(404);
+            response.setMessage(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
+        } catch (Exception e) {
+            response.setStatusCode(500);
+            response.setMessage("Error al retener la habitación: " + e.getMessage());
+        }
+
+        return response;
+    }
+
+    /**
+     * Cancela una retención y libera sus fechas.
+     * @param holdId ID de la retención
+     * @return Response con estado y mensaje de la operación
+     */
+    @Override
+    public Response releaseHold(String holdId) {
+        Response response = new Response();
+
+        if (holdService.release(holdId)) {
+            response.setStatusCode(200);
+            response.setMessage("exitoso");
+        } else {
+            response.setStatusCode(404);
+            response.setMessage("Retención no encontrada o vencida");
+        }
+
+        return response;
+    }
+
+    /**
+     * Busca (por búsqueda binaria) la posición de la primera habitación con ID menor al indicado.
+     * La lista está ordenada por ID descendente.
+     */
+    private static int firstRoomBelow(List<RoomDTO> rooms, long id) {
+        int low = 0;
+        int high = rooms.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rooms.get(mid).getId() >= id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Copia una habitación del catálogo y le agrega sus reservas.
+     * El DTO del catálogo es compartido, por eso no se modifica.
+     */
+    private RoomDTO withBookings(RoomDTO cached, Long roomId) {
+        RoomDTO roomDTO = new RoomDTO();
+        roomDTO.setId(cached.getId());
+        roomDTO.setRoomType(cached.getRoomType());
+        roomDTO.setRoomPrice(cached.getRoomPrice());
+        roomDTO.setRoomPhotoUrl(cached.getRoomPhotoUrl());
+        roomDTO.setRoomDescription(cached.getRoomDescription());
+        roomDTO.setBookings(bookingRepository.findBookingDTOsByRoomId(roomId));
+        return roomDTO;
+    }
 }
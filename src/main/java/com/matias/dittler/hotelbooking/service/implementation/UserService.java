@@ -3,18 +3,23 @@ package com.matias.dittler.hotelbooking.service.implementation;
 import com.matias.dittler.hotelbooking.dto.LoginRequest;
 import com.matias.dittler.hotelbooking.dto.Response;
 import com.matias.dittler.hotelbooking.dto.UserDTO;
+import com.matias.dittler.hotelbooking.entity.Booking;
 import com.matias.dittler.hotelbooking.entity.User;
 import com.matias.dittler.hotelbooking.exception.OurException;
 import com.matias.dittler.hotelbooking.repository.UserRepository;
+import com.matias.dittler.hotelbooking.service.PasswordHashingExecutor;
+import com.matias.dittler.hotelbooking.service.RoomAvailabilityIndex;
+import com.matias.dittler.hotelbooking.service.TokenRevocationRegistry;
 import com.matias.dittler.hotelbooking.service.interfac.InterfaceUserService;
 import com.matias.dittler.hotelbooking.utils.JWTUtils;
+import com.matias.dittler.hotelbooking.utils.PageCursor;
 import com.matias.dittler.hotelbooking.utils.Utils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Servicio que implementa la lógica de negocio relacionada con los usuarios.
@@ -23,17 +28,24 @@ import java.util.List;
 @Service
 public class UserService implements InterfaceUserService {
 
+    private static final String TOO_MANY_PASSWORD_OPERATIONS = "Demasiadas solicitudes en curso, intente nuevamente en unos segundos";
+
+    private static final String BAD_CREDENTIALS = "Bad credentials";
+
     @Autowired
     private UserRepository userRepository; // Repositorio para interactuar con la tabla de usuarios
 
     @Autowired
-    private PasswordEncoder passwordEncoder; // Para encriptar contraseñas
+    private PasswordHashingExecutor passwordHashing; // Para encriptar y verificar contraseñas (BCrypt) en un pool acotado
 
     @Autowired
     private JWTUtils jwtUtils; // Para generar y validar tokens JWT
 
     @Autowired
-    private AuthenticationManager authenticationManager; // Para autenticar usuarios
+    private RoomAvailabilityIndex availabilityIndex; // Índice de ocupación en memoria por habitación
+
+    @Autowired
+    private TokenRevocationRegistry revocationRegistry; // Rol vigente de cada usuario, para los claims del JWT
 
     /**
      * Registra un nuevo usuario en el sistema.
@@ -56,10 +68,11 @@ public class UserService implements InterfaceUserService {
             }
 
             // Encriptar contraseña antes de guardar
-            user.setPassword(passwordEncoder.encode(user.getPassword()));
+            user.setPassword(passwordHashing.encode(user.getPassword()));
 
             // Guardar usuario en base de datos
             User savedUser = userRepository.save(user);
+            revocationRegistry.userSaved(savedUser.getId(), savedUser.getRole());
 
             // Mapear a DTO para devolver información segura (sin password)
             UserDTO userDTO = Utils.mapUserEntityToUserDTO(savedUser);
@@ -72,6 +85,10 @@ public class UserService implements InterfaceUserService {
             response.setStatusCode(400); // Error de validación
             response.setMessage(e.getMessage());
 
+        } catch (RejectedExecutionException e) {
+            response.setStatusCode(503); // Demasiadas operaciones de contraseña en curso
+            response.setMessage(TOO_MANY_PASSWORD_OPERATIONS);
+
         } catch (Exception e) {
             response.setStatusCode(500); // Error interno
             response.setMessage("Error al guardar un usuario: " + e.getMessage());
@@ -82,6 +99,15 @@ public class UserService implements InterfaceUserService {
 
     /**
      * Realiza el login de un usuario y devuelve token JWT.
+     *
+     * El usuario se busca una sola vez y se reutiliza para verificar la
+     * contraseña y generar el token. La verificación BCrypt se ejecuta en
+     * PasswordHashingExecutor; si está saturado se responde 503.
+     *
+     * Un email inexistente y una contraseña incorrecta reciben la misma
+     * respuesta, y en ambos casos se ejecuta una verificación BCrypt: ni el
+     * código ni el tiempo de respuesta revelan qué emails están registrados.
+     *
      * @param loginRequest Objeto con email y password
      * @return Response con token, rol y expiración
      */
@@ -90,15 +116,18 @@ public class UserService implements InterfaceUserService {
         Response response = new Response();
 
         try {
-            // Autenticar con Spring Security
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            loginRequest.getEmail(), loginRequest.getPassword())
-            );
-
-            // Obtener usuario de la base de datos
-            var user = userRepository.findByEmail(loginRequest.getEmail())
-                    .orElseThrow(() -> new OurException("Usuario no encontrado"));
+            // Obtener usuario de la base de datos (única consulta del login)
+            var user = userRepository.findByEmail(loginRequest.getEmail()).orElse(null);
+            if (user == null) {
+                // Mismo trabajo y misma respuesta que con una contraseña incorrecta
+                passwordHashing.matchesDummy(loginRequest.getPassword());
+                throw new BadCredentialsException(BAD_CREDENTIALS);
+            }
+
+            // Verificar la contraseña en el pool acotado de BCrypt
+            if (!passwordHashing.matches(loginRequest.getPassword(), user.getPassword())) {
+                throw new BadCredentialsException(BAD_CREDENTIALS);
+            }
 
             // Generar token JWT
             var token = jwtUtils.generateToken(user);
@@ -109,9 +138,9 @@ public class UserService implements InterfaceUserService {
             response.setMessage("exitoso");
             response.setStatusCode(200);
 
-        } catch (OurException e) {
-            response.setStatusCode(404); // Usuario no encontrado
-            response.setMessage(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            response.setStatusCode(503); // Demasiados inicios de sesión en curso
+            response.setMessage(TOO_MANY_PASSWORD_OPERATIONS);
 
         } catch (Exception e) {
             response.setStatusCode(500); // Error interno
@@ -122,21 +151,33 @@ public class UserService implements InterfaceUserService {
     }
 
     /**
-     * Obtiene todos los usuarios registrados.
-     * @return Response con lista de usuarios
+     * Obtiene una página de usuarios, ordenados por ID descendente.
+     * @param cursor Cursor devuelto por la página anterior (null para la primera)
+     * @param limit Tamaño de página (opcional)
+     * @return Response con lista de usuarios y el cursor de la página siguiente
      */
     @Override
-    public Response getAllUsers() {
+    public Response getAllUsers(String cursor, Integer limit) {
         Response response = new Response();
 
         try {
-            List<User> userList = userRepository.findAll();
-            List<UserDTO> userDTOList = Utils.mapUserListEntityToUserListDTO(userList);
+            // Se pide un elemento de más para saber si hay otra página
+            int pageSize = PageCursor.limit(limit);
+            List<UserDTO> userDTOList = userRepository.findPageBefore(
+                    PageCursor.decode(cursor), Limit.of(pageSize + 1));
+
+            if (userDTOList.size() > pageSize) {
+                userDTOList = userDTOList.subList(0, pageSize);
+                response.setNextCursor(PageCursor.encode(userDTOList.get(pageSize - 1).getId()));
+            }
 
             response.setUserList(userDTOList);
             response.setMessage("exitoso");
             response.setStatusCode(200);
 
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setMessage("Cursor inválido");
         } catch (Exception e) {
             response.setStatusCode(500);
             response.setMessage("Error al obtener todos los usuarios: " + e.getMessage());
@@ -155,7 +196,8 @@ public class UserService implements InterfaceUserService {
         Response response = new Response();
 
         try {
-            User user = userRepository.findById(Long.valueOf(userId))
+            // Usuario, reservas y habitaciones en una sola consulta
+            User user = userRepository.findWithBookingsAndRoomsById(Long.valueOf(userId))
                     .orElseThrow(() -> new OurException("Usuario no encontrado"));
 
             UserDTO userDTO = Utils.mapUserEntityToUserDTOPlusUserBookingsAndRoom(user);
@@ -187,12 +229,24 @@ public class UserService implements InterfaceUserService {
 
         try {
             // Verifica existencia del usuario
-            userRepository.findById(Long.valueOf(userId))
+            User user = userRepository.findById(Long.valueOf(userId))
                     .orElseThrow(() -> new OurException("Usuario no encontrado"));
 
+            // Reservas del usuario, que se eliminan en cascada junto con él
+            List<Booking> bookings = List.copyOf(user.getBookings());
+
             // Elimina usuario
             userRepository.deleteById(Long.valueOf(userId));
 
+            // Revoca los tokens ya emitidos para el usuario
+            revocationRegistry.userDeleted(Long.valueOf(userId));
+
+            // Libera en el índice las noches que ocupaban sus reservas
+            bookings.stream()
+                    .filter(booking -> booking.getRoom() != null)
+                    .forEach(booking -> availabilityIndex.release(
+                            booking.getRoom().getId(), booking.getCheckInDate(), booking.getCheckOutDate()));
+
             response.setMessage("exitoso");
             response.setStatusCode(200);
 
@@ -218,11 +272,10 @@ public class UserService implements InterfaceUserService {
         Response response = new Response();
 
         try {
-            User user = userRepository.findById(Long.valueOf(userId))
+            // Proyección directa a DTO: no se carga la entidad ni la contraseña
+            UserDTO userDTO = userRepository.findUserDTOById(Long.valueOf(userId))
                     .orElseThrow(() -> new OurException("Usuario no encontrado"));
 
-            UserDTO userDTO = Utils.mapUserEntityToUserDTO(user);
-
             response.setUser(userDTO);
             response.setMessage("exitoso");
             response.setStatusCode(200);
@@ -249,11 +302,10 @@ public class UserService implements InterfaceUserService {
         Response response = new Response();
 
         try {
-            User user = userRepository.findByEmail(email)
+            // Proyección directa a DTO: no se carga la entidad ni la contraseña
+            UserDTO userDTO = userRepository.findUserDTOByEmail(email)
                     .orElseThrow(() -> new OurException("Usuario no encontrado"));
 
-            UserDTO userDTO = Utils.mapUserEntityToUserDTO(user);
-
             response.setUser(userDTO);
             response.setMessage("exitoso");
             response.setStatusCode(200);
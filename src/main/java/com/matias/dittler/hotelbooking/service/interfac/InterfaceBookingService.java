@@ -1,5 +1,7 @@
 package com.matias.dittler.hotelbooking.service.interfac;
 
+import com.matias.dittler.hotelbooking.dto.DateChangeRequest;
+import com.matias.dittler.hotelbooking.dto.GroupBookingRequest;
 import com.matias.dittler.hotelbooking.dto.Response;
 import com.matias.dittler.hotelbooking.entity.Booking;
 
@@ -18,6 +20,34 @@ public interface InterfaceBookingService {
      */
     Response saveBooking(Long rooId, Long userId, Booking bookingRequest);
 
+    /**
+     * Guarda una nueva reserva una única vez por Idempotency-Key.
+     * Un reintento con la misma clave devuelve la respuesta original sin volver a reservar.
+     * @param rooId ID de la habitación a reservar
+     * @param userId ID del usuario que realiza la reserva
+     * @param bookingRequest Objeto Booking con los datos de la reserva
+     * @param idempotencyKey Clave de idempotencia enviada por el cliente
+     * @return Response con estado, mensaje y código de confirmación
+     */
+    Response saveBooking(Long rooId, Long userId, Booking bookingRequest, String idempotencyKey);
+
+    /**
+     * Convierte una retención temporal de habitación en una reserva.
+     * @param holdId ID de la retención
+     * @param userId ID del usuario que realiza la reserva
+     * @param bookingRequest Datos de huéspedes (las fechas y la habitación se toman de la retención)
+     * @return Response con estado, mensaje y código de confirmación
+     */
+    Response saveBookingFromHold(String holdId, Long userId, Booking bookingRequest);
+
+    /**
+     * Guarda una reserva grupal (varias habitaciones para un mismo usuario).
+     * Se confirman todas las reservas o ninguna.
+     * @param groupRequest Usuario y líneas de la reserva grupal
+     * @return Response con estado, mensaje y las reservas con sus códigos de confirmación
+     */
+    Response saveGroupBooking(GroupBookingRequest groupRequest);
+
     /**
      * Obtiene una reserva por su código de confirmación.
      * @param confirmationCode Código único de la reserva
@@ -26,10 +56,12 @@ public interface InterfaceBookingService {
     Response findBookingByConfirmationCode(String confirmationCode);
 
     /**
-     * Obtiene todas las reservas existentes en el sistema.
-     * @return Response con lista de reservas
+     * Obtiene una página de las reservas existentes en el sistema.
+     * @param cursor Cursor de la página anterior (null para la primera)
+     * @param limit Tamaño de página (opcional)
+     * @return Response con lista de reservas y cursor de la página siguiente
      */
-    Response getAllBookings();
+    Response getAllBookings(String cursor, Integer limit);
 
     /**
      * Cancela una reserva por su ID.
@@ -38,4 +70,12 @@ public interface InterfaceBookingService {
      */
     Response cancelBooking(Long bookingId);
 
+    /**
+     * Cambia las fechas de una reserva, manteniendo la habitación.
+     * @param bookingId ID de la reserva a modificar
+     * @param dateChangeRequest Nuevas fechas de entrada y salida
+     * @return Response con estado, mensaje y la reserva actualizada
+     */
+    Response updateBookingDates(Long bookingId, DateChangeRequest dateChangeRequest);
+
 }
@@ -1,5 +1,6 @@
 package com.matias.dittler.hotelbooking.service.interfac;
 
+import com.matias.dittler.hotelbooking.dto.HoldRequest;
 import com.matias.dittler.hotelbooking.dto.Response;
 import org.springframework.web.multipart.MultipartFile;
 import java.math.BigDecimal;
@@ -29,10 +30,12 @@ public interface InterfaceRoomService {
     List<String> getAllRoomTypes();
 
     /**
-     * Obtiene todas las habitaciones registradas en el sistema.
-     * @return Response con estado, mensaje y lista de habitaciones
+     * Obtiene una página de las habitaciones registradas en el sistema.
+     * @param cursor Cursor de la página anterior (null para la primera)
+     * @param limit Tamaño de página (opcional)
+     * @return Response con estado, mensaje, lista de habitaciones y cursor de la página siguiente
      */
-    Response getAllRooms();
+    Response getAllRooms(String cursor, Integer limit);
 
     /**
      * Elimina una habitación por su ID.
@@ -73,5 +76,20 @@ public interface InterfaceRoomService {
      * @return Response con estado, mensaje y lista de habitaciones disponibles
      */
     Response getAllAvailableRooms();
-    
+
+    /**
+     * Retiene temporalmente una habitación en un rango de fechas, sin crear una reserva.
+     * @param roomId ID de la habitación
+     * @param holdRequest Fechas y duración de la retención
+     * @return Response con estado, mensaje, ID de la retención y su vencimiento
+     */
+    Response holdRoom(Long roomId, HoldRequest holdRequest);
+
+    /**
+     * Cancela una retención y libera sus fechas.
+     * @param holdId ID de la retención
+     * @return Response con estado y mensaje de la operación
+     */
+    Response releaseHold(String holdId);
+
 }
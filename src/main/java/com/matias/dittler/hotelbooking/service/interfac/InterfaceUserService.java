@@ -25,10 +25,12 @@ public interface InterfaceUserService {
     Response login(LoginRequest loginRequest);
 
     /**
-     * Obtiene todos los usuarios registrados en el sistema.
-     * @return Response con estado, mensaje y lista de usuarios
+     * Obtiene una página de los usuarios registrados en el sistema.
+     * @param cursor Cursor de la página anterior (null para la primera)
+     * @param limit Tamaño de página (opcional)
+     * @return Response con estado, mensaje, lista de usuarios y cursor de la página siguiente
      */
-    Response getAllUsers();
+    Response getAllUsers(String cursor, Integer limit);
 
     /**
      * Obtiene el historial de reservas de un usuario por su ID.
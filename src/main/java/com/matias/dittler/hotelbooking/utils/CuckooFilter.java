@@ -0,0 +1,233 @@
+package com.matias.dittler.hotelbooking.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Filtro cuckoo de cadenas: conjunto aproximado que admite altas y bajas.
+ *
+ * Cada elemento se guarda como una huella (fingerprint) de pocos bits en
+ * uno de dos baldes posibles de 4 casilleros. mightContain() nunca da falsos
+ * negativos para elementos agregados y no quitados; puede dar falsos
+ * positivos con probabilidad aproximada 8 / 2^bits de huella.
+ *
+ * remove() solo debe llamarse con elementos que se agregaron antes: quitar
+ * algo que nunca se agregó puede borrar la huella de otro elemento.
+ *
+ * La capacidad es fija. Si un alta no encuentra lugar, add() devuelve false
+ * y el filtro deja de ser confiable para altas posteriores (quien lo usa
+ * debe dejar de descartar búsquedas).
+ *
+ * Los métodos son seguros entre hilos.
+ */
+public final class CuckooFilter {
+
+    private static final int SLOTS_PER_BUCKET = 4;
+
+    // Ocupación máxima esperable antes de que las altas empiecen a fallar
+    private static final double LOAD_FACTOR = 0.95;
+
+    // Reubicaciones máximas al buscar lugar para una huella
+    private static final int MAX_KICKS = 500;
+
+    private final short[] table;
+    private final int bucketMask;
+    private final int fingerprintBits;
+    private final int fingerprintMask;
+
+    // Huella desalojada que no encontró lugar (0 si no hay)
+    private short victim;
+    private int victimBucket;
+
+    private long size;
+
+    /**
+     * @param capacity Cantidad de elementos esperados
+     * @param falsePositiveRate Tasa de falsos positivos deseada (ej. 0.001)
+     */
+    public CuckooFilter(long capacity, double falsePositiveRate) {
+        if (capacity < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Capacidad o tasa de falsos positivos inválida");
+        }
+        long buckets = Long.highestOneBit(Math.max(1, (long) Math.ceil(capacity / (SLOTS_PER_BUCKET * LOAD_FACTOR))) * 2 - 1);
+        if (buckets * SLOTS_PER_BUCKET > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Capacidad demasiado grande: " + capacity);
+        }
+        // bits >= log2(2 * casilleros por balde / tasa)
+        int bits = (int) Math.ceil(Math.log(2.0 * SLOTS_PER_BUCKET / falsePositiveRate) / Math.log(2));
+        this.fingerprintBits = Math.max(4, Math.min(16, bits));
+        this.fingerprintMask = (1 << fingerprintBits) - 1;
+        this.bucketMask = (int) buckets - 1;
+        this.table = new short[(int) buckets * SLOTS_PER_BUCKET];
+    }
+
+    /**
+     * Agrega un elemento.
+     * @param value Elemento
+     * @return false si el filtro está lleno
+     */
+    public synchronized boolean add(String value) {
+        if (victim != 0) {
+            return false;
+        }
+        long hash = hash(value);
+        short fingerprint = fingerprint(hash);
+        int first = (int) hash & bucketMask;
+        int second = alternate(first, fingerprint);
+        if (insert(first, fingerprint) || insert(second, fingerprint)) {
+            size++;
+            return true;
+        }
+
+        // Ambos baldes llenos: se desalojan huellas hacia su balde alternativo
+        int bucket = ThreadLocalRandom.current().nextBoolean() ? first : second;
+        short current = fingerprint;
+        for (int kick = 0; kick < MAX_KICKS; kick++) {
+            int slot = bucket * SLOTS_PER_BUCKET + ThreadLocalRandom.current().nextInt(SLOTS_PER_BUCKET);
+            short evicted = table[slot];
+            table[slot] = current;
+            current = evicted;
+            bucket = alternate(bucket, current);
+            if (insert(bucket, current)) {
+                size++;
+                return true;
+            }
+        }
+
+        // La última huella desalojada queda guardada aparte para no perderla
+        victim = current;
+        victimBucket = bucket;
+        size++;
+        return true;
+    }
+
+    /**
+     * Indica si el elemento puede estar en el filtro.
+     * @param value Elemento
+     * @return false si seguro no está; true si puede estar
+     */
+    public synchronized boolean mightContain(String value) {
+        long hash = hash(value);
+        short fingerprint = fingerprint(hash);
+        int first = (int) hash & bucketMask;
+        int second = alternate(first, fingerprint);
+        return contains(first, fingerprint) || contains(second, fingerprint)
+                || (victim == fingerprint && (victimBucket == first || victimBucket == second));
+    }
+
+    /**
+     * Quita un elemento agregado previamente.
+     * @param value Elemento
+     * @return true si se encontró su huella
+     */
+    public synchronized boolean remove(String value) {
+        long hash = hash(value);
+        short fingerprint = fingerprint(hash);
+        int first = (int) hash & bucketMask;
+        int second = alternate(first, fingerprint);
+        if (delete(first, fingerprint) || delete(second, fingerprint)) {
+            size--;
+            // Ahora hay lugar: se reintenta ubicar la huella desalojada
+            if (victim != 0 && (insert(victimBucket, victim) || insert(alternate(victimBucket, victim), victim))) {
+                victim = 0;
+            }
+            return true;
+        }
+        if (victim == fingerprint && (victimBucket == first || victimBucket == second)) {
+            victim = 0;
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Cantidad de elementos en el filtro.
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Memoria ocupada por la tabla de huellas, en bytes.
+     */
+    public long memoryBytes() {
+        return (long) table.length * Short.BYTES;
+    }
+
+    /**
+     * Tasa de falsos positivos esperada con la tabla llena, según los bits de huella.
+     */
+    public double expectedFalsePositiveRate() {
+        return 2.0 * SLOTS_PER_BUCKET / (1 << fingerprintBits);
+    }
+
+    private boolean insert(int bucket, short fingerprint) {
+        int start = bucket * SLOTS_PER_BUCKET;
+        for (int i = start; i < start + SLOTS_PER_BUCKET; i++) {
+            if (table[i] == 0) {
+                table[i] = fingerprint;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean contains(int bucket, short fingerprint) {
+        int start = bucket * SLOTS_PER_BUCKET;
+        for (int i = start; i < start + SLOTS_PER_BUCKET; i++) {
+            if (table[i] == fingerprint) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean delete(int bucket, short fingerprint) {
+        int start = bucket * SLOTS_PER_BUCKET;
+        for (int i = start; i < start + SLOTS_PER_BUCKET; i++) {
+            if (table[i] == fingerprint) {
+                table[i] = 0;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Balde alternativo: depende solo del balde actual y de la huella,
+     * así una huella desalojada puede moverse sin conocer el elemento original.
+     */
+    private int alternate(int bucket, short fingerprint) {
+        return (bucket ^ (int) mix(fingerprint & 0xFFFF)) & bucketMask;
+    }
+
+    /**
+     * Huella de fingerprintBits bits tomada de la parte alta del hash (0 está reservado para "vacío").
+     */
+    private short fingerprint(long hash) {
+        int fingerprint = (int) (hash >>> 32) & fingerprintMask;
+        return (short) (fingerprint == 0 ? 1 : fingerprint);
+    }
+
+    /**
+     * Hash de 64 bits (FNV-1a sobre los bytes UTF-8, mezclado).
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -1,19 +1,35 @@
 package com.matias.dittler.hotelbooking.utils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.matias.dittler.hotelbooking.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
  * Clase utilitaria para generar y validar tokens JWT.
  * Se usa para la autenticación de usuarios en la API.
+ *
+ * Cada token se decodifica y se verifica (HMAC) una sola vez: los claims
+ * verificados se guardan en una caché acotada, indexada por el hash SHA-256
+ * del token (no por el token en sí) y vencida cuando vence el token. Las
+ * peticiones siguientes con el mismo token no repiten la criptografía.
+ *
+ * Los tokens de usuarios incluyen su ID ("uid") y su rol ("role"), para que
+ * el filtro JWT pueda autenticar sin consultar la base de datos.
  */
 @Service
 public class JWTUtils {
@@ -21,9 +37,24 @@ public class JWTUtils {
     // Tiempo de expiración del token en milisegundos: 7 días
     private static final long EXPIRATION_TIME = 1000 * 60 * 60 * 24 * 7;
 
+    // Claim con el ID del usuario
+    public static final String USER_ID_CLAIM = "uid";
+
+    // Claim con el rol del usuario
+    public static final String ROLE_CLAIM = "role";
+
+    // Cantidad máxima de tokens verificados en memoria
+    private static final long VERIFIED_TOKENS_CACHE_SIZE = 10_000;
+
     // Clave secreta para firmar los tokens
     private final SecretKey Key;
 
+    // Parser configurado una única vez con la clave
+    private final JwtParser parser;
+
+    // Hash del token -> claims ya verificados
+    private final Cache<String, Claims> verifiedTokens;
+
     /**
      * Constructor que inicializa la clave secreta.
      * Se convierte una cadena Base64 en un SecretKey para HmacSHA256.
@@ -32,15 +63,26 @@ public class JWTUtils {
         String secreteString = "843567893696976453275974432697R634976R738467TR678T34865R6834R8763T478378637664538745673865783678548735687R3";
         byte[] keyBytes = Base64.getDecoder().decode(secreteString.getBytes(StandardCharsets.UTF_8));
         this.Key = new SecretKeySpec(keyBytes, "HmacSHA256");
+        this.parser = Jwts.parser().verifyWith(Key).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(VERIFIED_TOKENS_CACHE_SIZE)
+                .expireAfter(new ExpireAtTokenExpiration())
+                .build();
     }
 
     /**
      * Genera un token JWT a partir de un UserDetails.
+     * Si es un usuario de la aplicación, se agregan su ID y su rol como claims.
      * @param userDetails Información del usuario
      * @return Token JWT firmado
      */
     public String generateToken(UserDetails userDetails){
-        return Jwts.builder()
+        var builder = Jwts.builder();
+        if (userDetails instanceof User user) {
+            builder.claim(USER_ID_CLAIM, user.getId())           // ID del usuario
+                    .claim(ROLE_CLAIM, user.getRole());          // Rol del usuario
+        }
+        return builder
                 .setSubject(userDetails.getUsername())           // Usuario
                 .setIssuedAt(new Date(System.currentTimeMillis())) // Fecha de emisión
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME)) // Expiración
@@ -65,8 +107,25 @@ public class JWTUtils {
      * @return Valor del claim
      */
     private <T> T extractClaims(String token, Function<Claims, T> claimsTFunction){
-        // parseSignedClaims() es parte de la nueva API de JWT 0.12.x
-        return claimsTFunction.apply(Jwts.parser().verifyWith(Key).build().parseSignedClaims(token).getPayload());
+        return claimsTFunction.apply(parseClaims(token));
+    }
+
+    /**
+     * Verifica la firma del token y devuelve sus claims.
+     * Si el token ya se verificó antes, se devuelven los claims guardados.
+     * @param token Token JWT
+     * @return Claims verificados del token
+     * @throws io.jsonwebtoken.JwtException si el token es inválido o está vencido
+     */
+    public Claims parseClaims(String token){
+        String key = hash(token);
+        Claims claims = verifiedTokens.getIfPresent(key);
+        if (claims == null) {
+            // parseSignedClaims() es parte de la nueva API de JWT 0.12.x
+            claims = parser.parseSignedClaims(token).getPayload();
+            verifiedTokens.put(key, claims);
+        }
+        return claims;
     }
 
     /**
@@ -76,17 +135,52 @@ public class JWTUtils {
      * @return true si el token es válido
      */
     public boolean isValidToken(String token, UserDetails userDetails){
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final Claims claims = parseClaims(token);
+        return (claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims));
     }
 
     /**
      * Comprueba si el token ya expiró.
-     * @param token Token JWT
+     * @param claims Claims del token
      * @return true si el token está vencido
      */
-    private boolean isTokenExpired(String token){
-        return extractClaims(token, Claims::getExpiration).before(new Date());
+    private boolean isTokenExpired(Claims claims){
+        return claims.getExpiration().before(new Date());
+    }
+
+    /**
+     * Hash SHA-256 del token, usado como clave de la caché.
+     */
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Hace vencer cada entrada de la caché junto con su token.
+     */
+    private static class ExpireAtTokenExpiration implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            long remainingMillis = expiration == null ? EXPIRATION_TIME : expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 
 }
@@ -0,0 +1,112 @@
+package com.matias.dittler.hotelbooking.utils;
+
+/**
+ * Calendario de ocupación compacto: un bit por noche.
+ *
+ * Cubre un horizonte fijo de días a partir de un día de origen, expresados
+ * como LocalDate.toEpochDay(). El bit i representa la noche del día
+ * (origin + i). Con un horizonte de 3 años ocupa unos 140 bytes.
+ *
+ * Todas las operaciones trabajan sobre palabras long completas y no
+ * reservan memoria, por lo que sirven para el camino caliente de las
+ * consultas de disponibilidad.
+ *
+ * La clase no es thread-safe: quien la use debe sincronizar el acceso.
+ */
+public final class OccupancyCalendar {
+
+    private final long origin;
+    private final int horizonDays;
+    private final long[] words;
+
+    /**
+     * @param origin Primer día cubierto (epoch day)
+     * @param horizonDays Cantidad de días cubiertos a partir del origen
+     */
+    public OccupancyCalendar(long origin, int horizonDays) {
+        this.origin = origin;
+        this.horizonDays = horizonDays;
+        this.words = new long[(horizonDays + 63) >>> 6];
+    }
+
+    /**
+     * @return Primer día cubierto por el calendario (epoch day)
+     */
+    public long origin() {
+        return origin;
+    }
+
+    /**
+     * Indica si el rango [startDay, endDay) cae completo dentro del horizonte.
+     */
+    public boolean covers(long startDay, long endDay) {
+        return startDay >= origin && endDay <= origin + horizonDays && startDay < endDay;
+    }
+
+    /**
+     * Indica si todas las noches del rango [startDay, endDay) están libres.
+     * El rango debe estar cubierto por el calendario (ver covers).
+     */
+    public boolean isFree(long startDay, long endDay) {
+        int from = (int) (startDay - origin);
+        int last = (int) (endDay - origin) - 1;
+        int firstWord = from >>> 6;
+        int lastWord = last >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> (63 - (last & 63));
+
+        if (firstWord == lastWord) {
+            return (words[firstWord] & firstMask & lastMask) == 0;
+        }
+        if ((words[firstWord] & firstMask) != 0) {
+            return false;
+        }
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            if (words[i] != 0) {
+                return false;
+            }
+        }
+        return (words[lastWord] & lastMask) == 0;
+    }
+
+    /**
+     * Marca como ocupadas las noches del rango, recortado al horizonte.
+     */
+    public void set(long startDay, long endDay) {
+        apply(startDay, endDay, true);
+    }
+
+    /**
+     * Marca como libres las noches del rango, recortado al horizonte.
+     */
+    public void clear(long startDay, long endDay) {
+        apply(startDay, endDay, false);
+    }
+
+    private void apply(long startDay, long endDay, boolean occupied) {
+        long clippedStart = Math.max(startDay, origin);
+        long clippedEnd = Math.min(endDay, origin + horizonDays);
+        if (clippedStart >= clippedEnd) {
+            return;
+        }
+        int from = (int) (clippedStart - origin);
+        int last = (int) (clippedEnd - origin) - 1;
+        int firstWord = from >>> 6;
+        int lastWord = last >>> 6;
+
+        for (int i = firstWord; i <= lastWord; i++) {
+            long mask = -1L;
+            if (i == firstWord) {
+                mask &= -1L << from;
+            }
+            if (i == lastWord) {
+                mask &= -1L >>> (63 - (last & 63));
+            }
+            if (occupied) {
+                words[i] |= mask;
+            } else {
+                words[i] &= ~mask;
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.matias.dittler.hotelbooking.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Utilidades para la paginación por cursor (keyset) de los listados.
+ *
+ * Los listados se ordenan por ID descendente. El cursor es opaco para el
+ * cliente: codifica el último ID entregado, y la página siguiente empieza en
+ * el primer ID menor. Así cada página es un recorrido por rango del índice de
+ * la clave primaria, sin OFFSET, y cuesta lo mismo sin importar cuán
+ * profunda sea.
+ */
+public class PageCursor {
+
+    // Tamaño de página si el cliente no indica uno
+    public static final int DEFAULT_LIMIT = 50;
+
+    // Tamaño de página máximo aceptado
+    public static final int MAX_LIMIT = 500;
+
+    private PageCursor() {
+    }
+
+    /**
+     * Codifica el último ID de una página como cursor opaco.
+     * @param lastId Último ID entregado
+     * @return Cursor para pedir la página siguiente
+     */
+    public static String encode(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("id:" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Obtiene el ID a partir del cual continuar.
+     * @param cursor Cursor recibido, o null para la primera página
+     * @return Los IDs de la página deben ser menores a este valor
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!value.startsWith("id:")) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        return Long.parseLong(value.substring(3));
+    }
+
+    /**
+     * Normaliza el tamaño de página pedido.
+     * @param limit Tamaño pedido, o null para el valor por defecto
+     * @return Tamaño entre 1 y MAX_LIMIT
+     */
+    public static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
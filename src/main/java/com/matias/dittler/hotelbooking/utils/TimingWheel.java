@@ -0,0 +1,170 @@
+package com.matias.dittler.hotelbooking.utils;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Rueda de temporización (hashed timing wheel) para vencimientos masivos.
+ *
+ * El tiempo se divide en ticks de duración fija y la rueda tiene una
+ * cantidad fija de casilleros (potencia de 2). Cada vencimiento se ubica en
+ * el casillero (tick % tamaño) junto con la cantidad de vueltas completas que
+ * faltan. Agregar o cancelar un vencimiento es O(1), y avanzar un tick solo
+ * recorre un casillero, sin importar cuántos vencimientos haya pendientes.
+ *
+ * schedule() y cancel() pueden llamarse desde cualquier hilo: los nuevos
+ * vencimientos entran por una cola sin bloqueos y se ubican en su casillero
+ * al avanzar. advance() debe llamarlo siempre un único hilo.
+ *
+ * @param <T> Tipo del dato asociado a cada vencimiento
+ */
+public final class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final Bucket<T>[] buckets;
+
+    // Vencimientos agregados desde otros hilos, pendientes de ubicar en la rueda
+    private final Queue<Timeout<T>> pending = new ConcurrentLinkedQueue<>();
+
+    // Próximo tick a procesar (solo lo modifica el hilo que avanza)
+    private long nextTick;
+
+    /**
+     * @param tickMillis Duración de cada tick en milisegundos
+     * @param wheelSize Cantidad de casilleros (se redondea a potencia de 2)
+     * @param startMillis Instante inicial de la rueda
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMillis y wheelSize deben ser positivos");
+        }
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = Math.max(size, 1) - 1;
+        this.buckets = new Bucket[mask + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket<>();
+        }
+        this.nextTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Programa un vencimiento.
+     * @param payload Dato que se entrega al vencer
+     * @param deadlineMillis Instante de vencimiento (epoch millis)
+     * @return Referencia que permite cancelar el vencimiento
+     */
+    public Timeout<T> schedule(T payload, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(payload, deadlineMillis);
+        pending.offer(timeout);
+        return timeout;
+    }
+
+    /**
+     * Procesa todos los ticks transcurridos hasta el instante indicado y entrega
+     * los vencimientos cumplidos. Solo debe llamarse desde un único hilo.
+     * @param nowMillis Instante actual (epoch millis)
+     * @param onExpire Acción a ejecutar con cada dato vencido
+     */
+    public void advance(long nowMillis, Consumer<T> onExpire) {
+        long currentTick = nowMillis / tickMillis;
+        while (nextTick <= currentTick) {
+            transferPending();
+            expireBucket(buckets[(int) (nextTick & mask)], onExpire);
+            nextTick++;
+        }
+    }
+
+    /**
+     * Ubica en su casillero los vencimientos agregados desde la última vuelta.
+     */
+    private void transferPending() {
+        Timeout<T> timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            // Un vencimiento ya pasado se procesa en el tick actual
+            long tick = Math.max(timeout.deadlineMillis / tickMillis, nextTick);
+            timeout.remainingRounds = (tick - nextTick) / buckets.length;
+            buckets[(int) (tick & mask)].timeouts.add(timeout);
+        }
+    }
+
+    private void expireBucket(Bucket<T> bucket, Consumer<T> onExpire) {
+        Iterator<Timeout<T>> iterator = bucket.timeouts.iterator();
+        while (iterator.hasNext()) {
+            Timeout<T> timeout = iterator.next();
+            if (timeout.isCancelled()) {
+                iterator.remove();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else {
+                iterator.remove();
+                if (timeout.expire()) {
+                    onExpire.accept(timeout.payload);
+                }
+            }
+        }
+    }
+
+    /**
+     * Casillero de la rueda. Solo lo accede el hilo que avanza.
+     */
+    private static final class Bucket<T> {
+        private final ArrayDeque<Timeout<T>> timeouts = new ArrayDeque<>();
+    }
+
+    /**
+     * Vencimiento programado. Pasa una única vez de pendiente a cancelado
+     * o a vencido, por lo que cancel() y el vencimiento nunca ocurren ambos.
+     */
+    public static final class Timeout<T> {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final T payload;
+        private final long deadlineMillis;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        // Vueltas completas de la rueda que faltan para vencer
+        private long remainingRounds;
+
+        private Timeout(T payload, long deadlineMillis) {
+            this.payload = payload;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        public long deadlineMillis() {
+            return deadlineMillis;
+        }
+
+        /**
+         * Cancela el vencimiento.
+         * @return true si se canceló, false si ya había vencido o estaba cancelado
+         */
+        public boolean cancel() {
+            return state.compareAndSet(PENDING, CANCELLED);
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        private boolean expire() {
+            return state.compareAndSet(PENDING, EXPIRED);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.matias.dittler.hotelbooking.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sin bloqueos.
+ *
+ * Se implementa como GCRA (generic cell rate algorithm): en lugar de guardar
+ * la cantidad de fichas y el último relleno, guarda un único instante
+ * teórico ("hasta cuándo está consumido el balde"). Cada permiso corre ese
+ * instante un intervalo hacia adelante, y se rechaza si quedaría más allá de
+ * la capacidad. Todo el estado es un AtomicLong que se actualiza con CAS,
+ * así que varios hilos pueden consumir del mismo balde sin locks.
+ *
+ * Los instantes son los de System.nanoTime() y los recibe el que llama, lo
+ * que permite testear sin esperar.
+ */
+public final class TokenBucket {
+
+    // Nanosegundos que tarda en reponerse un permiso
+    private final long intervalNanos;
+
+    // Nanosegundos equivalentes a la capacidad completa del balde
+    private final long capacityNanos;
+
+    // Instante teórico hasta el que el balde está consumido
+    private final AtomicLong consumedUntil;
+
+    /**
+     * Crea un balde lleno.
+     * @param capacity Cantidad máxima de permisos acumulables (ráfaga)
+     * @param permitsPerSecond Permisos que se reponen por segundo
+     * @param nowNanos Instante actual
+     */
+    public TokenBucket(long capacity, double permitsPerSecond, long nowNanos) {
+        if (capacity < 1 || permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("La capacidad y el ritmo deben ser positivos");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.capacityNanos = intervalNanos * capacity;
+        this.consumedUntil = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Intenta tomar un permiso.
+     * @param nowNanos Instante actual
+     * @return 0 si se tomó el permiso; si no, nanosegundos hasta que haya uno disponible
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = consumedUntil.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long excess = next - nowNanos - capacityNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (consumedUntil.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
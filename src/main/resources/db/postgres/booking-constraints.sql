@@ -0,0 +1,45 @@
+-- Restricciones de reservas que Hibernate (ddl-auto) no puede generar.
+-- Solo se ejecuta sobre PostgreSQL y es idempotente: puede correr en cada arranque.
+--
+-- Ni EXCLUDE ni los índices únicos admiten NOT VALID: si la tabla ya tiene filas que los
+-- violan, no se crean (se emite un WARNING) en lugar de hacer fallar el arranque.
+-- DatabaseSchemaInitializer informa en el log las filas en conflicto; una vez resueltas,
+-- el siguiente arranque crea la restricción.
+
+-- Permite combinar igualdad sobre room_id con solapamiento de rangos en un índice GiST
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Rango semiabierto [check_in_date, check_out_date) de cada reserva.
+-- Una estadía de cero noches ocupa igualmente el día de entrada.
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS stay daterange
+    GENERATED ALWAYS AS (daterange(check_in_date, GREATEST(check_out_date, check_in_date + 1), '[)')) STORED;
+
+-- Impide que dos reservas de la misma habitación se solapen
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'bookings_no_overlap') THEN
+        IF EXISTS (SELECT 1 FROM bookings a JOIN bookings b
+                   ON a.room_id = b.room_id AND a.id < b.id AND a.stay && b.stay) THEN
+            RAISE WARNING 'bookings_no_overlap no se creó: hay reservas solapadas';
+        ELSE
+            ALTER TABLE bookings ADD CONSTRAINT bookings_no_overlap
+                EXCLUDE USING gist (room_id WITH =, stay WITH &&);
+        END IF;
+    END IF;
+END
+$$;
+
+-- Códigos de confirmación únicos: ConfirmationCodeGenerator los genera al azar y, si uno se
+-- repite, BookingPartitionExecutor reintenta con otro. Además acelera la búsqueda por código
+DO $$
+BEGIN
+    IF to_regclass('bookings_confirmation_code_key') IS NULL THEN
+        IF EXISTS (SELECT 1 FROM bookings WHERE booking_confirmation_code IS NOT NULL
+                   GROUP BY booking_confirmation_code HAVING count(*) > 1) THEN
+            RAISE WARNING 'bookings_confirmation_code_key no se creó: hay códigos de confirmación repetidos';
+        ELSE
+            CREATE UNIQUE INDEX bookings_confirmation_code_key ON bookings (booking_confirmation_code);
+        END IF;
+    END IF;
+END
+$$;
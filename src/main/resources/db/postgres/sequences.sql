@@ -0,0 +1,11 @@
+-- Alinea las secuencias de IDs con los datos existentes.
+-- Solo se ejecuta sobre PostgreSQL y es idempotente: puede correr en cada arranque.
+
+-- Las tablas creadas con IDs IDENTITY ya tienen filas: las secuencias (que reservan
+-- bloques de 50 IDs) deben comenzar por encima del mayor ID existente
+SELECT setval('bookings_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM bookings))
+    WHERE (SELECT last_value FROM bookings_seq) < (SELECT COALESCE(MAX(id), 0) + 50 FROM bookings);
+SELECT setval('rooms_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM rooms))
+    WHERE (SELECT last_value FROM rooms_seq) < (SELECT COALESCE(MAX(id), 0) + 50 FROM rooms);
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM users))
+    WHERE (SELECT last_value FROM users_seq) < (SELECT COALESCE(MAX(id), 0) + 50 FROM users);
@@ -0,0 +1,109 @@
+package com.matias.dittler.hotelbooking.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para RateLimitFilter
+ *
+ * Verifica qué peticiones se limitan según ruta y método, y que al agotar
+ * el balde de un cliente se responda 429 con Retry-After y cuerpo JSON.
+ */
+@ExtendWith(MockitoExtension.class)
+class RateLimitFilterTest {
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private RateLimitFilter rateLimitFilter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitFilter.init();
+    }
+
+    /**
+     * Testea que solo se limiten los endpoints sensibles con su método.
+     */
+    @Test
+    void shouldOnlyLimitSensitiveEndpoints() {
+        assertFalse(rateLimitFilter.shouldNotFilter(request("POST", "/auth/login", "10.0.0.1")));
+        assertFalse(rateLimitFilter.shouldNotFilter(request("POST", "/auth/register", "10.0.0.1")));
+        assertFalse(rateLimitFilter.shouldNotFilter(request("GET", "/bookings/get-by-confirmation-code/ABC123", "10.0.0.1")));
+
+        assertTrue(rateLimitFilter.shouldNotFilter(request("GET", "/auth/login", "10.0.0.1")));
+        assertTrue(rateLimitFilter.shouldNotFilter(request("POST", "/auth/login/extra", "10.0.0.1")));
+        assertTrue(rateLimitFilter.shouldNotFilter(request("DELETE", "/bookings/get-by-confirmation-code/ABC123", "10.0.0.1")));
+        assertTrue(rateLimitFilter.shouldNotFilter(request("GET", "/rooms/all", "10.0.0.1")));
+    }
+
+    /**
+     * Testea que al agotar la ráfaga de un cliente se responda 429 sin llegar al resto
+     * de la cadena, mientras otro cliente sigue siendo atendido.
+     */
+    @Test
+    void shouldRejectClientAfterBurst() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            MockFilterChain chain = new MockFilterChain();
+            rateLimitFilter.doFilter(request("POST", "/auth/login", "10.0.0.1"), new MockHttpServletResponse(), chain);
+            assertNotNull(chain.getRequest());
+        }
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rateLimitFilter.doFilter(request("POST", "/auth/login", "10.0.0.1"), response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertTrue(response.getContentType().startsWith("application/json"));
+        JsonNode body = objectMapper.readTree(response.getContentAsString());
+        assertEquals(429, body.get("statusCode").asInt());
+        assertTrue(body.get("message").asText().contains("2 segundos"));
+
+        MockFilterChain otherClient = new MockFilterChain();
+        rateLimitFilter.doFilter(request("POST", "/auth/login", "10.0.0.2"), new MockHttpServletResponse(), otherClient);
+        assertNotNull(otherClient.getRequest());
+
+        assertEquals(1, meterRegistry.get("ratelimit.decisions")
+                .tag("endpoint", "login").tag("outcome", "rejected_client").counter().count());
+    }
+
+    /**
+     * Testea que cada endpoint tenga su propio balde por cliente.
+     */
+    @Test
+    void shouldKeepSeparateBucketsPerEndpoint() throws Exception {
+        for (int i = 0; i < 11; i++) {
+            rateLimitFilter.doFilter(request("POST", "/auth/login", "10.0.0.1"), new MockHttpServletResponse(), new MockFilterChain());
+        }
+
+        MockFilterChain chain = new MockFilterChain();
+        rateLimitFilter.doFilter(request("POST", "/auth/register", "10.0.0.1"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(remoteAddress);
+        return request;
+    }
+}
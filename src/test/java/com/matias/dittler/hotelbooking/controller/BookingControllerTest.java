@@ -1,5 +1,6 @@
 package com.matias.dittler.hotelbooking.controller;
 
+import com.matias.dittler.hotelbooking.dto.GroupBookingRequest;
 import com.matias.dittler.hotelbooking.dto.Response;
 import com.matias.dittler.hotelbooking.entity.Booking;
 import com.matias.dittler.hotelbooking.service.interfac.InterfaceBookingService;
@@ -49,7 +50,7 @@ class BookingControllerTest {
 
         // Act: llamar al método del controlador
         ResponseEntity<Response> responseEntity =
-                bookingController.saveBooking(roomId, userId, bookingRequest);
+                bookingController.saveBooking(roomId, userId, bookingRequest, null);
 
         // Assert: verificar resultados
         assertEquals(201, responseEntity.getStatusCodeValue());
@@ -61,6 +62,45 @@ class BookingControllerTest {
                 .saveBooking(roomId, userId, bookingRequest);
     }
 
+    /**
+     * Testea que con Idempotency-Key se delegue en la variante idempotente del servicio.
+     */
+    @Test
+    void shouldSaveBookingWithIdempotencyKey() {
+
+        Booking bookingRequest = new Booking();
+
+        Response mockResponse = new Response();
+        mockResponse.setStatusCode(200);
+
+        when(bookingService.saveBooking(1L, 2L, bookingRequest, "retry-1")).thenReturn(mockResponse);
+
+        ResponseEntity<Response> responseEntity = bookingController.saveBooking(1L, 2L, bookingRequest, "retry-1");
+
+        assertEquals(200, responseEntity.getStatusCode().value());
+        verify(bookingService, never()).saveBooking(1L, 2L, bookingRequest);
+    }
+
+    /**
+     * Testea que se pueda guardar una reserva grupal correctamente.
+     */
+    @Test
+    void shouldSaveGroupBookingSuccessfully() {
+
+        GroupBookingRequest groupRequest = new GroupBookingRequest();
+
+        Response mockResponse = new Response();
+        mockResponse.setStatusCode(200);
+        mockResponse.setMessage("exitoso");
+
+        when(bookingService.saveGroupBooking(groupRequest)).thenReturn(mockResponse);
+
+        ResponseEntity<Response> responseEntity = bookingController.saveGroupBooking(groupRequest);
+
+        assertEquals(200, responseEntity.getStatusCode().value());
+        verify(bookingService, times(1)).saveGroupBooking(groupRequest);
+    }
+
     /**
      * Testea que se puedan obtener todas las reservas correctamente.
      */
@@ -72,18 +112,18 @@ class BookingControllerTest {
         mockResponse.setStatusCode(200);
         mockResponse.setMessage("All bookings retrieved");
 
-        when(bookingService.getAllBookings()).thenReturn(mockResponse);
+        when(bookingService.getAllBookings(null, null)).thenReturn(mockResponse);
 
         // Act
         ResponseEntity<Response> responseEntity =
-                bookingController.getAllBookings();
+                bookingController.getAllBookings(null, null);
 
         // Assert
         assertEquals(200, responseEntity.getStatusCodeValue());
         assertEquals("All bookings retrieved",
                 responseEntity.getBody().getMessage());
 
-        verify(bookingService, times(1)).getAllBookings();
+        verify(bookingService, times(1)).getAllBookings(null, null);
     }
 
     /**
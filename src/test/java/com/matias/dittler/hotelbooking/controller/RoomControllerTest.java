@@ -75,13 +75,13 @@ class RoomControllerTest {
         Response mockResponse = new Response();
         mockResponse.setStatusCode(200);
 
-        when(roomService.getAllRooms()).thenReturn(mockResponse);
+        when(roomService.getAllRooms(null, null)).thenReturn(mockResponse);
 
-        ResponseEntity<Response> response = roomController.getAllRooms();
+        ResponseEntity<Response> response = roomController.getAllRooms(null, null);
 
         assertEquals(200, response.getStatusCodeValue());
 
-        verify(roomService, times(1)).getAllRooms();
+        verify(roomService, times(1)).getAllRooms(null, null);
     }
 
     /**
@@ -47,14 +47,14 @@ class UserControllerTest {
         // Arrange: Configura respuesta simulada del servicio
         Response mockResponse = new Response();
         mockResponse.setStatusCode(200);
-        when(userService.getAllUsers()).thenReturn(mockResponse);
+        when(userService.getAllUsers(null, null)).thenReturn(mockResponse);
 
         // Act: Llamada al endpoint del controlador
-        ResponseEntity<Response> response = userController.getAllUsers();
+        ResponseEntity<Response> response = userController.getAllUsers(null, null);
 
         // Assert: Verifica código de respuesta y que el servicio fue llamado una vez
         assertEquals(200, response.getStatusCodeValue());
-        verify(userService, times(1)).getAllUsers();
+        verify(userService, times(1)).getAllUsers(null, null);
     }
 
     /**
@@ -0,0 +1,138 @@
+package com.matias.dittler.hotelbooking.repository;
+
+import com.matias.dittler.hotelbooking.dto.BookingDTO;
+import com.matias.dittler.hotelbooking.dto.UserDTO;
+import com.matias.dittler.hotelbooking.entity.Booking;
+import com.matias.dittler.hotelbooking.entity.Room;
+import com.matias.dittler.hotelbooking.entity.User;
+import com.matias.dittler.hotelbooking.utils.Utils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de los planes de carga de reservas.
+ * Con las estadísticas de Hibernate se verifica que cada lectura ejecute una
+ * cantidad fija de sentencias SQL, sin importar cuántas reservas haya (sin N+1),
+ * y que los listados proyectados a DTO no carguen entidades.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookingFetchPlanTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    private Statistics statistics;
+
+    /**
+     * Crea dos usuarios con tres reservas cada uno, en habitaciones distintas,
+     * y vacía el contexto de persistencia para que todo se lea de la base.
+     */
+    @BeforeEach
+    void setUp() {
+        user = persistUser("ana@mail.com");
+        User other = persistUser("juan@mail.com");
+        for (int i = 0; i < 3; i++) {
+            persistBooking(user, persistRoom("SUITE"), "ANA" + i, i);
+            persistBooking(other, persistRoom("DOUBLE"), "JUAN" + i, i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Listing bookings runs a single statement")
+    void shouldListBookingsWithSingleStatement() {
+        List<BookingDTO> bookings = bookingRepository.findPageBefore(Long.MAX_VALUE, Limit.of(10));
+
+        assertEquals(6, bookings.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("User projection runs a single statement without loading entities")
+    void shouldProjectUserWithoutLoadingEntity() {
+        UserDTO userDTO = userRepository.findUserDTOById(user.getId()).orElseThrow();
+
+        assertEquals("ana@mail.com", userDTO.getEmail());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("Finding a booking by code loads user and room in a single statement")
+    void shouldFindBookingByCodeWithSingleStatement() {
+        Booking booking = bookingRepository.findByBookingConfirmationCode("ANA1").orElseThrow();
+        BookingDTO bookingDTO = Utils.mapBookingEntityToBookingDTOPlusBookedRooms(booking, true);
+
+        assertEquals("ana@mail.com", bookingDTO.getUser().getEmail());
+        assertEquals("SUITE", bookingDTO.getRoom().getRoomType());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("User booking history loads bookings and rooms in a single statement")
+    void shouldLoadBookingHistoryWithSingleStatement() {
+        User found = userRepository.findWithBookingsAndRoomsById(user.getId()).orElseThrow();
+        UserDTO userDTO = Utils.mapUserEntityToUserDTOPlusUserBookingsAndRoom(found);
+
+        assertEquals(3, userDTO.getBookings().size());
+        userDTO.getBookings().forEach(booking -> assertEquals("SUITE", booking.getRoom().getRoomType()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private User persistUser(String email) {
+        User newUser = new User();
+        newUser.setEmail(email);
+        newUser.setName("Test");
+        newUser.setPassword("secret");
+        newUser.setRole("USER");
+        return entityManager.persist(newUser);
+    }
+
+    private Room persistRoom(String roomType) {
+        Room room = new Room();
+        room.setRoomType(roomType);
+        room.setRoomPrice(BigDecimal.valueOf(100));
+        return entityManager.persist(room);
+    }
+
+    private void persistBooking(User owner, Room room, String code, int offset) {
+        Booking booking = new Booking();
+        booking.setUser(owner);
+        booking.setRoom(room);
+        booking.setCheckInDate(LocalDate.now().plusDays(1 + offset * 3L));
+        booking.setCheckOutDate(LocalDate.now().plusDays(3 + offset * 3L));
+        booking.setNumOfAdults(1);
+        booking.setBookingConfirmationCode(code);
+        entityManager.persist(booking);
+    }
+}
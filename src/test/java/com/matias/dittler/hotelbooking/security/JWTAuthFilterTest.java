@@ -1,7 +1,10 @@
 package com.matias.dittler.hotelbooking.security;
 
 import com.matias.dittler.hotelbooking.service.CustomUserDetailsService;
+import com.matias.dittler.hotelbooking.service.TokenRevocationRegistry;
 import com.matias.dittler.hotelbooking.utils.JWTUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -10,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
@@ -24,6 +28,7 @@ import static org.mockito.Mockito.*;
  * - Asegurar que el filtro no afecte el SecurityContext si no hay header Authorization.
  * - Validar que un token válido autentique correctamente al usuario.
  * - Verificar que un token inválido no autentique a nadie.
+ * - Autenticar con los claims del token sin consultar la base de datos.
  */
 @ExtendWith(MockitoExtension.class) // Habilita Mockito para JUnit 5
 class JWTAuthFilterTest {
@@ -36,6 +41,14 @@ class JWTAuthFilterTest {
     @Mock
     private CustomUserDetailsService customUserDetailsService;
 
+    // Simulamos el registro de revocación de tokens
+    @Mock
+    private TokenRevocationRegistry revocationRegistry;
+
+    // Clasificador de rutas real, con la tabla de rutas públicas de la aplicación
+    @Spy
+    private RouteClassifier routeClassifier = new RouteClassifier();
+
     // Simulamos la request HTTP
     @Mock
     private HttpServletRequest request;
@@ -68,7 +81,7 @@ class JWTAuthFilterTest {
      * Estas rutas incluyen:
      * - Documentación OpenAPI (/v3/api-docs)
      * - Swagger UI
-     * - Endpoints públicos (auth, rooms, bookings)
+     * - Endpoints públicos (auth y las consultas de rooms y bookings)
      * - Recursos estáticos necesarios para Swagger (/webjars)
      *
      * Si el método devuelve true, significa que el filtro
@@ -89,12 +102,12 @@ class JWTAuthFilterTest {
         when(request.getRequestURI()).thenReturn("/auth/login");
         assertTrue(jwtAuthFilter.shouldNotFilter(request));
 
-        // Endpoint público de rooms
-        when(request.getRequestURI()).thenReturn("/rooms");
+        // Consulta pública de rooms
+        when(request.getRequestURI()).thenReturn("/rooms/all");
         assertTrue(jwtAuthFilter.shouldNotFilter(request));
 
-        // Endpoint público de bookings
-        when(request.getRequestURI()).thenReturn("/bookings");
+        // Consulta pública de bookings
+        when(request.getRequestURI()).thenReturn("/bookings/get-by-confirmation-code/ABC123");
         assertTrue(jwtAuthFilter.shouldNotFilter(request));
 
         // Recursos estáticos utilizados por Swagger
@@ -121,6 +134,13 @@ class JWTAuthFilterTest {
         // Endpoint protegido de administración
         when(request.getRequestURI()).thenReturn("/admin/dashboard");
         assertFalse(jwtAuthFilter.shouldNotFilter(request));
+
+        // Endpoints con @PreAuthorize bajo /bookings y /rooms
+        when(request.getRequestURI()).thenReturn("/bookings/group");
+        assertFalse(jwtAuthFilter.shouldNotFilter(request));
+
+        when(request.getRequestURI()).thenReturn("/rooms/1/hold");
+        assertFalse(jwtAuthFilter.shouldNotFilter(request));
     }
 
 
@@ -204,4 +224,85 @@ class JWTAuthFilterTest {
         assertNull(SecurityContextHolder.getContext().getAuthentication());
         verify(filterChain).doFilter(request, response);
     }
+
+    /**
+     * Verifica que un token con ID y rol vigentes autentique
+     * sin cargar el usuario desde la base de datos.
+     */
+    @Test
+    void shouldAuthenticateFromClaimsWithoutLoadingUser() throws Exception {
+        String token = "claims.jwt.token";
+        String email = "test@email.com";
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtils.extractUsername(token)).thenReturn(email);
+        when(jwtUtils.parseClaims(token)).thenReturn(claims(email, 1L, "ADMIN"));
+        when(revocationRegistry.check(1L, "ADMIN")).thenReturn(TokenRevocationRegistry.Status.CURRENT);
+        when(jwtUtils.isValidToken(eq(token), any(UserDetails.class))).thenReturn(true);
+
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        assertEquals(email, SecurityContextHolder.getContext().getAuthentication().getName());
+        assertTrue(SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ADMIN")));
+        verifyNoInteractions(customUserDetailsService);
+        verify(filterChain).doFilter(request, response);
+    }
+
+    /**
+     * Verifica que un token de un usuario eliminado no autentique a nadie.
+     */
+    @Test
+    void shouldNotAuthenticateRevokedUser() throws Exception {
+        String token = "revoked.jwt.token";
+        String email = "test@email.com";
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtils.extractUsername(token)).thenReturn(email);
+        when(jwtUtils.parseClaims(token)).thenReturn(claims(email, 1L, "USER"));
+        when(revocationRegistry.check(1L, "USER")).thenReturn(TokenRevocationRegistry.Status.REVOKED);
+
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(customUserDetailsService);
+        verify(filterChain).doFilter(request, response);
+    }
+
+    /**
+     * Verifica que si el rol del token está desactualizado
+     * se use el rol vigente cargado desde la base de datos.
+     */
+    @Test
+    void shouldLoadUserWhenRoleChanged() throws Exception {
+        String token = "stale.jwt.token";
+        String email = "test@email.com";
+
+        UserDetails userDetails = User
+                .withUsername(email)
+                .password("password")
+                .authorities("USER")
+                .build();
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtils.extractUsername(token)).thenReturn(email);
+        when(jwtUtils.parseClaims(token)).thenReturn(claims(email, 1L, "ADMIN"));
+        when(revocationRegistry.check(1L, "ADMIN")).thenReturn(TokenRevocationRegistry.Status.STALE);
+        when(customUserDetailsService.loadUserByUsername(email)).thenReturn(userDetails);
+        when(jwtUtils.isValidToken(token, userDetails)).thenReturn(true);
+
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        assertTrue(SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
+                .noneMatch(authority -> authority.getAuthority().equals("ADMIN")));
+        verify(filterChain).doFilter(request, response);
+    }
+
+    private static Claims claims(String email, Long userId, String role) {
+        return Jwts.claims()
+                .subject(email)
+                .add(JWTUtils.USER_ID_CLAIM, userId)
+                .add(JWTUtils.ROLE_CLAIM, role)
+                .build();
+    }
 }
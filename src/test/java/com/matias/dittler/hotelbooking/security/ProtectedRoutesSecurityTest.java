@@ -0,0 +1,115 @@
+package com.matias.dittler.hotelbooking.security;
+
+import com.matias.dittler.hotelbooking.controller.BookingController;
+import com.matias.dittler.hotelbooking.dto.Response;
+import com.matias.dittler.hotelbooking.entity.User;
+import com.matias.dittler.hotelbooking.service.BookingExportService;
+import com.matias.dittler.hotelbooking.service.CustomUserDetailsService;
+import com.matias.dittler.hotelbooking.service.RoomCatalog;
+import com.matias.dittler.hotelbooking.service.TokenRevocationRegistry;
+import com.matias.dittler.hotelbooking.service.interfac.InterfaceBookingService;
+import com.matias.dittler.hotelbooking.utils.JWTUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests de la cadena de seguridad sobre BookingController.
+ *
+ * Levanta solo la capa web con SecurityConfig, JWTAuthFilter y
+ * RouteClassifier reales, y firma tokens con JWTUtils, para verificar que
+ * las rutas con @PreAuthorize bajo /bookings autentiquen el token.
+ */
+@WebMvcTest(BookingController.class)
+@Import({SecurityConfig.class, JWTAuthFilter.class, RouteClassifier.class, JWTUtils.class})
+class ProtectedRoutesSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc; // Peticiones HTTP simuladas a través de la cadena de filtros
+
+    @Autowired
+    private JWTUtils jwtUtils; // Firma los tokens de prueba
+
+    @MockBean
+    private InterfaceBookingService bookingService;
+
+    @MockBean
+    private BookingExportService bookingExportService;
+
+    @MockBean
+    private CustomUserDetailsService customUserDetailsService;
+
+    @MockBean
+    private TokenRevocationRegistry revocationRegistry;
+
+    @MockBean
+    private RoomCatalog roomCatalog; // Requerido por RoomCatalogEtagFilter
+
+    /**
+     * Verifica que un ADMIN con token válido acceda a GET /bookings/all.
+     */
+    @Test
+    void shouldAuthenticateProtectedBookingRouteWithValidToken() throws Exception {
+        Response response = new Response();
+        response.setStatusCode(200);
+        when(bookingService.getAllBookings(null, null)).thenReturn(response);
+        when(revocationRegistry.check(1L, "ADMIN")).thenReturn(TokenRevocationRegistry.Status.CURRENT);
+
+        mockMvc.perform(get("/bookings/all").header("Authorization", "Bearer " + token("ADMIN")))
+                .andExpect(status().isOk());
+
+        verify(bookingService).getAllBookings(null, null);
+    }
+
+    /**
+     * Verifica que la misma ruta sin token se rechace sin llegar al servicio.
+     */
+    @Test
+    void shouldRejectProtectedBookingRouteWithoutToken() throws Exception {
+        mockMvc.perform(get("/bookings/all"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(bookingService);
+    }
+
+    /**
+     * Verifica que @PreAuthorize siga aplicando el rol una vez autenticado el token.
+     */
+    @Test
+    void shouldForbidAdminRouteForUserRole() throws Exception {
+        when(revocationRegistry.check(1L, "USER")).thenReturn(TokenRevocationRegistry.Status.CURRENT);
+
+        mockMvc.perform(get("/bookings/all").header("Authorization", "Bearer " + token("USER")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(bookingService);
+    }
+
+    /**
+     * Verifica que la consulta por código de confirmación siga siendo pública.
+     */
+    @Test
+    void shouldAllowConfirmationCodeLookupWithoutToken() throws Exception {
+        Response response = new Response();
+        response.setStatusCode(200);
+        when(bookingService.findBookingByConfirmationCode("ABC123")).thenReturn(response);
+
+        mockMvc.perform(get("/bookings/get-by-confirmation-code/ABC123"))
+                .andExpect(status().isOk());
+    }
+
+    private String token(String role) {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("admin@hotel.com");
+        user.setRole(role);
+        return jwtUtils.generateToken(user);
+    }
+}
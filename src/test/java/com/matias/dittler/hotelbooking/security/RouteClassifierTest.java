@@ -0,0 +1,65 @@
+package com.matias.dittler.hotelbooking.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para RouteClassifier.
+ *
+ * Verifica que la tabla de rutas se aplique por segmentos completos
+ * y que las rutas desconocidas queden protegidas.
+ */
+class RouteClassifierTest {
+
+    private final RouteClassifier routeClassifier = new RouteClassifier();
+
+    /**
+     * Verifica las rutas públicas, incluida la raíz y sus subrutas.
+     */
+    @Test
+    void shouldClassifyPublicRoutes() {
+        assertTrue(routeClassifier.isPublic("/"));
+        assertTrue(routeClassifier.isPublic("/rooms/all"));
+        assertTrue(routeClassifier.isPublic("/rooms/all/"));
+        assertTrue(routeClassifier.isPublic("/rooms/room-by-id/1"));
+        assertTrue(routeClassifier.isPublic("/rooms/available-rooms-by-date-and-type"));
+        assertTrue(routeClassifier.isPublic("/bookings/get-by-confirmation-code/ABC123"));
+        assertTrue(routeClassifier.isPublic("/auth/login"));
+        assertTrue(routeClassifier.isPublic("/swagger-ui.html"));
+        assertTrue(routeClassifier.isPublic("/v3/api-docs/swagger-config"));
+    }
+
+    /**
+     * Verifica que los prefijos se comparen por segmento completo
+     * y que lo que no figura en la tabla requiera autenticación.
+     */
+    @Test
+    void shouldProtectEverythingElse() {
+        assertEquals(RouteClassifier.Access.AUTHENTICATED, routeClassifier.classify("/users/all"));
+        assertEquals(RouteClassifier.Access.AUTHENTICATED, routeClassifier.classify("/roomsadmin"));
+        assertEquals(RouteClassifier.Access.AUTHENTICATED, routeClassifier.classify("/swagger-ui.html/extra"));
+        assertEquals(RouteClassifier.Access.AUTHENTICATED, routeClassifier.classify("/actuator/metrics"));
+    }
+
+    /**
+     * Verifica que las rutas con @PreAuthorize bajo /rooms y /bookings sean protegidas,
+     * para que JWTAuthFilter autentique sus peticiones.
+     */
+    @Test
+    void shouldProtectRoomAndBookingWrites() {
+        assertEquals(RouteClassifier.Access.AUTHENTICATED, routeClassifier.classify("/rooms/add"));
+        assertEquals(RouteClassifier.Access.AUTHENTICATED, routeClassifier.classify("/rooms/update/1"));
+        assertEquals(RouteClassifier.Access.AUTHENTICATED, routeClassifier.classify("/rooms/delete/1"));
+        assertEquals(RouteClassifier.Access.AUTHENTICATED, routeClassifier.classify("/rooms/1/hold"));
+        assertEquals(RouteClassifier.Access.AUTHENTICATED, routeClassifier.classify("/rooms/all/hold"));
+        assertEquals(RouteClassifier.Access.AUTHENTICATED, routeClassifier.classify("/rooms/hold/abc"));
+        assertEquals(RouteClassifier.Access.AUTHENTICATED, routeClassifier.classify("/bookings/book-room/1/2"));
+        assertEquals(RouteClassifier.Access.AUTHENTICATED, routeClassifier.classify("/bookings/from-hold/abc/2"));
+        assertEquals(RouteClassifier.Access.AUTHENTICATED, routeClassifier.classify("/bookings/group"));
+        assertEquals(RouteClassifier.Access.AUTHENTICATED, routeClassifier.classify("/bookings/all"));
+        assertEquals(RouteClassifier.Access.AUTHENTICATED, routeClassifier.classify("/bookings/export"));
+        assertEquals(RouteClassifier.Access.AUTHENTICATED, routeClassifier.classify("/bookings/cancel/1"));
+        assertEquals(RouteClassifier.Access.AUTHENTICATED, routeClassifier.classify("/bookings/1/dates"));
+    }
+}
@@ -47,22 +47,22 @@ class SecurityConfigTest {
     }
 
     /**
-     * Verifica que los endpoints bajo /rooms/** sean accesibles sin autenticación.
+     * Verifica que las consultas de /rooms sean accesibles sin autenticación.
      */
     @Test
-    @DisplayName("Should allow /rooms/** without authentication")
+    @DisplayName("Should allow room queries without authentication")
     void shouldAllowRoomsEndpoints() throws Exception {
-        mockMvc.perform(get("/rooms/test")) // Simula GET a /rooms/test
+        mockMvc.perform(get("/rooms/room-by-id/test")) // Simula GET a /rooms/room-by-id/test
                 .andExpect(status().isOk()); // Debe devolver 200 OK
     }
 
     /**
-     * Verifica que los endpoints bajo /bookings/** sean accesibles sin autenticación.
+     * Verifica que la consulta por código de confirmación sea accesible sin autenticación.
      */
     @Test
-    @DisplayName("Should allow /bookings/** without authentication")
+    @DisplayName("Should allow booking lookup by confirmation code without authentication")
     void shouldAllowBookingsEndpoints() throws Exception {
-        mockMvc.perform(get("/bookings/test")) // Simula GET a /bookings/test
+        mockMvc.perform(get("/bookings/get-by-confirmation-code/test")) // Simula GET a la consulta pública
                 .andExpect(status().isOk()); // Debe devolver 200 OK
     }
 
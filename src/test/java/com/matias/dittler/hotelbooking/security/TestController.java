@@ -25,19 +25,19 @@ class TestController {
     }
 
     /**
-     * Endpoint de prueba bajo /rooms/**
-     * Simula un endpoint público accesible sin token.
+     * Endpoint de prueba bajo /rooms/room-by-id/**
+     * Simula una consulta pública de habitaciones accesible sin token.
      */
-    @GetMapping("/rooms/test")
+    @GetMapping("/rooms/room-by-id/test")
     public String roomsEndpoint() {
         return "rooms ok";
     }
 
     /**
-     * Endpoint de prueba bajo /bookings/**
-     * Simula un endpoint público accesible sin token.
+     * Endpoint de prueba bajo /bookings/get-by-confirmation-code/**
+     * Simula la consulta pública de reservas accesible sin token.
      */
-    @GetMapping("/bookings/test")
+    @GetMapping("/bookings/get-by-confirmation-code/test")
     public String bookingsEndpoint() {
         return "bookings ok";
     }
@@ -0,0 +1,118 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.dto.BookingExportRow;
+import com.matias.dittler.hotelbooking.repository.BookingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para BookingExportService
+ *
+ * Verifica el formato NDJSON (un objeto por línea) y que el stream de la
+ * base de datos se cierre al terminar.
+ */
+@ExtendWith(MockitoExtension.class)
+class BookingExportServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @InjectMocks
+    private BookingExportService exportService;
+
+    /**
+     * Testea que cada reserva se escriba en su propia línea.
+     */
+    @Test
+    void shouldWriteOneJsonObjectPerLine() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(bookingRepository.streamAllForExport()).thenReturn(Stream.of(
+                row(1L, "ABC123"), row(2L, "XYZ789")).onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportAll(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"id\":1,\"roomId\":10,\"userId\":20,\"checkInDate\":\"2026-06-07\","
+                + "\"checkOutDate\":\"2026-06-09\",\"numOfAdults\":2,\"numOfChildren\":1,"
+                + "\"totalNumOfGuest\":3,\"bookingConfirmationCode\":\"ABC123\"}", lines[0]);
+        assertTrue(lines[1].startsWith("{\"id\":2,"));
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("}\n"));
+        assertTrue(closed.get());
+    }
+
+    /**
+     * Testea que sin reservas la exportación quede vacía.
+     */
+    @Test
+    void shouldWriteNothingWhenThereAreNoBookings() throws Exception {
+        when(bookingRepository.streamAllForExport()).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportAll(out);
+
+        assertEquals(0, out.size());
+    }
+
+    private static BookingExportRow row(Long id, String code) {
+        return new BookingExportRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getRoomId() {
+                return 10L;
+            }
+
+            @Override
+            public Long getUserId() {
+                return 20L;
+            }
+
+            @Override
+            public LocalDate getCheckInDate() {
+                return LocalDate.of(2026, 6, 7);
+            }
+
+            @Override
+            public LocalDate getCheckOutDate() {
+                return LocalDate.of(2026, 6, 9);
+            }
+
+            @Override
+            public int getNumOfAdults() {
+                return 2;
+            }
+
+            @Override
+            public int getNumOfChildren() {
+                return 1;
+            }
+
+            @Override
+            public int getTotalNumOfGuest() {
+                return 3;
+            }
+
+            @Override
+            public String getBookingConfirmationCode() {
+                return code;
+            }
+        };
+    }
+}
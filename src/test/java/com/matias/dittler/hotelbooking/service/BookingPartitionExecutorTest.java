@@ -0,0 +1,320 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.entity.Booking;
+import com.matias.dittler.hotelbooking.entity.Room;
+import com.matias.dittler.hotelbooking.exception.RoomNotAvailableException;
+import com.matias.dittler.hotelbooking.repository.BookingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para BookingPartitionExecutor
+ *
+ * Verifica que las reservas de una misma habitación se admitan en serie,
+ * que las aceptadas se guarden y que los conflictos de la base se traduzcan
+ * en RoomNotAvailableException liberando el rango en el índice.
+ */
+@ExtendWith(MockitoExtension.class)
+class BookingPartitionExecutorTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // Índice real, sin reservas cargadas desde la base
+    @Spy
+    private RoomAvailabilityIndex availabilityIndex = new RoomAvailabilityIndex();
+
+    @Spy
+    private ConfirmationCodeGenerator codeGenerator = new ConfirmationCodeGenerator();
+
+    @InjectMocks
+    private BookingPartitionExecutor bookingExecutor;
+
+    private LocalDate checkIn;
+
+    /**
+     * Inicia los hilos de las particiones antes de cada test.
+     */
+    @BeforeEach
+    void setUp() {
+        checkIn = LocalDate.now().plusDays(10);
+        bookingExecutor.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        bookingExecutor.shutdown();
+    }
+
+    /**
+     * Testea que de varias solicitudes simultáneas por el mismo rango solo se acepte una.
+     */
+    @Test
+    void shouldAdmitOnlyOneOfConcurrentOverlappingBookings() {
+        List<CompletableFuture<Booking>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(bookingExecutor.submit(1L, booking(checkIn, checkIn.plusDays(2))));
+        }
+
+        int accepted = 0;
+        int rejected = 0;
+        for (CompletableFuture<Booking> result : results) {
+            try {
+                result.join();
+                accepted++;
+            } catch (CompletionException e) {
+                assertInstanceOf(RoomNotAvailableException.class, e.getCause());
+                rejected++;
+            }
+        }
+
+        assertEquals(1, accepted);
+        assertEquals(19, rejected);
+        assertFalse(availabilityIndex.isAvailable(1L, checkIn, checkIn.plusDays(2)));
+    }
+
+    /**
+     * Testea que las reservas de distintas habitaciones se acepten y se guarden.
+     */
+    @Test
+    void shouldSaveBookingsOfDifferentRooms() {
+        List<CompletableFuture<Booking>> results = new ArrayList<>();
+        for (long roomId = 1; roomId <= 10; roomId++) {
+            results.add(bookingExecutor.submit(roomId, booking(checkIn, checkIn.plusDays(2))));
+        }
+
+        results.forEach(CompletableFuture::join);
+
+        for (long roomId = 1; roomId <= 10; roomId++) {
+            assertFalse(availabilityIndex.isAvailable(roomId, checkIn, checkIn.plusDays(2)));
+        }
+    }
+
+    /**
+     * Testea que una violación de la restricción EXCLUDE de la base rechace la reserva
+     * y libere el rango bloqueado en el índice.
+     */
+    @Test
+    void shouldRejectWhenDatabaseReportsOverlap() {
+        when(bookingRepository.saveAll(any())).thenThrow(new DataIntegrityViolationException(
+                "bookings_no_overlap", new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        CompletableFuture<Booking> result = bookingExecutor.submit(1L, booking(checkIn, checkIn.plusDays(2)));
+
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(RoomNotAvailableException.class, e.getCause());
+        assertTrue(availabilityIndex.isAvailable(1L, checkIn, checkIn.plusDays(2)));
+    }
+
+    /**
+     * Testea que un Error al guardar haga fallar el lote, libere el rango
+     * y deje el hilo de la partición atendiendo las siguientes reservas.
+     */
+    @Test
+    void shouldKeepPartitionAliveAfterError() {
+        when(bookingRepository.saveAll(any())).thenThrow(new StackOverflowError()).thenReturn(List.of());
+
+        CompletableFuture<Booking> failed = bookingExecutor.submit(1L, booking(checkIn, checkIn.plusDays(2)));
+        CompletionException e = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(StackOverflowError.class, e.getCause());
+        assertTrue(availabilityIndex.isAvailable(1L, checkIn, checkIn.plusDays(2)));
+
+        assertNotNull(bookingExecutor.submit(1L, booking(checkIn, checkIn.plusDays(2))).join());
+    }
+
+    /**
+     * Testea que un código de confirmación repetido se reemplace por otro y se reintente una vez.
+     */
+    @Test
+    void shouldRetryOnceWithNewCodeWhenCodeIsDuplicated() {
+        when(bookingRepository.saveAll(any())).thenThrow(duplicateCode());
+        Booking booking = booking(checkIn, checkIn.plusDays(2));
+        booking.setBookingConfirmationCode("DUPLICATE0");
+
+        Booking saved = bookingExecutor.submit(1L, booking).join();
+
+        assertNotEquals("DUPLICATE0", saved.getBookingConfirmationCode());
+        verify(bookingRepository).save(booking);
+        assertFalse(availabilityIndex.isAvailable(1L, checkIn, checkIn.plusDays(2)));
+    }
+
+    /**
+     * Testea que si el reintento también falla la reserva se rechace y libere el rango.
+     */
+    @Test
+    void shouldRejectWhenRetryAlsoFails() {
+        when(bookingRepository.saveAll(any())).thenThrow(duplicateCode());
+        when(bookingRepository.save(any(Booking.class))).thenThrow(duplicateCode());
+
+        CompletableFuture<Booking> result = bookingExecutor.submit(1L, booking(checkIn, checkIn.plusDays(2)));
+
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(DataIntegrityViolationException.class, e.getCause());
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+        assertTrue(availabilityIndex.isAvailable(1L, checkIn, checkIn.plusDays(2)));
+    }
+
+    /**
+     * Testea que una solicitud que vence esperando en la cola se cancele sin guardarse.
+     */
+    @Test
+    void shouldCancelBookingThatTimesOutInQueue() throws InterruptedException {
+        restartWithAdmissionTimeout(100);
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookingRepository.saveAll(any())).thenAnswer(invocation -> {
+            saving.countDown();
+            release.await();
+            return List.of();
+        });
+
+        CompletableFuture<Booking> first = bookingExecutor.submit(1L, booking(checkIn, checkIn.plusDays(2)));
+        saving.await();
+        CompletableFuture<Booking> queued = bookingExecutor.submit(1L, booking(checkIn.plusDays(5), checkIn.plusDays(7)));
+
+        CompletionException e = assertThrows(CompletionException.class, queued::join);
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        release.countDown();
+
+        assertNotNull(first.join());
+        // La partición procesa en orden: al admitir la siguiente ya descartó la cancelada
+        assertNotNull(bookingExecutor.submit(1L, booking(checkIn.plusDays(10), checkIn.plusDays(12))).join());
+        verify(bookingRepository, times(2)).saveAll(any());
+        assertTrue(availabilityIndex.isAvailable(1L, checkIn.plusDays(5), checkIn.plusDays(7)));
+    }
+
+    /**
+     * Testea que una solicitud que la partición ya está guardando no venza,
+     * sino que se complete con el resultado real del guardado.
+     */
+    @Test
+    void shouldNotTimeOutBookingAlreadyBeingSaved() {
+        restartWithAdmissionTimeout(50);
+        when(bookingRepository.saveAll(any())).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return List.of();
+        });
+
+        Booking saved = bookingExecutor.submit(1L, booking(checkIn, checkIn.plusDays(2))).join();
+
+        assertNotNull(saved);
+        assertFalse(availabilityIndex.isAvailable(1L, checkIn, checkIn.plusDays(2)));
+    }
+
+    private void restartWithAdmissionTimeout(long timeoutMs) {
+        try {
+            bookingExecutor.shutdown();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        ReflectionTestUtils.setField(bookingExecutor, "admissionTimeoutMs", timeoutMs);
+        bookingExecutor.start();
+    }
+
+    /**
+     * Testea que una violación de otro índice único no se reintente con otro código.
+     */
+    @Test
+    void shouldNotRetryOtherUniqueViolations() {
+        when(bookingRepository.saveAll(any())).thenThrow(new DataIntegrityViolationException("bookings_pkey",
+                new SQLException("duplicate key value violates unique constraint \"bookings_pkey\"", "23505")));
+        Booking booking = booking(checkIn, checkIn.plusDays(2));
+        booking.setBookingConfirmationCode("CODE000000");
+
+        CompletableFuture<Booking> result = bookingExecutor.submit(1L, booking);
+
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(DataIntegrityViolationException.class, e.getCause());
+        assertEquals("CODE000000", booking.getBookingConfirmationCode());
+        verify(bookingRepository, never()).save(any(Booking.class));
+        assertTrue(availabilityIndex.isAvailable(1L, checkIn, checkIn.plusDays(2)));
+    }
+
+    /**
+     * Testea que una retención convertida en reserva también reintente con otro código si el suyo se repite.
+     */
+    @Test
+    void shouldRetryReservedBookingWithNewCode() {
+        when(bookingRepository.saveAll(any())).thenThrow(duplicateCode()).thenReturn(List.of());
+        availabilityIndex.tryReserve(1L, checkIn, checkIn.plusDays(2));
+        Booking booking = booking(checkIn, checkIn.plusDays(2));
+        booking.setBookingConfirmationCode("DUPLICATE0");
+
+        Booking saved = bookingExecutor.admitReserved(1L, booking);
+
+        assertNotEquals("DUPLICATE0", saved.getBookingConfirmationCode());
+        verify(bookingRepository, times(2)).saveAll(any());
+        assertFalse(availabilityIndex.isAvailable(1L, checkIn, checkIn.plusDays(2)));
+    }
+
+    /**
+     * Testea que una reserva grupal con un código repetido reemplace los códigos y se reintente una vez,
+     * y que si vuelve a fallar libere todos los rangos.
+     */
+    @Test
+    void shouldRetryGroupWithNewCodesOnce() {
+        Booking first = booking(checkIn, checkIn.plusDays(2), 1L);
+        Booking second = booking(checkIn, checkIn.plusDays(2), 2L);
+        first.setBookingConfirmationCode("DUPLICATE0");
+        second.setBookingConfirmationCode("DUPLICATE1");
+        when(bookingRepository.saveAll(any())).thenThrow(duplicateCode()).thenReturn(List.of());
+
+        bookingExecutor.admitGroup(List.of(first, second));
+
+        assertNotEquals("DUPLICATE0", first.getBookingConfirmationCode());
+        assertNotEquals("DUPLICATE1", second.getBookingConfirmationCode());
+        assertFalse(availabilityIndex.isAvailable(2L, checkIn, checkIn.plusDays(2)));
+
+        Booking third = booking(checkIn.plusDays(5), checkIn.plusDays(7), 1L);
+        Booking fourth = booking(checkIn.plusDays(5), checkIn.plusDays(7), 2L);
+        when(bookingRepository.saveAll(any())).thenThrow(duplicateCode());
+
+        assertThrows(DataIntegrityViolationException.class, () -> bookingExecutor.admitGroup(List.of(third, fourth)));
+        assertTrue(availabilityIndex.isAvailable(1L, checkIn.plusDays(5), checkIn.plusDays(7)));
+        assertTrue(availabilityIndex.isAvailable(2L, checkIn.plusDays(5), checkIn.plusDays(7)));
+    }
+
+    private static DataIntegrityViolationException duplicateCode() {
+        return new DataIntegrityViolationException("bookings_confirmation_code_key",
+                new SQLException("duplicate key value violates unique constraint \"bookings_confirmation_code_key\"", "23505"));
+    }
+
+    private static Booking booking(LocalDate checkInDate, LocalDate checkOutDate, Long roomId) {
+        Room room = new Room();
+        room.setId(roomId);
+        Booking booking = booking(checkInDate, checkOutDate);
+        booking.setRoom(room);
+        return booking;
+    }
+
+    private static Booking booking(LocalDate checkInDate, LocalDate checkOutDate) {
+        Booking booking = new Booking();
+        booking.setCheckInDate(checkInDate);
+        booking.setCheckOutDate(checkOutDate);
+        return booking;
+    }
+}
@@ -0,0 +1,55 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.repository.BookingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para ConfirmationCodeFilter
+ *
+ * Verifica que el filtro se construya con los códigos de la base
+ * y acompañe las altas y cancelaciones de reservas.
+ */
+@ExtendWith(MockitoExtension.class)
+class ConfirmationCodeFilterTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @InjectMocks
+    private ConfirmationCodeFilter codeFilter;
+
+    /**
+     * Testea que antes de construirse deje pasar todos los códigos.
+     */
+    @Test
+    void shouldPassEverythingBeforeLoading() {
+        assertTrue(codeFilter.mightExist("CUALQUIERA"));
+    }
+
+    /**
+     * Testea que se reconozcan los códigos cargados, creados y cancelados.
+     */
+    @Test
+    void shouldTrackExistingCodes() {
+        when(bookingRepository.findAllConfirmationCodes()).thenReturn(List.of("ABCDEF1234", "ZYXWVU9876"));
+        codeFilter.load();
+
+        assertTrue(codeFilter.mightExist("ABCDEF1234"));
+        assertFalse(codeFilter.mightExist("NOEXISTE01"));
+
+        codeFilter.add("NOEXISTE01");
+        assertTrue(codeFilter.mightExist("NOEXISTE01"));
+
+        codeFilter.remove("ABCDEF1234");
+        assertFalse(codeFilter.mightExist("ABCDEF1234"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.utils.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH: ConfirmationCodeGenerator (un SecureRandom por hilo) contra
+ * Utils.generateRandomConfirmationCode (un SecureRandom compartido), con un
+ * hilo y con 8 hilos generando a la vez.
+ *
+ * No es un test (surefire no lo ejecuta). Se corre con su método main, o
+ * después de "mvn test-compile" con org.openjdk.jmh.Main y el classpath de test:
+ *   java -cp target/test-classes:target/classes:<dependencias> org.openjdk.jmh.Main ConfirmationCodeGeneratorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfirmationCodeGeneratorBenchmark {
+
+    private final ConfirmationCodeGenerator generator = new ConfirmationCodeGenerator();
+
+    @Benchmark
+    @Threads(1)
+    public String generatorSingleThread() {
+        return generator.next();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String generatorEightThreads() {
+        return generator.next();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String secureRandomSingleThread() {
+        return Utils.generateRandomConfirmationCode(ConfirmationCodeGenerator.CODE_LENGTH);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String secureRandomEightThreads() {
+        return Utils.generateRandomConfirmationCode(ConfirmationCodeGenerator.CODE_LENGTH);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConfirmationCodeGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
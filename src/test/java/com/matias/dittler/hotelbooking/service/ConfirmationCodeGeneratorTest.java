@@ -0,0 +1,73 @@
+package com.matias.dittler.hotelbooking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ConfirmationCodeGenerator
+ *
+ * Verifica el formato de los códigos y que no sean consecutivos ni se
+ * repitan al generarse desde muchos hilos a la vez.
+ */
+class ConfirmationCodeGeneratorTest {
+
+    private final ConfirmationCodeGenerator generator = new ConfirmationCodeGenerator();
+
+    /**
+     * Testea que los códigos tengan 10 caracteres del alfabeto Crockford.
+     */
+    @Test
+    void shouldGenerateCrockfordCodes() {
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(generator.next().matches("[0-9A-HJKMNP-TV-Z]{10}"));
+        }
+    }
+
+    /**
+     * Testea que no haya códigos repetidos con 8 hilos generando a la vez.
+     * Con 50 bits aleatorios la probabilidad de una colisión en 400.000
+     * códigos es menor a 1 en 10.000.
+     */
+    @Test
+    void shouldNotRepeatCodesAcrossThreads() throws Exception {
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    codes.add(generator.next());
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(400_000, codes.size());
+    }
+
+    /**
+     * Testea que dos códigos seguidos no compartan un prefijo largo,
+     * como ocurriría con un contador.
+     */
+    @Test
+    void shouldNotGenerateSequentialCodes() {
+        int sharedPrefixes = 0;
+        String previous = generator.next();
+        for (int i = 0; i < 1_000; i++) {
+            String code = generator.next();
+            if (code.regionMatches(0, previous, 0, 5)) {
+                sharedPrefixes++;
+            }
+            previous = code;
+        }
+
+        assertEquals(0, sharedPrefixes);
+    }
+}
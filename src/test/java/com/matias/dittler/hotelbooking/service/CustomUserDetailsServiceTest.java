@@ -2,6 +2,7 @@ package com.matias.dittler.hotelbooking.service;
 
 import com.matias.dittler.hotelbooking.entity.User;
 import com.matias.dittler.hotelbooking.repository.UserRepository;
+import com.matias.dittler.hotelbooking.security.UserPrincipal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -18,7 +19,8 @@ import static org.mockito.Mockito.*;
 /**
  * Tests unitarios para CustomUserDetailsService
  *
- * Verifica la carga de usuarios por email para autenticación con Spring Security.
+ * Verifica la carga de usuarios por email para autenticación con Spring Security
+ * y la caché de usuarios ya cargados.
  */
 class CustomUserDetailsServiceTest {
 
@@ -34,6 +36,7 @@ class CustomUserDetailsServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        customUserDetailsService.init();
     }
 
     /**
@@ -70,4 +73,31 @@ class CustomUserDetailsServiceTest {
                 customUserDetailsService.loadUserByUsername("notfound@example.com")
         );
     }
+
+    /**
+     * Testea que un usuario ya cargado se obtenga de la caché
+     * y que se vuelva a leer de la base después de invalidarlo.
+     */
+    @Test
+    void loadUserByUsername_CachesUntilEvicted() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("test@example.com");
+        user.setPassword("password123");
+        user.setRole("USER");
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        UserDetails first = customUserDetailsService.loadUserByUsername("test@example.com");
+        UserDetails second = customUserDetailsService.loadUserByUsername("test@example.com");
+
+        assertSame(first, second);
+        assertInstanceOf(UserPrincipal.class, first);
+        verify(userRepository, times(1)).findByEmail("test@example.com");
+
+        customUserDetailsService.evictUser(1L);
+        customUserDetailsService.loadUserByUsername("test@example.com");
+
+        verify(userRepository, times(2)).findByEmail("test@example.com");
+    }
 }
@@ -0,0 +1,132 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.dto.Response;
+import com.matias.dittler.hotelbooking.entity.IdempotencyRecord;
+import com.matias.dittler.hotelbooking.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para IdempotencyService
+ *
+ * Verifica que una operación se ejecute una sola vez por clave, que los
+ * errores 5xx no se recuerden y que se usen las respuestas persistidas.
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService.init();
+        executions = new AtomicInteger();
+    }
+
+    /**
+     * Testea que un reintento con la misma clave devuelva la respuesta original sin ejecutar la operación.
+     */
+    @Test
+    void shouldReplayOriginalResponse() {
+        Response first = idempotencyService.execute("user-1", "key-1", "room-1", operation(200, "ABC123"));
+        Response retry = idempotencyService.execute("user-1", "key-1", "room-1", operation(200, "XYZ789"));
+
+        assertEquals(1, executions.get());
+        assertEquals("ABC123", first.getBookingConfirmationCode());
+        assertEquals("ABC123", retry.getBookingConfirmationCode());
+        verify(recordRepository, times(1)).save(any(IdempotencyRecord.class));
+    }
+
+    /**
+     * Testea que la misma clave enviada por otro usuario no colisione.
+     */
+    @Test
+    void shouldScopeKeysPerUser() {
+        idempotencyService.execute("user-1", "key-1", "room-1", operation(200, "ABC123"));
+        Response other = idempotencyService.execute("user-2", "key-1", "room-1", operation(200, "XYZ789"));
+
+        assertEquals(2, executions.get());
+        assertEquals("XYZ789", other.getBookingConfirmationCode());
+    }
+
+    /**
+     * Testea que una clave reutilizada con otros datos se rechace con 422.
+     */
+    @Test
+    void shouldRejectKeyReusedWithDifferentRequest() {
+        idempotencyService.execute("user-1", "key-1", "room-1", operation(200, "ABC123"));
+        Response retry = idempotencyService.execute("user-1", "key-1", "room-2", operation(200, "XYZ789"));
+
+        assertEquals(422, retry.getStatusCode());
+        assertEquals(1, executions.get());
+    }
+
+    /**
+     * Testea que los errores 5xx no se recuerden, para que el reintento vuelva a ejecutar la operación.
+     */
+    @Test
+    void shouldNotRememberServerErrors() {
+        idempotencyService.execute("user-1", "key-1", "room-1", operation(500, null));
+        Response retry = idempotencyService.execute("user-1", "key-1", "room-1", operation(200, "ABC123"));
+
+        assertEquals(2, executions.get());
+        assertEquals(200, retry.getStatusCode());
+    }
+
+    /**
+     * Testea que se use la respuesta persistida antes de un reinicio.
+     */
+    @Test
+    void shouldReplayPersistedResponse() {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setIdempotencyKey("user-1:key-1");
+        record.setRequestFingerprint("room-1");
+        record.setStatusCode(200);
+        record.setBookingConfirmationCode("ABC123");
+        record.setCreatedAt(Instant.now());
+        when(recordRepository.findById("user-1:key-1")).thenReturn(Optional.of(record));
+
+        Response response = idempotencyService.execute("user-1", "key-1", "room-1", operation(200, "XYZ789"));
+
+        assertEquals(0, executions.get());
+        assertEquals("ABC123", response.getBookingConfirmationCode());
+    }
+
+    /**
+     * Testea que se rechacen claves vacías o demasiado largas.
+     */
+    @Test
+    void shouldRejectInvalidKeys() {
+        assertEquals(400, idempotencyService.execute("user-1", " ", "room-1", operation(200, "A")).getStatusCode());
+        assertEquals(400, idempotencyService.execute("user-1", "k".repeat(101), "room-1", operation(200, "A")).getStatusCode());
+        assertEquals(0, executions.get());
+    }
+
+    private Supplier<Response> operation(int statusCode, String confirmationCode) {
+        return () -> {
+            executions.incrementAndGet();
+            Response response = new Response();
+            response.setStatusCode(statusCode);
+            response.setBookingConfirmationCode(confirmationCode);
+            return response;
+        };
+    }
+}
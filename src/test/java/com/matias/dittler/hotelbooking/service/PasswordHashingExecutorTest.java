@@ -0,0 +1,76 @@
+package com.matias.dittler.hotelbooking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para PasswordHashingExecutor
+ *
+ * Verifica que el hash y la verificación de contraseñas se deleguen al
+ * PasswordEncoder y se ejecuten en los hilos del pool.
+ */
+@ExtendWith(MockitoExtension.class)
+class PasswordHashingExecutorTest {
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @InjectMocks
+    private PasswordHashingExecutor passwordHashing;
+
+    @BeforeEach
+    void setUp() {
+        passwordHashing.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashing.shutdown();
+    }
+
+    /**
+     * Testea que la verificación se ejecute en un hilo del pool.
+     */
+    @Test
+    void shouldVerifyOnHashingThread() {
+        when(passwordEncoder.matches("1234", "hash")).thenAnswer(invocation ->
+                Thread.currentThread().getName().startsWith("password-hashing-"));
+
+        assertTrue(passwordHashing.matches("1234", "hash"));
+    }
+
+    /**
+     * Testea que la verificación de un usuario inexistente use el hash fijo generado al iniciar.
+     */
+    @Test
+    void shouldVerifyAgainstDummyHash() {
+        passwordHashing.shutdown();
+        when(passwordEncoder.encode(anyString())).thenReturn("dummy-hash");
+        passwordHashing.start();
+
+        passwordHashing.matchesDummy("1234");
+
+        verify(passwordEncoder).matches("1234", "dummy-hash");
+    }
+
+    /**
+     * Testea que el hash se delegue al PasswordEncoder y que sus errores se propaguen tal cual.
+     */
+    @Test
+    void shouldEncodeAndPropagateErrors() {
+        when(passwordEncoder.encode("1234")).thenReturn("hash");
+        when(passwordEncoder.encode("")).thenThrow(new IllegalArgumentException("vacía"));
+
+        assertEquals("hash", passwordHashing.encode("1234"));
+        assertThrows(IllegalArgumentException.class, () -> passwordHashing.encode(""));
+    }
+}
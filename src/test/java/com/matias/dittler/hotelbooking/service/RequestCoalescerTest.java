@@ -0,0 +1,96 @@
+package com.matias.dittler.hotelbooking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para RequestCoalescer
+ *
+ * Verifica que las consultas idénticas simultáneas se ejecuten una sola vez
+ * y que las consultas distintas o sucesivas no se agrupen.
+ */
+@ExtendWith(MockitoExtension.class)
+class RequestCoalescerTest {
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private RequestCoalescer coalescer;
+
+    /**
+     * Testea que un llamador simultáneo reciba el resultado de la consulta en curso.
+     */
+    @Test
+    void shouldShareInFlightQuery() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() ->
+                coalescer.execute("getRoomById", 1L, () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return "room-1";
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() ->
+                coalescer.execute("getRoomById", 1L, () -> {
+                    executions.incrementAndGet();
+                    return "other";
+                }));
+        // Esperar a que el segundo llamador quede esperando la consulta en curso
+        while (meterRegistry.counter("coalescer.requests", "operation", "getRoomById", "outcome", "shared").count() == 0) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertEquals("room-1", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("room-1", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+    }
+
+    /**
+     * Testea que las consultas sucesivas o con otros argumentos se ejecuten por separado.
+     */
+    @Test
+    void shouldNotShareFinishedOrDifferentQueries() {
+        assertEquals("a", coalescer.execute("getRoomById", 1L, () -> "a"));
+        assertEquals("b", coalescer.execute("getRoomById", 1L, () -> "b"));
+        assertEquals("c", coalescer.execute("getRoomById", 2L, () -> "c"));
+        assertEquals(3.0, meterRegistry.counter("coalescer.requests",
+                "operation", "getRoomById", "outcome", "executed").count());
+    }
+
+    /**
+     * Testea que un error de la consulta llegue al llamador y no quede guardado.
+     */
+    @Test
+    void shouldPropagateFailure() {
+        assertThrows(IllegalStateException.class, () -> coalescer.execute("getRoomById", 1L, () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals("ok", coalescer.execute("getRoomById", 1L, () -> "ok"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
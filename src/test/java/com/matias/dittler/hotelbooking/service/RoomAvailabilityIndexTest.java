@@ -0,0 +1,178 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.dto.BookingPeriod;
+import com.matias.dittler.hotelbooking.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para RoomAvailabilityIndex
+ *
+ * Verifica la detección de solapamientos con rangos semiabiertos
+ * [check-in, check-out), la liberación de rangos y la carga inicial,
+ * tanto dentro del horizonte del calendario de bits como fuera de él.
+ */
+@ExtendWith(MockitoExtension.class)
+class RoomAvailabilityIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @InjectMocks
+    private RoomAvailabilityIndex availabilityIndex;
+
+    private LocalDate base;
+
+    /**
+     * Fecha base común para todos los tests.
+     */
+    @BeforeEach
+    void setUp() {
+        base = LocalDate.of(2030, 1, 10);
+    }
+
+    /**
+     * Testea que se rechacen rangos que se solapan con una estadía existente.
+     */
+    @Test
+    void shouldRejectOverlappingRanges() {
+        assertTrue(availabilityIndex.tryReserve(1L, base, base.plusDays(3)));
+
+        assertFalse(availabilityIndex.isAvailable(1L, base, base.plusDays(3)));
+        assertFalse(availabilityIndex.isAvailable(1L, base.minusDays(2), base.plusDays(1)));
+        assertFalse(availabilityIndex.isAvailable(1L, base.plusDays(1), base.plusDays(2)));
+        assertFalse(availabilityIndex.isAvailable(1L, base.minusDays(1), base.plusDays(5)));
+        assertFalse(availabilityIndex.tryReserve(1L, base.plusDays(2), base.plusDays(6)));
+    }
+
+    /**
+     * Testea que una reserva pueda comenzar el día en que termina otra.
+     */
+    @Test
+    void shouldAllowSameDayTurnover() {
+        assertTrue(availabilityIndex.tryReserve(1L, base, base.plusDays(3)));
+
+        assertTrue(availabilityIndex.tryReserve(1L, base.plusDays(3), base.plusDays(5)));
+        assertTrue(availabilityIndex.tryReserve(1L, base.minusDays(2), base));
+        assertTrue(availabilityIndex.isAvailable(2L, base, base.plusDays(3)));
+    }
+
+    /**
+     * Testea que un rango liberado vuelva a estar disponible.
+     */
+    @Test
+    void shouldReleaseRange() {
+        availabilityIndex.tryReserve(1L, base, base.plusDays(3));
+
+        availabilityIndex.release(1L, base, base.plusDays(3));
+
+        assertTrue(availabilityIndex.isAvailable(1L, base, base.plusDays(3)));
+    }
+
+    /**
+     * Testea la carga inicial de las reservas existentes desde el repositorio.
+     */
+    @Test
+    void shouldLoadExistingBookings() {
+        BookingPeriod period = mock(BookingPeriod.class);
+        when(period.getRoomId()).thenReturn(7L);
+        when(period.getCheckInDate()).thenReturn(base);
+        when(period.getCheckOutDate()).thenReturn(base.plusDays(2));
+        when(bookingRepository.findAllBookingPeriods()).thenReturn(List.of(period));
+
+        availabilityIndex.loadFromRepository();
+
+        assertFalse(availabilityIndex.isAvailable(7L, base.plusDays(1), base.plusDays(4)));
+        assertTrue(availabilityIndex.isAvailable(7L, base.plusDays(2), base.plusDays(4)));
+    }
+
+    /**
+     * Testea las consultas resueltas por el calendario de bits (fechas cercanas).
+     */
+    @Test
+    void shouldAnswerWithinHorizonUsingBitCalendar() {
+        LocalDate today = LocalDate.now();
+        assertTrue(availabilityIndex.tryReserve(1L, today.plusDays(10), today.plusDays(12)));
+
+        assertFalse(availabilityIndex.isAvailable(1L, today.plusDays(11), today.plusDays(15)));
+        assertTrue(availabilityIndex.isAvailable(1L, today.plusDays(12), today.plusDays(15)));
+        // Rango que comienza dentro del horizonte y termina fuera de él
+        assertFalse(availabilityIndex.isAvailable(1L, today.plusDays(5), today.plusYears(4)));
+
+        availabilityIndex.release(1L, today.plusDays(10), today.plusDays(12));
+
+        assertTrue(availabilityIndex.isAvailable(1L, today.plusDays(11), today.plusDays(15)));
+    }
+
+    /**
+     * Testea que la reserva de varios rangos sea todo o nada.
+     */
+    @Test
+    void shouldReserveAllOrNothing() {
+        availabilityIndex.tryReserve(2L, base.plusDays(1), base.plusDays(2));
+
+        assertFalse(availabilityIndex.tryReserveAll(List.of(
+                new RoomAvailabilityIndex.Stay(1L, base, base.plusDays(3)),
+                new RoomAvailabilityIndex.Stay(2L, base, base.plusDays(3)))));
+        assertTrue(availabilityIndex.isAvailable(1L, base, base.plusDays(3)));
+
+        // Dos líneas del mismo pedido que se solapan entre sí
+        assertFalse(availabilityIndex.tryReserveAll(List.of(
+                new RoomAvailabilityIndex.Stay(3L, base, base.plusDays(3)),
+                new RoomAvailabilityIndex.Stay(3L, base.plusDays(2), base.plusDays(4)))));
+
+        assertTrue(availabilityIndex.tryReserveAll(List.of(
+                new RoomAvailabilityIndex.Stay(3L, base, base.plusDays(2)),
+                new RoomAvailabilityIndex.Stay(1L, base, base.plusDays(3)),
+                new RoomAvailabilityIndex.Stay(3L, base.plusDays(2), base.plusDays(4)))));
+        assertFalse(availabilityIndex.isAvailable(1L, base, base.plusDays(3)));
+        assertFalse(availabilityIndex.isAvailable(3L, base.plusDays(3), base.plusDays(4)));
+    }
+
+    /**
+     * Testea que una estadía se pueda mover a un rango que se solapa con el suyo,
+     * pero no a uno ocupado por otra estadía.
+     */
+    @Test
+    void shouldMoveStayExcludingItself() {
+        availabilityIndex.tryReserve(1L, base, base.plusDays(3));
+        availabilityIndex.tryReserve(1L, base.plusDays(5), base.plusDays(7));
+
+        assertTrue(availabilityIndex.tryHoldMove(1L, base, base.plusDays(3), base.plusDays(1), base.plusDays(5)));
+        availabilityIndex.finishMove(1L, base, base.plusDays(3), base.plusDays(1), base.plusDays(5), true);
+        assertTrue(availabilityIndex.isAvailable(1L, base, base.plusDays(1)));
+        assertFalse(availabilityIndex.isAvailable(1L, base.plusDays(4), base.plusDays(5)));
+
+        assertFalse(availabilityIndex.tryHoldMove(1L, base.plusDays(1), base.plusDays(5), base.plusDays(4), base.plusDays(6)));
+        // La estadía queda en su rango anterior
+        assertFalse(availabilityIndex.isAvailable(1L, base.plusDays(1), base.plusDays(2)));
+        assertTrue(availabilityIndex.isAvailable(1L, base, base.plusDays(1)));
+    }
+
+    /**
+     * Testea que durante un cambio de fechas ambos rangos queden ocupados
+     * y que, si el cambio no se guarda, la estadía vuelva a su rango anterior.
+     */
+    @Test
+    void shouldKeepOldRangeUntilMoveFinishes() {
+        availabilityIndex.tryReserve(1L, base, base.plusDays(3));
+
+        assertTrue(availabilityIndex.tryHoldMove(1L, base, base.plusDays(3), base.plusDays(2), base.plusDays(6)));
+        assertFalse(availabilityIndex.tryReserve(1L, base, base.plusDays(1)));
+        assertFalse(availabilityIndex.tryReserve(1L, base.plusDays(5), base.plusDays(6)));
+
+        availabilityIndex.finishMove(1L, base, base.plusDays(3), base.plusDays(2), base.plusDays(6), false);
+        assertFalse(availabilityIndex.isAvailable(1L, base, base.plusDays(3)));
+        assertTrue(availabilityIndex.isAvailable(1L, base.plusDays(3), base.plusDays(6)));
+    }
+}
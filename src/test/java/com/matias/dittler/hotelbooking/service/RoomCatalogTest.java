@@ -0,0 +1,72 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.dto.RoomDTO;
+import com.matias.dittler.hotelbooking.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para RoomCatalog
+ *
+ * Verifica que las lecturas se sirvan desde la instantánea y que cada
+ * reconstrucción publique una versión nueva.
+ */
+@ExtendWith(MockitoExtension.class)
+class RoomCatalogTest {
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @InjectMocks
+    private RoomCatalog roomCatalog;
+
+    /**
+     * Testea que la instantánea se cargue una sola vez y se reutilice.
+     */
+    @Test
+    void shouldServeReadsFromSnapshot() {
+        when(roomRepository.findAllRoomDTOs()).thenReturn(List.of(
+                room(3L, "SUITE"), room(2L, "DOUBLE"), room(1L, "SUITE")));
+
+        RoomCatalog.Snapshot snapshot = roomCatalog.current();
+
+        assertEquals(List.of(3L, 2L, 1L), snapshot.rooms().stream().map(RoomDTO::getId).toList());
+        assertEquals(List.of("SUITE", "DOUBLE"), snapshot.roomTypes());
+        assertEquals("DOUBLE", roomCatalog.findRoom(2L).orElseThrow().getRoomType());
+        assertTrue(roomCatalog.findRoom(9L).isEmpty());
+        assertSame(snapshot, roomCatalog.current());
+        verify(roomRepository, times(1)).findAllRoomDTOs();
+    }
+
+    /**
+     * Testea que una reconstrucción publique los cambios con una versión mayor.
+     */
+    @Test
+    void shouldPublishNewVersionOnRefresh() {
+        when(roomRepository.findAllRoomDTOs())
+                .thenReturn(List.of(room(1L, "SUITE")))
+                .thenReturn(List.of(room(2L, "DOUBLE"), room(1L, "SUITE")));
+
+        RoomCatalog.Snapshot before = roomCatalog.current();
+        RoomCatalog.Snapshot after = roomCatalog.refresh();
+
+        assertTrue(after.version() > before.version());
+        assertNotEquals(before.etag(), after.etag());
+        assertEquals(1, before.rooms().size());
+        assertEquals(2, roomCatalog.current().rooms().size());
+        assertThrows(UnsupportedOperationException.class, () -> after.rooms().clear());
+    }
+
+    private static RoomDTO room(Long id, String roomType) {
+        return new RoomDTO(id, roomType, BigDecimal.valueOf(100), null, null);
+    }
+}
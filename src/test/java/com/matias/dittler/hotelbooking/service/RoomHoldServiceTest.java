@@ -0,0 +1,105 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.exception.RoomNotAvailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para RoomHoldService
+ *
+ * Verifica que una retención bloquee las fechas en el índice, que se pueda
+ * tomar o cancelar una sola vez y que al vencer libere el rango.
+ */
+@ExtendWith(MockitoExtension.class)
+class RoomHoldServiceTest {
+
+    // Índice real, sin reservas cargadas desde la base
+    @Spy
+    private RoomAvailabilityIndex availabilityIndex = new RoomAvailabilityIndex();
+
+    @InjectMocks
+    private RoomHoldService holdService;
+
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+
+    @BeforeEach
+    void setUp() {
+        holdService.start();
+        checkIn = LocalDate.now().plusDays(5);
+        checkOut = checkIn.plusDays(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        holdService.shutdown();
+    }
+
+    /**
+     * Testea que una retención bloquee las fechas para otras reservas y retenciones.
+     */
+    @Test
+    void shouldBlockRangeWhileHeld() {
+        holdService.hold(1L, checkIn, checkOut, null);
+
+        assertFalse(availabilityIndex.isAvailable(1L, checkIn, checkOut));
+        assertThrows(RoomNotAvailableException.class, () -> holdService.hold(1L, checkIn, checkOut, 5));
+    }
+
+    /**
+     * Testea que una retención se pueda tomar una sola vez y que el rango siga bloqueado.
+     */
+    @Test
+    void shouldClaimHoldOnce() {
+        RoomHoldService.Hold hold = holdService.hold(1L, checkIn, checkOut, 5);
+
+        assertTrue(holdService.claim(hold.holdId()).isPresent());
+        assertTrue(holdService.claim(hold.holdId()).isEmpty());
+        assertFalse(availabilityIndex.isAvailable(1L, checkIn, checkOut));
+    }
+
+    /**
+     * Testea que cancelar una retención libere las fechas.
+     */
+    @Test
+    void shouldReleaseHold() {
+        RoomHoldService.Hold hold = holdService.hold(1L, checkIn, checkOut, 5);
+
+        assertTrue(holdService.release(hold.holdId()));
+
+        assertTrue(availabilityIndex.isAvailable(1L, checkIn, checkOut));
+        assertFalse(holdService.release(hold.holdId()));
+    }
+
+    /**
+     * Testea que una retención vencida libere las fechas y ya no se pueda tomar.
+     */
+    @Test
+    void shouldExpireHold() {
+        RoomHoldService.Hold hold = holdService.hold(1L, checkIn, checkOut, 5);
+
+        holdService.expireDue(hold.expiresAt().toEpochMilli() + 1_000);
+
+        assertTrue(availabilityIndex.isAvailable(1L, checkIn, checkOut));
+        assertTrue(holdService.claim(hold.holdId()).isEmpty());
+        assertEquals(0, holdService.activeHolds());
+    }
+
+    /**
+     * Testea que se rechacen duraciones fuera del rango permitido.
+     */
+    @Test
+    void shouldRejectInvalidDuration() {
+        assertThrows(IllegalArgumentException.class, () -> holdService.hold(1L, checkIn, checkOut, 0));
+        assertThrows(IllegalArgumentException.class, () -> holdService.hold(1L, checkIn, checkOut, 31));
+    }
+}
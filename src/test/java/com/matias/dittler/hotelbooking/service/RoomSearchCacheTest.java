@@ -0,0 +1,125 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.dto.RoomDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para RoomSearchCache
+ *
+ * Verifica que las búsquedas repetidas se sirvan desde la caché y que solo
+ * se descarten las afectadas por una reserva o cancelación.
+ */
+@ExtendWith(MockitoExtension.class)
+class RoomSearchCacheTest {
+
+    // Índice de disponibilidad real, que notifica a la caché
+    @Spy
+    private RoomAvailabilityIndex availabilityIndex = new RoomAvailabilityIndex();
+
+    @Mock
+    private RoomSearchIndex searchIndex;
+
+    @InjectMocks
+    private RoomSearchCache searchCache;
+
+    private LocalDate checkIn;
+
+    private final AtomicInteger searches = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        searchCache.init();
+        checkIn = LocalDate.now().plusDays(5);
+    }
+
+    /**
+     * Testea que una búsqueda repetida no se vuelva a ejecutar.
+     */
+    @Test
+    void shouldServeRepeatedSearchFromCache() {
+        List<RoomDTO> first = search(checkIn, checkIn.plusDays(2), "SUITE");
+        List<RoomDTO> second = search(checkIn, checkIn.plusDays(2), "SUITE");
+
+        assertSame(first, second);
+        assertEquals(1, searches.get());
+    }
+
+    /**
+     * Testea que una reserva descarte solo las búsquedas superpuestas del mismo tipo.
+     */
+    @Test
+    void shouldInvalidateOnlyOverlappingSearchesOfSameType() {
+        when(searchIndex.roomTypeOf(1L)).thenReturn("SUITE");
+        search(checkIn, checkIn.plusDays(2), "SUITE");
+        search(checkIn.plusDays(10), checkIn.plusDays(12), "SUITE");
+        search(checkIn, checkIn.plusDays(2), "DOUBLE");
+
+        availabilityIndex.tryReserve(1L, checkIn.plusDays(1), checkIn.plusDays(3));
+        searches.set(0);
+
+        search(checkIn, checkIn.plusDays(2), "SUITE");
+        assertEquals(1, searches.get());
+        search(checkIn.plusDays(10), checkIn.plusDays(12), "SUITE");
+        search(checkIn, checkIn.plusDays(2), "DOUBLE");
+        assertEquals(1, searches.get());
+
+        availabilityIndex.release(1L, checkIn.plusDays(1), checkIn.plusDays(3));
+        search(checkIn, checkIn.plusDays(2), "SUITE");
+        assertEquals(2, searches.get());
+    }
+
+    /**
+     * Testea que un resultado calculado mientras llega una reserva no se guarde.
+     */
+    @Test
+    void shouldNotStoreResultComputedDuringWrite() {
+        when(searchIndex.roomTypeOf(1L)).thenReturn("SUITE");
+        Supplier<List<RoomDTO>> racingSearch = () -> {
+            searches.incrementAndGet();
+            availabilityIndex.tryReserve(1L, checkIn, checkIn.plusDays(1));
+            return List.of();
+        };
+
+        searchCache.get(checkIn, checkIn.plusDays(2), "SUITE", racingSearch);
+        search(checkIn, checkIn.plusDays(2), "SUITE");
+
+        assertEquals(2, searches.get());
+    }
+
+    /**
+     * Testea que si se acumulan demasiados cambios sin lecturas se descarte toda la caché.
+     */
+    @Test
+    void shouldInvalidateEverythingWhenTooManyChangesPending() {
+        search(checkIn.plusDays(100), checkIn.plusDays(102), "SUITE");
+
+        for (int i = 0; i < 600; i++) {
+            availabilityIndex.tryReserve(2L, checkIn, checkIn.plusDays(1));
+            availabilityIndex.release(2L, checkIn, checkIn.plusDays(1));
+        }
+        search(checkIn.plusDays(100), checkIn.plusDays(102), "SUITE");
+
+        assertEquals(2, searches.get());
+    }
+
+    private List<RoomDTO> search(LocalDate in, LocalDate out, String roomType) {
+        return searchCache.get(in, out, roomType, () -> {
+            searches.incrementAndGet();
+            return List.of(new RoomDTO());
+        });
+    }
+}
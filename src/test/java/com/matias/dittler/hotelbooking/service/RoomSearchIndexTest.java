@@ -0,0 +1,156 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.dto.RoomSummary;
+import com.matias.dittler.hotelbooking.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para RoomSearchIndex
+ *
+ * Verifica que la búsqueda combine correctamente los bitmaps por tipo
+ * con la ocupación recibida del índice de disponibilidad.
+ */
+@ExtendWith(MockitoExtension.class)
+class RoomSearchIndexTest {
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    // Índice de disponibilidad real, sin reservas cargadas desde la base
+    @Spy
+    private RoomAvailabilityIndex availabilityIndex = new RoomAvailabilityIndex();
+
+    @InjectMocks
+    private RoomSearchIndex searchIndex;
+
+    private LocalDate checkIn;
+
+    /**
+     * Carga dos suites y una habitación doble en el índice.
+     */
+    @BeforeEach
+    void setUp() {
+        when(roomRepository.findAllRoomSummaries()).thenReturn(List.of(
+                summary(1L, "SUITE"), summary(2L, "SUITE"), summary(3L, "DOUBLE")));
+        searchIndex.load();
+        checkIn = LocalDate.now().plusDays(5);
+    }
+
+    /**
+     * Testea que se excluyan las habitaciones ocupadas en alguna noche del rango.
+     */
+    @Test
+    void shouldExcludeOccupiedRooms() {
+        availabilityIndex.tryReserve(1L, checkIn.plusDays(1), checkIn.plusDays(2));
+
+        assertEquals(List.of(2L), searchIndex.findAvailableRoomIds(checkIn, checkIn.plusDays(3), "SUITE"));
+        assertEquals(List.of(1L, 2L), searchIndex.findAvailableRoomIds(checkIn.plusDays(2), checkIn.plusDays(3), "SUITE"));
+        assertEquals(List.of(3L), searchIndex.findAvailableRoomIds(checkIn, checkIn.plusDays(3), "DOUBLE"));
+    }
+
+    /**
+     * Testea que las cancelaciones y los cambios de tipo se reflejen en la búsqueda.
+     */
+    @Test
+    void shouldReflectReleasesAndTypeChanges() {
+        availabilityIndex.tryReserve(1L, checkIn, checkIn.plusDays(2));
+        availabilityIndex.release(1L, checkIn, checkIn.plusDays(2));
+        searchIndex.putRoom(2L, "DOUBLE");
+
+        assertEquals(List.of(1L), searchIndex.findAvailableRoomIds(checkIn, checkIn.plusDays(2), "SUITE"));
+        assertEquals(List.of(2L, 3L), searchIndex.findAvailableRoomIds(checkIn, checkIn.plusDays(2), "DOUBLE"));
+    }
+
+    /**
+     * Testea que las habitaciones eliminadas dejen de aparecer en la búsqueda.
+     */
+    @Test
+    void shouldForgetRemovedRooms() {
+        availabilityIndex.removeRoom(2L);
+
+        assertEquals(List.of(1L), searchIndex.findAvailableRoomIds(checkIn, checkIn.plusDays(2), "SUITE"));
+        assertFalse(searchIndex.canAnswer(LocalDate.now().minusDays(3)));
+    }
+
+    /**
+     * Testea que un tipo nulo no coincida con ninguna habitación y uno vacío con todas,
+     * como la consulta LIKE %tipo% de la base.
+     */
+    @Test
+    void shouldMatchLikeQueryForNullAndBlankType() {
+        assertEquals(List.of(), searchIndex.findAvailableRoomIds(checkIn, checkIn.plusDays(2), null));
+        assertEquals(List.of(1L, 2L, 3L), searchIndex.findAvailableRoomIds(checkIn, checkIn.plusDays(2), ""));
+    }
+
+    /**
+     * Testea que el índice tome el día actual del mismo reloj (UTC) que RoomAvailabilityIndex.
+     */
+    @Test
+    void shouldUseAvailabilityIndexDay() {
+        Instant lateNightUtc = Instant.parse("2026-03-10T23:30:00Z");
+        ReflectionTestUtils.setField(availabilityIndex, "clock", Clock.fixed(lateNightUtc, ZoneOffset.UTC));
+
+        assertTrue(searchIndex.canAnswer(LocalDate.of(2026, 3, 9)));
+        assertFalse(searchIndex.canAnswer(LocalDate.of(2026, 3, 8)));
+
+        // Las noches anteriores a ayer (UTC) no se indexan
+        availabilityIndex.tryReserve(1L, LocalDate.of(2026, 3, 8), LocalDate.of(2026, 3, 10));
+        assertEquals(List.of(2L), searchIndex.findAvailableRoomIds(LocalDate.of(2026, 3, 9), LocalDate.of(2026, 3, 10), "SUITE"));
+        assertEquals(List.of(1L, 2L), searchIndex.findAvailableRoomIds(LocalDate.of(2026, 3, 8), LocalDate.of(2026, 3, 9), "SUITE"));
+    }
+
+    /**
+     * Testea que reservas simultáneas de distintas habitaciones sobre las mismas noches
+     * no pierdan actualizaciones al publicar las copias de cada noche.
+     */
+    @Test
+    void shouldNotLoseConcurrentOccupancyOfDifferentRooms() throws InterruptedException {
+        int rooms = 64;
+        for (long roomId = 10; roomId < 10 + rooms; roomId++) {
+            searchIndex.putRoom(roomId, "FAMILY");
+        }
+
+        Thread[] threads = new Thread[rooms];
+        for (int i = 0; i < rooms; i++) {
+            long roomId = 10 + i;
+            threads[i] = new Thread(() -> availabilityIndex.tryReserve(roomId, checkIn, checkIn.plusDays(3)));
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(List.of(), searchIndex.findAvailableRoomIds(checkIn, checkIn.plusDays(3), "FAMILY"));
+        assertEquals(rooms, searchIndex.findAvailableRoomIds(checkIn.plusDays(3), checkIn.plusDays(4), "FAMILY").size());
+    }
+
+    private static RoomSummary summary(Long id, String roomType) {
+        return new RoomSummary() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getRoomType() {
+                return roomType;
+            }
+        };
+    }
+}
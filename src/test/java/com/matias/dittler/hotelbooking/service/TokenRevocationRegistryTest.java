@@ -0,0 +1,97 @@
+package com.matias.dittler.hotelbooking.service;
+
+import com.matias.dittler.hotelbooking.dto.UserRoleSummary;
+import com.matias.dittler.hotelbooking.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para TokenRevocationRegistry
+ *
+ * Verifica que los claims de un token se consideren vigentes solo mientras
+ * el usuario exista con el mismo rol.
+ */
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationRegistryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @InjectMocks
+    private TokenRevocationRegistry registry;
+
+    /**
+     * Carga un usuario y un administrador en el registro.
+     */
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findAllUserRoles()).thenReturn(List.of(summary(1L, "USER"), summary(2L, "ADMIN")));
+        registry.refresh();
+    }
+
+    /**
+     * Testea que solo el rol registrado se considere vigente.
+     */
+    @Test
+    void shouldAcceptOnlyCurrentRole() {
+        assertEquals(TokenRevocationRegistry.Status.CURRENT, registry.check(1L, "USER"));
+        assertEquals(TokenRevocationRegistry.Status.STALE, registry.check(1L, "ADMIN"));
+        assertEquals(TokenRevocationRegistry.Status.STALE, registry.check(3L, "USER"));
+
+        registry.userSaved(3L, "USER");
+        assertEquals(TokenRevocationRegistry.Status.CURRENT, registry.check(3L, "USER"));
+    }
+
+    /**
+     * Testea que los usuarios eliminados queden revocados aunque un refresco los vuelva a leer.
+     */
+    @Test
+    void shouldRevokeDeletedUsers() {
+        registry.userDeleted(2L);
+        registry.refresh();
+
+        assertEquals(TokenRevocationRegistry.Status.REVOKED, registry.check(2L, "ADMIN"));
+        verify(userDetailsService).evictUser(2L);
+    }
+
+    /**
+     * Testea que los cambios de rol hechos en la base se detecten al refrescar.
+     */
+    @Test
+    void shouldDetectRoleChangesOnRefresh() {
+        when(userRepository.findAllUserRoles()).thenReturn(List.of(summary(1L, "ADMIN")));
+        registry.refresh();
+
+        assertEquals(TokenRevocationRegistry.Status.STALE, registry.check(1L, "USER"));
+        assertEquals(TokenRevocationRegistry.Status.CURRENT, registry.check(1L, "ADMIN"));
+        assertEquals(TokenRevocationRegistry.Status.STALE, registry.check(2L, "ADMIN"));
+        verify(userDetailsService).evictUser(1L);
+        verify(userDetailsService).evictUser(2L);
+    }
+
+    private static UserRoleSummary summary(Long id, String role) {
+        return new UserRoleSummary() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getRole() {
+                return role;
+            }
+        };
+    }
+}
@@ -1,21 +1,40 @@
 package com.matias.dittler.hotelbooking.service.implementation;
 
+import com.matias.dittler.hotelbooking.dto.BookingDTO;
+import com.matias.dittler.hotelbooking.dto.DateChangeRequest;
+import com.matias.dittler.hotelbooking.dto.GroupBookingLine;
+import com.matias.dittler.hotelbooking.dto.GroupBookingRequest;
 import com.matias.dittler.hotelbooking.entity.Booking;
 import com.matias.dittler.hotelbooking.entity.Room;
 import com.matias.dittler.hotelbooking.entity.User;
 import com.matias.dittler.hotelbooking.repository.BookingRepository;
 import com.matias.dittler.hotelbooking.repository.RoomRepository;
 import com.matias.dittler.hotelbooking.repository.UserRepository;
+import com.matias.dittler.hotelbooking.exception.RoomNotAvailableException;
+import com.matias.dittler.hotelbooking.service.BookingPartitionExecutor;
+import com.matias.dittler.hotelbooking.service.ConfirmationCodeFilter;
+import com.matias.dittler.hotelbooking.service.ConfirmationCodeGenerator;
+import com.matias.dittler.hotelbooking.service.IdempotencyService;
+import com.matias.dittler.hotelbooking.service.RequestCoalescer;
+import com.matias.dittler.hotelbooking.service.RoomAvailabilityIndex;
+import com.matias.dittler.hotelbooking.service.RoomHoldService;
 import com.matias.dittler.hotelbooking.dto.Response;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -26,6 +45,8 @@ import static org.mockito.Mockito.*;
  * - Manejo de room/user inexistentes
  * - Guardado exitoso
  * - Validación de fechas de check-in/check-out
+ * - Rechazo de reservas que se solapan
+ * - Reservas grupales (todo o nada)
  */
 @ExtendWith(MockitoExtension.class)
 class BookingServiceTest {
@@ -39,6 +60,31 @@ class BookingServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    // Índice real (sin cargar desde la base) para validar la disponibilidad
+    @Spy
+    private RoomAvailabilityIndex availabilityIndex = new RoomAvailabilityIndex();
+
+    // Ejecutor simulado: admite la reserva en el mismo hilo usando el índice real
+    @Mock
+    private BookingPartitionExecutor bookingExecutor;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private RoomHoldService holdService;
+
+    // Agrupador real: sin llamadas simultáneas, ejecuta cada consulta
+    @Spy
+    private RequestCoalescer coalescer = new RequestCoalescer();
+
+    // Filtro real sin construir: deja pasar todos los códigos a la base
+    @Spy
+    private ConfirmationCodeFilter codeFilter = new ConfirmationCodeFilter();
+
+    @Spy
+    private ConfirmationCodeGenerator codeGenerator = new ConfirmationCodeGenerator();
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -59,6 +105,15 @@ class BookingServiceTest {
         room.setBookings(new ArrayList<>());
 
         user = new User();
+
+        lenient().when(bookingExecutor.submit(anyLong(), any(Booking.class))).thenAnswer(invocation -> {
+            Long roomId = invocation.getArgument(0);
+            Booking request = invocation.getArgument(1);
+            if (!availabilityIndex.tryReserve(roomId, request.getCheckInDate(), request.getCheckOutDate())) {
+                return CompletableFuture.failedFuture(new RoomNotAvailableException("Habitación no disponible"));
+            }
+            return CompletableFuture.completedFuture(bookingRepository.save(request));
+        });
     }
 
     /**
@@ -112,4 +167,283 @@ class BookingServiceTest {
 
         assertEquals(500, response.getStatusCode());
     }
+
+    /**
+     * Testea que se devuelva 409 si la habitación ya está ocupada en esas fechas.
+     */
+    @Test
+    void shouldReturn409WhenRoomNotAvailable() {
+        when(roomRepository.findById(1L)).thenReturn(Optional.of(room));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        availabilityIndex.tryReserve(1L, LocalDate.now().plusDays(2), LocalDate.now().plusDays(5));
+
+        Response response = bookingService.saveBooking(1L, 1L, booking);
+
+        assertEquals(409, response.getStatusCode());
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    /**
+     * Testea que se devuelva 503 si la partición rechaza la reserva o no la admite a tiempo.
+     */
+    @Test
+    void shouldReturn503WhenAdmissionRejectedOrTimedOut() {
+        when(roomRepository.findById(1L)).thenReturn(Optional.of(room));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(bookingExecutor.submit(anyLong(), any(Booking.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("Cola de reservas llena")))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+
+        assertEquals(503, bookingService.saveBooking(1L, 1L, booking).getStatusCode());
+        assertEquals(503, bookingService.saveBooking(1L, 1L, booking).getStatusCode());
+    }
+
+    /**
+     * Testea que una reserva grupal devuelva una reserva con código por cada habitación.
+     */
+    @Test
+    void shouldSaveGroupBookingSuccessfully() {
+        Room secondRoom = new Room();
+        room.setId(1L);
+        secondRoom.setId(2L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(roomRepository.findAllById(anySet())).thenReturn(List.of(room, secondRoom));
+        when(bookingExecutor.admitGroup(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Response response = bookingService.saveGroupBooking(groupRequest(1L, 2L));
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(2, response.getBookingList().size());
+        response.getBookingList().forEach(dto -> assertNotNull(dto.getBookingConfirmationCode()));
+    }
+
+    /**
+     * Testea que se devuelva 409 si alguna habitación del grupo no está disponible.
+     */
+    @Test
+    void shouldReturn409WhenAnyGroupRoomNotAvailable() {
+        Room secondRoom = new Room();
+        room.setId(1L);
+        secondRoom.setId(2L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(roomRepository.findAllById(anySet())).thenReturn(List.of(room, secondRoom));
+        when(bookingExecutor.admitGroup(anyList())).thenThrow(new RoomNotAvailableException("Habitación no disponible"));
+
+        Response response = bookingService.saveGroupBooking(groupRequest(1L, 2L));
+
+        assertEquals(409, response.getStatusCode());
+    }
+
+    /**
+     * Testea que se devuelva 404 si alguna habitación del grupo no existe.
+     */
+    @Test
+    void shouldReturn404WhenAnyGroupRoomNotFound() {
+        room.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(roomRepository.findAllById(anySet())).thenReturn(List.of(room));
+
+        Response response = bookingService.saveGroupBooking(groupRequest(1L, 2L));
+
+        assertEquals(404, response.getStatusCode());
+        verify(bookingExecutor, never()).admitGroup(anyList());
+    }
+
+    /**
+     * Testea que una retención se convierta en reserva con sus fechas y su habitación.
+     */
+    @Test
+    void shouldSaveBookingFromHold() {
+        RoomHoldService.Hold hold = new RoomHoldService.Hold("hold-1", 1L,
+                LocalDate.now().plusDays(4), LocalDate.now().plusDays(6), Instant.now().plusSeconds(600));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(holdService.claim("hold-1")).thenReturn(Optional.of(hold));
+        when(roomRepository.findById(1L)).thenReturn(Optional.of(room));
+
+        Response response = bookingService.saveBookingFromHold("hold-1", 1L, booking);
+
+        assertEquals(200, response.getStatusCode());
+        assertNotNull(response.getBookingConfirmationCode());
+        assertEquals(hold.checkInDate(), booking.getCheckInDate());
+        verify(bookingExecutor).admitReserved(1L, booking);
+    }
+
+    /**
+     * Testea que si el ejecutor reemplazó el código repetido se devuelva y registre el código guardado.
+     */
+    @Test
+    void shouldReturnReplacedCodeWhenSavingFromHold() {
+        RoomHoldService.Hold hold = new RoomHoldService.Hold("hold-1", 1L,
+                LocalDate.now().plusDays(4), LocalDate.now().plusDays(6), Instant.now().plusSeconds(600));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(holdService.claim("hold-1")).thenReturn(Optional.of(hold));
+        when(roomRepository.findById(1L)).thenReturn(Optional.of(room));
+        when(bookingExecutor.admitReserved(1L, booking)).thenAnswer(invocation -> {
+            booking.setBookingConfirmationCode("REPLACED00");
+            return booking;
+        });
+
+        Response response = bookingService.saveBookingFromHold("hold-1", 1L, booking);
+
+        assertEquals("REPLACED00", response.getBookingConfirmationCode());
+        verify(codeFilter).add("REPLACED00");
+    }
+
+    /**
+     * Testea que se devuelva 404 si la retención no existe o ya venció.
+     */
+    @Test
+    void shouldReturn404WhenHoldExpired() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(holdService.claim("hold-1")).thenReturn(Optional.empty());
+
+        Response response = bookingService.saveBookingFromHold("hold-1", 1L, booking);
+
+        assertEquals(404, response.getStatusCode());
+        verify(bookingExecutor, never()).admitReserved(anyLong(), any(Booking.class));
+    }
+
+    /**
+     * Testea que de dos cancelaciones de la misma reserva solo la que la eliminó
+     * quite el código del filtro y libere el rango.
+     */
+    @Test
+    void shouldRemoveCodeOnlyOnceOnDoubleCancel() {
+        room.setId(1L);
+        booking.setId(7L);
+        booking.setRoom(room);
+        booking.setBookingConfirmationCode("CODE000001");
+        when(bookingRepository.findById(7L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.deleteBookingById(7L)).thenReturn(1).thenReturn(0);
+
+        assertEquals(200, bookingService.cancelBooking(7L).getStatusCode());
+        assertEquals(404, bookingService.cancelBooking(7L).getStatusCode());
+
+        verify(codeFilter, times(1)).remove("CODE000001");
+        verify(availabilityIndex, times(1)).release(1L, booking.getCheckInDate(), booking.getCheckOutDate());
+    }
+
+    /**
+     * Testea que el cambio de fechas devuelva la reserva actualizada.
+     */
+    @Test
+    void shouldUpdateBookingDates() {
+        booking.setRoom(room);
+        DateChangeRequest dateChange = dateChange(LocalDate.now().plusDays(2), LocalDate.now().plusDays(5));
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        when(bookingExecutor.admitDateChange(booking, dateChange.getCheckInDate(), dateChange.getCheckOutDate()))
+                .thenAnswer(invocation -> {
+                    booking.setCheckInDate(invocation.getArgument(1));
+                    booking.setCheckOutDate(invocation.getArgument(2));
+                    return booking;
+                });
+
+        Response response = bookingService.updateBookingDates(1L, dateChange);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(dateChange.getCheckOutDate(), response.getBooking().getCheckOutDate());
+    }
+
+    /**
+     * Testea que se devuelva 409 si las nuevas fechas están ocupadas por otra reserva.
+     */
+    @Test
+    void shouldReturn409WhenNewDatesNotAvailable() {
+        booking.setRoom(room);
+        DateChangeRequest dateChange = dateChange(LocalDate.now().plusDays(2), LocalDate.now().plusDays(5));
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        when(bookingExecutor.admitDateChange(any(Booking.class), any(LocalDate.class), any(LocalDate.class)))
+                .thenThrow(new RoomNotAvailableException("Habitación no disponible"));
+
+        Response response = bookingService.updateBookingDates(1L, dateChange);
+
+        assertEquals(409, response.getStatusCode());
+    }
+
+    private static DateChangeRequest dateChange(LocalDate checkIn, LocalDate checkOut) {
+        DateChangeRequest request = new DateChangeRequest();
+        request.setCheckInDate(checkIn);
+        request.setCheckOutDate(checkOut);
+        return request;
+    }
+
+    private static GroupBookingRequest groupRequest(Long... roomIds) {
+        List<GroupBookingLine> lines = new ArrayList<>();
+        for (Long roomId : roomIds) {
+            GroupBookingLine line = new GroupBookingLine();
+            line.setRoomId(roomId);
+            line.setCheckInDate(LocalDate.now().plusDays(1));
+            line.setCheckOutDate(LocalDate.now().plusDays(3));
+            line.setNumOfAdults(2);
+            lines.add(line);
+        }
+        GroupBookingRequest request = new GroupBookingRequest();
+        request.setUserId(1L);
+        request.setBookings(lines);
+        return request;
+    }
+
+    /**
+     * Testea que el listado devuelva una página y el cursor para continuar.
+     */
+    @Test
+    void shouldPageBookingsWithCursor() {
+        List<BookingDTO> page = new ArrayList<>();
+        for (long id = 30; id > 27; id--) {
+            BookingDTO bookingDTO = new BookingDTO();
+            bookingDTO.setId(id);
+            page.add(bookingDTO);
+        }
+        when(bookingRepository.findPageBefore(Long.MAX_VALUE, Limit.of(3))).thenReturn(page);
+
+        Response first = bookingService.getAllBookings(null, 2);
+
+        assertEquals(200, first.getStatusCode());
+        assertEquals(2, first.getBookingList().size());
+        assertNotNull(first.getNextCursor());
+
+        when(bookingRepository.findPageBefore(29L, Limit.of(3))).thenReturn(page.subList(2, 3));
+
+        Response second = bookingService.getAllBookings(first.getNextCursor(), 2);
+
+        assertEquals(1, second.getBookingList().size());
+        assertNull(second.getNextCursor());
+    }
+
+    /**
+     * Testea que un cursor inválido devuelva 400.
+     */
+    @Test
+    void shouldReturn400WhenCursorIsInvalid() {
+        assertEquals(400, bookingService.getAllBookings("no-es-un-cursor", null).getStatusCode());
+    }
+
+    /**
+     * Testea que un código descartado por el filtro devuelva 404 sin consultar la base.
+     */
+    @Test
+    void shouldRejectUnknownConfirmationCodeWithoutQuery() {
+        doReturn(false).when(codeFilter).mightExist("NOEXISTE01");
+
+        Response response = bookingService.findBookingByConfirmationCode("NOEXISTE01");
+
+        assertEquals(404, response.getStatusCode());
+        verify(bookingRepository, never()).findByBookingConfirmationCode(any());
+    }
+
+    /**
+     * Testea que el código de una reserva nueva se agregue al filtro.
+     */
+    @Test
+    void shouldAddConfirmationCodeToFilterOnSave() {
+        when(roomRepository.findById(1L)).thenReturn(Optional.of(room));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+
+        Response response = bookingService.saveBooking(1L, 1L, booking);
+
+        assertEquals(200, response.getStatusCode());
+        verify(codeFilter).add(response.getBookingConfirmationCode());
+    }
 }
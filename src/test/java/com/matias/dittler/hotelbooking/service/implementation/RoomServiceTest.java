@@ -1,21 +1,39 @@
 package com.matias.dittler.hotelbooking.service.implementation;
 
+import com.matias.dittler.hotelbooking.dto.HoldRequest;
+import com.matias.dittler.hotelbooking.dto.RoomDTO;
+import com.matias.dittler.hotelbooking.dto.BookingDTO;
 import com.matias.dittler.hotelbooking.entity.Room;
+import com.matias.dittler.hotelbooking.exception.RoomNotAvailableException;
 import com.matias.dittler.hotelbooking.repository.BookingRepository;
 import com.matias.dittler.hotelbooking.repository.RoomRepository;
 import com.matias.dittler.hotelbooking.service.R2StorageService;
+import com.matias.dittler.hotelbooking.service.RequestCoalescer;
+import com.matias.dittler.hotelbooking.service.RoomAvailabilityIndex;
+import com.matias.dittler.hotelbooking.service.RoomCatalog;
+import com.matias.dittler.hotelbooking.service.RoomHoldService;
+import com.matias.dittler.hotelbooking.service.RoomSearchCache;
+import com.matias.dittler.hotelbooking.service.RoomSearchIndex;
 import com.matias.dittler.hotelbooking.dto.Response;
+import com.matias.dittler.hotelbooking.utils.Utils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -42,6 +60,30 @@ class RoomServiceTest {
     @Mock
     private R2StorageService rStorageService;
 
+    // Simulamos el índice de disponibilidad en memoria
+    @Mock
+    private RoomAvailabilityIndex availabilityIndex;
+
+    // Simulamos el índice de búsqueda por fecha y tipo
+    @Mock
+    private RoomSearchIndex searchIndex;
+
+    // Simulamos las retenciones temporales
+    @Mock
+    private RoomHoldService holdService;
+
+    // Simulamos la instantánea del catálogo
+    @Mock
+    private RoomCatalog roomCatalog;
+
+    // Simulamos la caché de búsquedas
+    @Mock
+    private RoomSearchCache searchCache;
+
+    // Agrupador real: sin llamadas simultáneas, ejecuta cada consulta
+    @Spy
+    private RequestCoalescer coalescer = new RequestCoalescer();
+
     // Inyectamos los mocks dentro de RoomService
     @InjectMocks
     private RoomService roomService;
@@ -80,6 +122,7 @@ class RoomServiceTest {
 
         assertEquals(200, response.getStatusCode());
         verify(roomRepository, times(1)).save(any(Room.class));
+        verify(roomCatalog).refresh();
     }
 
     /**
@@ -106,6 +149,7 @@ class RoomServiceTest {
 
         assertEquals(200, response.getStatusCode());
         verify(roomRepository, times(1)).deleteById(1L);
+        verify(roomCatalog).refresh();
     }
 
     /**
@@ -152,4 +196,148 @@ class RoomServiceTest {
 
         assertEquals(404, response.getStatusCode());
     }
+
+    /**
+     * Test que verifica que el listado se sirva desde la instantánea del catálogo
+     * y lleve su versión.
+     */
+    @Test
+    void shouldReturnAllRoomsFromCatalog() {
+        RoomDTO roomDTO = new RoomDTO();
+        roomDTO.setId(1L);
+        when(roomCatalog.current()).thenReturn(
+                new RoomCatalog.Snapshot(7L, List.of(roomDTO), List.of("DELUXE"), Map.of(1L, roomDTO)));
+
+        Response response = roomService.getAllRooms(null, null);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(1, response.getRoomList().size());
+        assertEquals(7L, response.getCatalogVersion());
+        verify(roomRepository, never()).findAllRoomDTOs();
+    }
+
+    /**
+     * Test que verifica que el listado de habitaciones se pagine con el cursor.
+     */
+    @Test
+    void shouldPageRoomsWithCursor() {
+        List<RoomDTO> rooms = new ArrayList<>();
+        for (long id = 3; id > 0; id--) {
+            RoomDTO roomDTO = new RoomDTO();
+            roomDTO.setId(id);
+            rooms.add(roomDTO);
+        }
+        when(roomCatalog.current()).thenReturn(new RoomCatalog.Snapshot(1L, rooms, List.of(), Map.of()));
+
+        Response first = roomService.getAllRooms(null, 2);
+        Response second = roomService.getAllRooms(first.getNextCursor(), 2);
+
+        assertEquals(List.of(3L, 2L), first.getRoomList().stream().map(RoomDTO::getId).toList());
+        assertEquals(List.of(1L), second.getRoomList().stream().map(RoomDTO::getId).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    /**
+     * Test que verifica que la habitación salga del catálogo y solo se consulten sus reservas,
+     * sin modificar el DTO compartido.
+     */
+    @Test
+    void shouldReturnRoomByIdFromCatalog() {
+        RoomDTO cached = new RoomDTO();
+        cached.setId(1L);
+        cached.setRoomType("DELUXE");
+        BookingDTO booking = new BookingDTO();
+        booking.setId(5L);
+        when(roomCatalog.findRoom(1L)).thenReturn(Optional.of(cached));
+        when(bookingRepository.findBookingDTOsByRoomId(1L)).thenReturn(List.of(booking));
+
+        Response response = roomService.getRoomById(1L);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals("DELUXE", response.getRoom().getRoomType());
+        assertEquals(1, response.getRoom().getBookings().size());
+        assertNull(cached.getBookings());
+        verify(roomRepository, never()).findById(1L);
+    }
+
+    /**
+     * Test que verifica que la búsqueda por fecha y tipo se resuelva con el índice
+     * de búsqueda, cargando solo las habitaciones disponibles.
+     */
+    @Test
+    void shouldReturnAvailableRoomsFromSearchIndex() {
+        LocalDate checkIn = LocalDate.now().plusDays(1);
+        LocalDate checkOut = LocalDate.now().plusDays(3);
+
+        when(searchIndex.canAnswer(checkIn)).thenReturn(true);
+        when(searchCache.get(eq(checkIn), eq(checkOut), eq("DELUXE"), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<RoomDTO>>>getArgument(3).get());
+        when(searchIndex.findAvailableRoomIds(checkIn, checkOut, "DELUXE")).thenReturn(List.of(1L));
+        when(roomRepository.findRoomDTOsByIdIn(List.of(1L))).thenReturn(List.of(Utils.mapRoomEntityToRoomDTO(room)));
+
+        Response response = roomService.getAvailableRoomsByDateAndType(checkIn, checkOut, "DELUXE");
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(1, response.getRoomList().size());
+        verify(roomRepository, never()).findAvailableRoomsByDateAndTypes(any(), any(), any());
+    }
+
+    /**
+     * Test que verifica que se use la consulta a la base de datos cuando el índice
+     * no puede responder (por ejemplo, fechas pasadas).
+     */
+    @Test
+    void shouldFallBackToDatabaseWhenSearchIndexCannotAnswer() {
+        LocalDate checkIn = LocalDate.now().minusDays(10);
+        LocalDate checkOut = LocalDate.now().minusDays(8);
+
+        when(searchIndex.canAnswer(checkIn)).thenReturn(false);
+        when(roomRepository.findAvailableRoomsByDateAndTypes(checkIn, checkOut, "DELUXE")).thenReturn(List.of(room));
+
+        Response response = roomService.getAvailableRoomsByDateAndType(checkIn, checkOut, "DELUXE");
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(1, response.getRoomList().size());
+    }
+
+    /**
+     * Test que verifica que se devuelva el ID y el vencimiento de una retención.
+     */
+    @Test
+    void shouldHoldRoom() {
+        LocalDate checkIn = LocalDate.now().plusDays(1);
+        LocalDate checkOut = LocalDate.now().plusDays(3);
+        HoldRequest holdRequest = new HoldRequest();
+        holdRequest.setCheckInDate(checkIn);
+        holdRequest.setCheckOutDate(checkOut);
+
+        when(roomRepository.existsById(1L)).thenReturn(true);
+        when(holdService.hold(1L, checkIn, checkOut, null)).thenReturn(
+                new RoomHoldService.Hold("hold-1", 1L, checkIn, checkOut, Instant.now().plusSeconds(600)));
+
+        Response response = roomService.holdRoom(1L, holdRequest);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals("hold-1", response.getHoldId());
+        assertNotNull(response.getExpirationTime());
+    }
+
+    /**
+     * Test que verifica que se devuelva 409 si las fechas ya están ocupadas.
+     */
+    @Test
+    void shouldReturn409WhenHoldingUnavailableRoom() {
+        LocalDate checkIn = LocalDate.now().plusDays(1);
+        LocalDate checkOut = LocalDate.now().plusDays(3);
+        HoldRequest holdRequest = new HoldRequest();
+        holdRequest.setCheckInDate(checkIn);
+        holdRequest.setCheckOutDate(checkOut);
+
+        when(roomRepository.existsById(1L)).thenReturn(true);
+        when(holdService.hold(1L, checkIn, checkOut, null)).thenThrow(new RoomNotAvailableException("Habitación no disponible"));
+
+        Response response = roomService.holdRoom(1L, holdRequest);
+
+        assertEquals(409, response.getStatusCode());
+    }
 }
@@ -4,6 +4,9 @@ import com.matias.dittler.hotelbooking.dto.LoginRequest;
 import com.matias.dittler.hotelbooking.dto.Response;
 import com.matias.dittler.hotelbooking.entity.User;
 import com.matias.dittler.hotelbooking.repository.UserRepository;
+import com.matias.dittler.hotelbooking.service.PasswordHashingExecutor;
+import com.matias.dittler.hotelbooking.service.RoomAvailabilityIndex;
+import com.matias.dittler.hotelbooking.service.TokenRevocationRegistry;
 import com.matias.dittler.hotelbooking.service.implementation.UserService;
 import com.matias.dittler.hotelbooking.utils.JWTUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,9 +15,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -33,13 +35,16 @@ class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingExecutor passwordHashing;
 
     @Mock
     private JWTUtils jwtUtils;
 
     @Mock
-    private AuthenticationManager authenticationManager;
+    private RoomAvailabilityIndex availabilityIndex;
+
+    @Mock
+    private TokenRevocationRegistry revocationRegistry;
 
     @InjectMocks
     private UserService userService;
@@ -68,7 +73,7 @@ class UserServiceTest {
     @Test
     void register_success() {
         when(userRepository.existsByEmail(user.getEmail())).thenReturn(false);
-        when(passwordEncoder.encode(any())).thenReturn("encoded");
+        when(passwordHashing.encode(any())).thenReturn("encoded");
         when(userRepository.save(any(User.class))).thenReturn(user);
 
         Response response = userService.register(user);
@@ -104,17 +109,57 @@ class UserServiceTest {
         loginRequest.setPassword("1234");
 
         when(userRepository.findByEmail("test@mail.com")).thenReturn(Optional.of(user));
+        when(passwordHashing.matches("1234", "1234")).thenReturn(true);
         when(jwtUtils.generateToken(user)).thenReturn("jwt-token");
 
         Response response = userService.login(loginRequest);
 
         assertEquals(200, response.getStatusCode());
         assertEquals("jwt-token", response.getToken());
+        verify(userRepository, times(1)).findByEmail("test@mail.com");
+    }
+
+    /**
+     * Testea login con contraseña incorrecta: no se genera token.
+     */
+    @Test
+    void login_wrongPassword() {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("test@mail.com");
+        loginRequest.setPassword("wrong");
+
+        when(userRepository.findByEmail("test@mail.com")).thenReturn(Optional.of(user));
+        when(passwordHashing.matches("wrong", "1234")).thenReturn(false);
+
+        Response response = userService.login(loginRequest);
+
+        assertEquals(500, response.getStatusCode());
+        assertEquals("Error al iniciar sesión: Bad credentials", response.getMessage());
+        assertNull(response.getToken());
+        verifyNoInteractions(jwtUtils);
+    }
+
+    /**
+     * Testea login cuando el pool de verificación de contraseñas está saturado.
+     * Devuelve código 503.
+     */
+    @Test
+    void login_passwordHashingBusy() {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("test@mail.com");
+        loginRequest.setPassword("1234");
+
+        when(userRepository.findByEmail("test@mail.com")).thenReturn(Optional.of(user));
+        when(passwordHashing.matches("1234", "1234")).thenThrow(new RejectedExecutionException());
+
+        Response response = userService.login(loginRequest);
+
+        assertEquals(503, response.getStatusCode());
     }
 
     /**
      * Testea login de usuario no encontrado.
-     * Devuelve código 404.
+     * Responde igual que con una contraseña incorrecta y también verifica con BCrypt.
      */
     @Test
     void login_userNotFound() {
@@ -126,7 +171,10 @@ class UserServiceTest {
 
         Response response = userService.login(loginRequest);
 
-        assertEquals(404, response.getStatusCode());
+        assertEquals(500, response.getStatusCode());
+        assertEquals("Error al iniciar sesión: Bad credentials", response.getMessage());
+        assertNull(response.getToken());
+        verify(passwordHashing).matchesDummy("1234");
     }
 
     /**
@@ -153,5 +201,6 @@ class UserServiceTest {
 
         assertEquals(200, response.getStatusCode());
         verify(userRepository, times(1)).deleteById(1L);
+        verify(revocationRegistry).userDeleted(1L);
     }
 }
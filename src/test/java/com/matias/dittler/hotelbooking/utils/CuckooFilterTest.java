@@ -0,0 +1,74 @@
+package com.matias.dittler.hotelbooking.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para CuckooFilter.
+ *
+ * Verifica que no haya falsos negativos, que las bajas funcionen y que la
+ * tasa de falsos positivos se mantenga cerca de la configurada.
+ */
+class CuckooFilterTest {
+
+    /**
+     * Verifica que todos los elementos agregados se encuentren y que los quitados dejen de estarlo.
+     */
+    @Test
+    void shouldFindAddedAndForgetRemoved() {
+        CuckooFilter filter = new CuckooFilter(10_000, 0.001);
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.add("CODE" + i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("CODE" + i));
+        }
+
+        for (int i = 0; i < 10_000; i += 2) {
+            assertTrue(filter.remove("CODE" + i));
+        }
+        for (int i = 1; i < 10_000; i += 2) {
+            assertTrue(filter.mightContain("CODE" + i));
+        }
+        assertEquals(5_000, filter.size());
+    }
+
+    /**
+     * Verifica que los falsos positivos no superen la tasa esperada.
+     */
+    @Test
+    void shouldKeepFalsePositivesBelowExpectedRate() {
+        CuckooFilter filter = new CuckooFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("CODE" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("MISS" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives / 100_000.0 <= filter.expectedFalsePositiveRate(),
+                "Falsos positivos: " + falsePositives);
+    }
+
+    /**
+     * Verifica que un filtro lleno rechace altas en lugar de perder elementos.
+     */
+    @Test
+    void shouldRejectWhenFull() {
+        CuckooFilter filter = new CuckooFilter(8, 0.01);
+        int added = 0;
+        while (added < 1_000 && filter.add("CODE" + added)) {
+            added++;
+        }
+
+        assertTrue(added < 1_000);
+        for (int i = 0; i < added; i++) {
+            assertTrue(filter.mightContain("CODE" + i));
+        }
+    }
+}
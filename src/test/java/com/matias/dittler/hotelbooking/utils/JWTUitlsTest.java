@@ -1,5 +1,7 @@
 package com.matias.dittler.hotelbooking.utils;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.userdetails.User;
@@ -81,4 +83,46 @@ class JWTUtilsTest {
 
         assertFalse(isValid); // Token inválido para usuario diferente
     }
+
+    /**
+     * Verifica que un token ya verificado se resuelva desde la caché.
+     */
+    @Test
+    void shouldReuseVerifiedClaims() {
+        String token = jwtUtils.generateToken(userDetails);
+
+        assertSame(jwtUtils.parseClaims(token), jwtUtils.parseClaims(token));
+        assertTrue(jwtUtils.isValidToken(token, userDetails));
+    }
+
+    /**
+     * Verifica que un token alterado se rechace aunque el original esté en caché.
+     */
+    @Test
+    void shouldRejectTamperedTokenAfterCachingOriginal() {
+        String token = jwtUtils.generateToken(userDetails);
+        jwtUtils.parseClaims(token);
+
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtils.parseClaims(tampered));
+    }
+
+    /**
+     * Verifica que los tokens de usuarios de la aplicación incluyan ID y rol.
+     */
+    @Test
+    void shouldEmbedUserIdAndRoleClaims() {
+        com.matias.dittler.hotelbooking.entity.User appUser = new com.matias.dittler.hotelbooking.entity.User();
+        appUser.setId(7L);
+        appUser.setEmail("test@email.com");
+        appUser.setRole("ADMIN");
+
+        Claims claims = jwtUtils.parseClaims(jwtUtils.generateToken(appUser));
+
+        assertEquals("test@email.com", claims.getSubject());
+        assertEquals(7L, claims.get(JWTUtils.USER_ID_CLAIM, Long.class));
+        assertEquals("ADMIN", claims.get(JWTUtils.ROLE_CLAIM, String.class));
+    }
 }
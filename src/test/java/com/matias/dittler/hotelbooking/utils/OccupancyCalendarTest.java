@@ -0,0 +1,68 @@
+package com.matias.dittler.hotelbooking.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para OccupancyCalendar
+ *
+ * Verifica las operaciones por palabra sobre rangos que caen dentro de una
+ * palabra, que cruzan varias palabras y que exceden el horizonte.
+ */
+class OccupancyCalendarTest {
+
+    private static final long ORIGIN = 20_000;
+
+    /**
+     * Testea un rango ocupado dentro de una misma palabra.
+     */
+    @Test
+    void shouldDetectOccupiedNightsWithinOneWord() {
+        OccupancyCalendar calendar = new OccupancyCalendar(ORIGIN, 1095);
+
+        calendar.set(ORIGIN + 10, ORIGIN + 13);
+
+        assertFalse(calendar.isFree(ORIGIN + 12, ORIGIN + 20));
+        assertFalse(calendar.isFree(ORIGIN + 5, ORIGIN + 11));
+        assertTrue(calendar.isFree(ORIGIN + 13, ORIGIN + 20));
+        assertTrue(calendar.isFree(ORIGIN + 5, ORIGIN + 10));
+    }
+
+    /**
+     * Testea rangos que cruzan los límites de varias palabras long.
+     */
+    @Test
+    void shouldHandleRangesAcrossWords() {
+        OccupancyCalendar calendar = new OccupancyCalendar(ORIGIN, 1095);
+
+        calendar.set(ORIGIN + 130, ORIGIN + 131);
+
+        assertFalse(calendar.isFree(ORIGIN + 60, ORIGIN + 200));
+        assertTrue(calendar.isFree(ORIGIN + 60, ORIGIN + 130));
+        assertTrue(calendar.isFree(ORIGIN + 131, ORIGIN + 300));
+
+        calendar.clear(ORIGIN + 100, ORIGIN + 200);
+
+        assertTrue(calendar.isFree(ORIGIN, ORIGIN + 1095));
+    }
+
+    /**
+     * Testea que solo se cubran rangos dentro del horizonte y que set los recorte.
+     */
+    @Test
+    void shouldClipToHorizon() {
+        OccupancyCalendar calendar = new OccupancyCalendar(ORIGIN, 100);
+
+        assertTrue(calendar.covers(ORIGIN, ORIGIN + 100));
+        assertFalse(calendar.covers(ORIGIN - 1, ORIGIN + 10));
+        assertFalse(calendar.covers(ORIGIN + 90, ORIGIN + 101));
+
+        calendar.set(ORIGIN - 5, ORIGIN + 2);
+        calendar.set(ORIGIN + 98, ORIGIN + 300);
+
+        assertFalse(calendar.isFree(ORIGIN, ORIGIN + 1));
+        assertFalse(calendar.isFree(ORIGIN + 99, ORIGIN + 100));
+        assertTrue(calendar.isFree(ORIGIN + 2, ORIGIN + 98));
+    }
+}
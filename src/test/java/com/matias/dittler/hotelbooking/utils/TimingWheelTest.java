@@ -0,0 +1,88 @@
+package com.matias.dittler.hotelbooking.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para TimingWheel
+ *
+ * Verifica que los vencimientos se entreguen en su tick, incluso cuando
+ * superan una vuelta completa de la rueda, y que los cancelados no venzan.
+ */
+class TimingWheelTest {
+
+    private static final long START = 1_000_000;
+
+    /**
+     * Testea que un vencimiento se entregue recién al llegar su tick.
+     */
+    @Test
+    void shouldExpireAtDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, START);
+        List<String> expired = new ArrayList<>();
+
+        wheel.schedule("a", START + 450);
+
+        wheel.advance(START + 300, expired::add);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(START + 500, expired::add);
+        assertEquals(List.of("a"), expired);
+    }
+
+    /**
+     * Testea vencimientos que requieren varias vueltas de la rueda.
+     */
+    @Test
+    void shouldExpireAfterSeveralRounds() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, START);
+        List<String> expired = new ArrayList<>();
+
+        // La rueda da una vuelta cada 800 ms
+        wheel.schedule("late", START + 2_050);
+        wheel.schedule("early", START + 250);
+
+        wheel.advance(START + 1_900, expired::add);
+        assertEquals(List.of("early"), expired);
+
+        wheel.advance(START + 2_100, expired::add);
+        assertEquals(List.of("early", "late"), expired);
+    }
+
+    /**
+     * Testea que un vencimiento cancelado no se entregue y que no se pueda cancelar uno vencido.
+     */
+    @Test
+    void shouldNotExpireCancelledTimeouts() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, START);
+        List<String> expired = new ArrayList<>();
+
+        TimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", START + 200);
+        TimingWheel.Timeout<String> kept = wheel.schedule("kept", START + 200);
+        assertTrue(cancelled.cancel());
+
+        wheel.advance(START + 300, expired::add);
+
+        assertEquals(List.of("kept"), expired);
+        assertFalse(kept.cancel());
+    }
+
+    /**
+     * Testea que un vencimiento ya pasado se entregue en el siguiente avance.
+     */
+    @Test
+    void shouldExpireOverdueTimeoutsImmediately() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, START);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(START + 1_000, expired::add);
+        wheel.schedule("overdue", START + 100);
+        wheel.advance(START + 1_100, expired::add);
+
+        assertEquals(List.of("overdue"), expired);
+    }
+}